@@ -1,5 +1,8 @@
 package com.jonghak.springbootweb;
 
+import com.jonghak.springbootweb.advice.SharedInitBinder;
+import com.jonghak.springbootweb.advice.SharedModelAttribute;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
@@ -28,6 +31,12 @@ import java.util.List;
 @RestControllerAdvice(assignableTypes = {HandlerMethodController.class, EventApi.class})
 public class BaseController {
 
+    /**
+     * 상태가 없는 Validator이므로 요청마다 만들지 않고 하나를 같이 사용한다. (ValidationConfig)
+     */
+    @Autowired
+    EventValidatorImpl eventValidator;
+
     /**
      * - @ExceptionHandler : 특정 예외가 발생한 요청을 처리하는 핸들러 정의
      *  ● 지원하는 메소드 아규먼트 (해당 예외 객체, 핸들러 객체, ...)
@@ -56,15 +65,18 @@ public class BaseController {
      * - 특정 모델 객체에만 바인딩 또는 Validator 설정을 적용하고 싶은 경우
      *  ● @InitBinder(“event”)
      *
+     * - 요청과 상관없는 설정이므로 @SharedInitBinder로 한 번만 호출하고 기록한 설정을 binder마다 적용한다.
+     *  ● 핸들러는 @UsesAdvice(binder = "event")로 사용한다고 선언할 수 있다. (선언이 없으면 적용)
+     *
      */
-    @InitBinder("event")
+    @SharedInitBinder("event")
     public void initEventBinder(WebDataBinder webDataBinder) {
         // binding 설정
         webDataBinder.setDisallowedFields("id"); // 블랙리스트 방식, 해당 명칭의 파라미터는 제외
         webDataBinder.setAllowedFields("name", "limit", "startDate"); // 화이트리스트 방식, 해당 명칭의 파라미터만 인입가능
 
         // validator 설정
-        webDataBinder.addValidators(new EventValidatorImpl());
+        webDataBinder.addValidators(eventValidator);
 
         // formatter 설정
 //        webDataBinder.addCustomFormatter();
@@ -82,8 +94,12 @@ public class BaseController {
 //        model.addAttribute("categories", List.of("study", "seminar", "hobby", "social"));
 //    }
 
-    @ModelAttribute("categories")
-    public List<String> categories(Model model) {
+    /**
+     * - 뷰에서 사용하는 고정 값이므로 @SharedModelAttribute로 한 번만 만들고 재사용한다.
+     *  ● 뷰를 그리지 않는 핸들러(EventApi 등)는 @UsesAdvice로 선언하지 않아서 모델에 넣지 않는다.
+     */
+    @SharedModelAttribute("categories")
+    public List<String> categories() {
         return List.of("study", "seminar", "hobby", "social");
     }
 
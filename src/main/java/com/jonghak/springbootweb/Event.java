@@ -11,8 +11,8 @@ import java.time.LocalDate;
 @Data
 public class Event {
 
-    interface ValidateName {};
-    interface ValidateLimit {};
+    public interface ValidateName {};
+    public interface ValidateLimit {};
 
     private Integer id;
 
@@ -1,6 +1,10 @@
 package com.jonghak.springbootweb;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jonghak.springbootweb.advice.UsesAdvice;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.Headers;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -8,10 +12,30 @@ import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * - 뷰를 그리지 않으므로 BaseController의 모델 값(categories)은 사용하지 않고, event 바인딩 설정(Validator 등)만 사용한다.
+ */
+@UsesAdvice(binder = "event")
 @RestController
 @RequestMapping("/api/events")
 public class EventApi {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    EventBatchProcessor eventBatchProcessor;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
     /**
      * - @ExceptionHandler : 특정 예외가 발생한 요청을 처리하는 핸들러 정의
      *  ● REST API의 경우 응답 본문에 에러에 대한 정보를 담아주고, 상태 코드를 설정하려면 ResponseEntity를 주로 사용한다.
@@ -74,8 +98,63 @@ public class EventApi {
             return ResponseEntity.badRequest().build();
         }
 
-        // create process
+        // create process (write-behind, 설정된 durability 까지만 기다림)
+        eventRepository.save(event);
 
         return ResponseEntity.ok(event);
     }
+
+    /**
+     * - 배치 등록 : 여러 개의 Event를 한 번의 요청으로 등록
+     *  ● Content-Type : application/json (Event 배열) 또는 application/x-ndjson (한 줄에 Event 하나)
+     *  ● 요청을 끝까지 받기 전에 앞의 항목부터 처리하고 결과(항목별 성공/실패)를 응답에 쓴다.
+     *      ○ 결과를 직접 쓰기 때문에 HttpMessageConverter를 거치지 않고 HttpServletResponse를 사용한다.
+     *      ○ Event마다 기다리지 않고 큐에 넣고, 저장이 끝난 항목부터 결과를 쓴다. (저장에 실패한 항목은 saveFailed)
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void createEventsBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        // create process (write-behind)
+        eventBatchProcessor.process(request.getInputStream(), response.getOutputStream(), ndjson, eventRepository::saveAsync);
+    }
+
+    /**
+     * - 목록 조회 : 조건(EventQuery)에 맞는 Event를 size 개씩 조회
+     *  ● 응답 : {"events":[...],"next":"다음 페이지 cursor, 마지막 페이지면 null"}
+     *  ● 다음 페이지는 같은 조건에 cursor={next} 를 추가해서 요청한다. (offset 없음)
+     *  ● 저장소의 인덱스에서 읽는 대로 JsonGenerator로 바로 쓴다. (목록을 만들어서 변환하지 않음)
+     */
+    @GetMapping
+    public void getEvents(EventQuery query,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(defaultValue = "100") int size,
+                          HttpServletResponse response) throws IOException {
+        // 이 컨트롤러의 @ExceptionHandler는 예외 타입이 없어서 예외를 던지지 않고 에러 응답을 직접 보낸다.
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+            return;
+        }
+        Iterator<Event> events;
+        try {
+            events = eventRepository.find(query, cursor);
+        } catch (IllegalArgumentException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("events");
+            Event last = null;
+            for (int count = 0; count < size && events.hasNext(); count++) {
+                last = events.next();
+                generator.writeObject(last);
+            }
+            generator.writeEndArray();
+            generator.writeStringField("next", events.hasNext() ? eventRepository.cursorOf(query, last) : null);
+            generator.writeEndObject();
+        }
+    }
 }
@@ -0,0 +1,467 @@
+package com.jonghak.springbootweb;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.SmartValidator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * - 여러 개의 Event를 한 번의 요청으로 받는 배치 처리기
+ *  ● 요청 본문은 JSON 배열([{...}, {...}]) 또는 NDJSON(한 줄에 Event 하나)
+ *  ● JsonParser로 Event를 하나씩 읽기 때문에 요청 전체를 메모리에 올리지 않는다.
+ *  ● 검증은 @Validated({ValidateLimit, ValidateName})와 같은 그룹 + EventValidatorImpl
+ *      ○ Validator, ObjectReader는 만들어 둔 것을 계속 재사용한다. (요청마다 만들지 않음)
+ *  ● 결과도 JsonGenerator로 Event 하나씩 바로 쓴다. (요청과 같은 형식, JSON 배열 또는 NDJSON)
+ *      ○ {"index":0,"accepted":true}
+ *      ○ {"index":1,"accepted":false,"errors":[{"field":"limit","code":"Min","message":"..."}]}
+ *      ○ {"index":2,"accepted":false,"errors":[{"code":"saveFailed","message":"..."}]}
+ *  ● 검증을 통과한 항목의 결과는 sink가 리턴한 Future(저장)가 끝난 다음에 쓴다.
+ *      ○ 결과는 항목 순서대로 쓰므로 저장이 끝나지 않은 항목 뒤의 결과는 그 항목이 끝날 때까지 모아둔다.
+ *      ○ 응답은 모든 항목의 저장이 끝난 다음에 끝난다.
+ *
+ * - 잘못된 항목
+ *  ● 타입이 맞지 않는 항목, null 항목은 해당 항목만 실패로 기록하고 다음 항목을 계속 읽는다.
+ *  ● JSON 문법이 깨진 경우는 더 읽을 수 없으므로 실패로 기록하고 멈춘다.
+ *
+ * - 서블릿은 process(InputStream, ...), WebFlux는 process(Flux<DataBuffer>, ...)를 사용한다.
+ */
+public class EventBatchProcessor {
+
+    private static final Object[] VALIDATION_GROUPS = {Event.ValidateLimit.class, Event.ValidateName.class};
+
+    /**
+     * 이 개수마다 결과를 flush 해서 클라이언트가 진행 상황을 받을 수 있게 한다.
+     */
+    private static final int FLUSH_INTERVAL = 256;
+
+    private static final CompletableFuture<Void> NOT_SAVED = CompletableFuture.completedFuture(null);
+
+    private final JsonFactory jsonFactory;
+
+    private final ObjectReader eventReader;
+
+    private final SmartValidator validator;
+
+    private final SmartValidator eventValidator;
+
+    public EventBatchProcessor(ObjectMapper objectMapper, SmartValidator validator, SmartValidator eventValidator) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.eventReader = objectMapper.readerFor(Event.class);
+        this.validator = validator;
+        this.eventValidator = eventValidator;
+    }
+
+    /**
+     * @param sink 검증을 통과한 Event를 받아서 저장하는 곳, 저장이 끝나면 완료되는 Future를 리턴한다.
+     * @return 검증을 통과한 Event 수
+     */
+    public int process(InputStream in, OutputStream out, boolean ndjson, Function<Event, CompletableFuture<?>> sink) throws IOException {
+        int accepted = 0;
+        try (JsonParser parser = jsonFactory.createParser(in);
+             JsonGenerator generator = createResultGenerator(out, ndjson)) {
+            Results results = new Results(generator);
+            int index = 0;
+            JsonToken token;
+            try {
+                token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException ex) {
+                results.failure(index, ex);
+                token = null;
+            }
+
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonStreamContext itemParent = token.isStructStart()
+                        ? parser.getParsingContext().getParent()
+                        : parser.getParsingContext();
+                try {
+                    Event event = eventReader.readValue(parser);
+                    if (accept(results, index, event, sink)) {
+                        accepted++;
+                    }
+                    token = parser.nextToken();
+                } catch (JsonMappingException ex) {
+                    // 항목 하나의 타입 오류, 그 항목의 끝까지 건너뛰고 계속 읽는다.
+                    results.failure(index, ex);
+                    token = skipItem(parser, itemParent);
+                } catch (JsonProcessingException ex) {
+                    results.failure(index, ex);
+                    break;
+                }
+
+                if (++index % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+
+            // 남은 항목의 저장이 끝날 때까지 기다린다.
+            results.writeAll();
+            endResults(generator, ndjson);
+        }
+        return accepted;
+    }
+
+    /**
+     * - 요청 본문을 DataBuffer로 나눠서 받는 경우 (WebFlux)
+     *  ● 받은 DataBuffer를 Jackson의 non-blocking 파서에 넣고, 그 안에서 끝난 Event들의 결과를 DataBuffer 하나로 바로 내보낸다.
+     *      ○ Event 하나 분량의 토큰만 TokenBuffer에 모은다. (요청 전체를 모으지 않음)
+     *  ● 결과 형식, 검증, 잘못된 항목 처리는 process(InputStream, ...)와 같다.
+     *  ● 요청을 다 읽으면 남은 항목의 저장이 끝나기를 (스레드를 막지 않고) 기다린 다음 나머지 결과를 내보낸다.
+     */
+    public Flux<DataBuffer> process(Flux<DataBuffer> in, DataBufferFactory bufferFactory, boolean ndjson,
+                                    Function<Event, CompletableFuture<?>> sink) {
+        return Mono.fromCallable(() -> new NonBlockingBatch(ndjson, sink))
+                .flatMapMany(batch -> in.<byte[]>handle((buffer, results) -> {
+                            try {
+                                results.next(batch.feed(buffer));
+                            } catch (IOException ex) {
+                                results.error(ex);
+                            }
+                        })
+                        .concatWith(Mono.fromCallable(batch::endOfInput))
+                        .concatWith(Mono.defer(() -> Mono.fromFuture(batch.results.saved()))
+                                .then(Mono.fromCallable(batch::finish))))
+                .filter(results -> results.length > 0)
+                .map(bufferFactory::wrap);
+    }
+
+    private JsonGenerator createResultGenerator(OutputStream out, boolean ndjson) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (ndjson) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+        } else {
+            generator.writeStartArray();
+        }
+        return generator;
+    }
+
+    private void endResults(JsonGenerator generator, boolean ndjson) throws IOException {
+        if (ndjson) {
+            generator.writeRaw('\n');
+        } else {
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Event 하나를 검증하고 결과를 쓴다. 검증을 통과하면 sink로 넘기고 true
+     */
+    private boolean accept(Results results, int index, Event event, Function<Event, CompletableFuture<?>> sink) throws IOException {
+        if (event == null) {
+            results.failure(index, "nullItem", "item must be a JSON object");
+            return false;
+        }
+        BeanPropertyBindingResult errors = validate(event);
+        if (errors.hasErrors()) {
+            results.errors(index, errors);
+            return false;
+        }
+        results.saving(index, sink.apply(event));
+        return true;
+    }
+
+    private BeanPropertyBindingResult validate(Event event) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(event, "event");
+        validator.validate(event, errors, VALIDATION_GROUPS);
+        eventValidator.validate(event, errors, VALIDATION_GROUPS);
+        return errors;
+    }
+
+    private JsonToken skipItem(JsonParser parser, JsonStreamContext itemParent) throws IOException {
+        try {
+            while (parser.getParsingContext() != itemParent) {
+                if (parser.nextToken() == null) {
+                    return null;
+                }
+            }
+            return parser.nextToken();
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+    }
+
+    private void writeAccepted(JsonGenerator generator, int index) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        generator.writeBooleanField("accepted", true);
+        generator.writeEndObject();
+    }
+
+    private void writeErrors(JsonGenerator generator, int index, BeanPropertyBindingResult errors) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        generator.writeBooleanField("accepted", false);
+        generator.writeArrayFieldStart("errors");
+        for (ObjectError error : errors.getAllErrors()) {
+            generator.writeStartObject();
+            if (error instanceof FieldError) {
+                generator.writeStringField("field", ((FieldError) error).getField());
+            }
+            generator.writeStringField("code", error.getCode());
+            generator.writeStringField("message", error.getDefaultMessage());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writeFailure(JsonGenerator generator, int index, JsonProcessingException ex) throws IOException {
+        writeFailure(generator, index, ex instanceof JsonMappingException ? "typeMismatch" : "invalidJson", ex.getOriginalMessage());
+    }
+
+    private void writeFailure(JsonGenerator generator, int index, String code, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        generator.writeBooleanField("accepted", false);
+        generator.writeArrayFieldStart("errors");
+        generator.writeStartObject();
+        generator.writeStringField("code", code);
+        generator.writeStringField("message", message);
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    @FunctionalInterface
+    private interface Result {
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * 요청 하나의 결과, 저장이 끝나지 않은 항목이 있으면 그 뒤의 결과는 순서대로 모아뒀다가 쓴다.
+     */
+    private final class Results {
+
+        private final JsonGenerator generator;
+
+        private final Deque<CompletableFuture<?>> saving = new ArrayDeque<>();
+
+        private final Deque<Result> pending = new ArrayDeque<>();
+
+        private Results(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        private void saving(int index, CompletableFuture<?> saved) throws IOException {
+            add(saved, generator -> {
+                if (saved.isCompletedExceptionally()) {
+                    writeFailure(generator, index, "saveFailed", "event could not be saved");
+                } else {
+                    writeAccepted(generator, index);
+                }
+            });
+        }
+
+        private void errors(int index, BeanPropertyBindingResult errors) throws IOException {
+            add(NOT_SAVED, generator -> writeErrors(generator, index, errors));
+        }
+
+        private void failure(int index, JsonProcessingException ex) throws IOException {
+            add(NOT_SAVED, generator -> writeFailure(generator, index, ex));
+        }
+
+        private void failure(int index, String code, String message) throws IOException {
+            add(NOT_SAVED, generator -> writeFailure(generator, index, code, message));
+        }
+
+        /**
+         * 모아둔 결과 중 저장이 끝난 앞부분을 쓴다.
+         */
+        private void writeCompleted() throws IOException {
+            while (!pending.isEmpty()) {
+                CompletableFuture<?> saved = saving.peek();
+                if (!saved.isDone()) {
+                    return;
+                }
+                saving.poll();
+                pending.poll().writeTo(generator);
+            }
+        }
+
+        /**
+         * 저장이 끝날 때까지 기다리면서 모아둔 결과를 모두 쓴다.
+         */
+        private void writeAll() throws IOException {
+            saved().join();
+            writeCompleted();
+        }
+
+        /**
+         * 모아둔 결과의 저장이 모두 끝나면 완료된다. (저장 실패는 항목의 결과로 쓰므로 정상 완료)
+         */
+        private CompletableFuture<Void> saved() {
+            return CompletableFuture.allOf(saving.toArray(CompletableFuture[]::new))
+                    .handle((ignored, ex) -> null);
+        }
+
+        private void add(CompletableFuture<?> saved, Result result) throws IOException {
+            if (pending.isEmpty() && saved.isDone()) {
+                result.writeTo(generator);
+                return;
+            }
+            saving.add(saved);
+            pending.add(result);
+            writeCompleted();
+        }
+    }
+
+    /**
+     * 요청 하나의 non-blocking 파싱 상태 (DataBuffer는 순서대로 하나씩 들어온다)
+     */
+    private final class NonBlockingBatch {
+
+        private final JsonParser parser;
+
+        private final ByteArrayFeeder feeder;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private final JsonGenerator generator;
+
+        private final Results results;
+
+        private final boolean ndjson;
+
+        private final Function<Event, CompletableFuture<?>> sink;
+
+        private TokenBuffer item;
+
+        private int depth;
+
+        private int index;
+
+        private boolean started;
+
+        private boolean finished;
+
+        private NonBlockingBatch(boolean ndjson, Function<Event, CompletableFuture<?>> sink) throws IOException {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            this.generator = createResultGenerator(out, ndjson);
+            this.results = new Results(generator);
+            this.ndjson = ndjson;
+            this.sink = sink;
+        }
+
+        /**
+         * @return 이 DataBuffer 안에서 끝난 Event들의 결과
+         */
+        private byte[] feed(DataBuffer buffer) throws IOException {
+            try {
+                if (!finished) {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    feeder.feedInput(bytes, 0, bytes.length);
+                    readItems();
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return drain();
+        }
+
+        /**
+         * @return 요청의 마지막 DataBuffer까지 읽고 난 뒤 끝난 Event들의 결과
+         */
+        private byte[] endOfInput() throws IOException {
+            if (!finished) {
+                feeder.endOfInput();
+                readItems();
+            }
+            return drain();
+        }
+
+        /**
+         * 저장이 모두 끝난 다음(results.saved())에 호출한다.
+         */
+        private byte[] finish() throws IOException {
+            results.writeAll();
+            endResults(generator, ndjson);
+            byte[] remaining = drain();
+            generator.close();
+            parser.close();
+            return remaining;
+        }
+
+        private void readItems() throws IOException {
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                    if (item == null) {
+                        if (!started) {
+                            started = true;
+                            if (token == JsonToken.START_ARRAY) {
+                                continue;
+                            }
+                        }
+                        if (token == JsonToken.END_ARRAY) {
+                            finished = true;
+                            return;
+                        }
+                        item = new TokenBuffer(parser);
+                    }
+                    item.copyCurrentEvent(parser);
+                    if (token.isStructStart()) {
+                        depth++;
+                    } else if (token.isStructEnd()) {
+                        depth--;
+                    }
+                    if (depth == 0) {
+                        readItem();
+                    }
+                }
+            } catch (JsonProcessingException ex) {
+                // JSON 문법 오류, 더 읽을 수 없으므로 멈춘다.
+                results.failure(index, ex);
+                finished = true;
+            }
+        }
+
+        private void readItem() throws IOException {
+            try (JsonParser itemParser = item.asParser()) {
+                accept(results, index, eventReader.readValue(itemParser), sink);
+            } catch (JsonMappingException ex) {
+                // 항목 하나의 타입 오류, 다음 항목을 계속 읽는다.
+                results.failure(index, ex);
+            }
+            item = null;
+            index++;
+        }
+
+        private byte[] drain() throws IOException {
+            generator.flush();
+            byte[] results = out.toByteArray();
+            out.reset();
+            return results;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.jonghak.springbootweb;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * - Event 목록 조회 조건 (요청 매개변수를 @ModelAttribute로 바인딩)
+ *  ● name : 이름 접두어
+ *  ● limitFrom ~ limitTo : 제한 인원 범위 (양쪽 포함)
+ *  ● startDateFrom ~ startDateTo : 시작일 범위 (양쪽 포함)
+ *  ● 값이 없는 조건은 적용하지 않는다.
+ */
+@Data
+public class EventQuery {
+
+    private String name;
+
+    private Integer limitFrom;
+
+    private Integer limitTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDateFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDateTo;
+
+    public boolean matches(Event event) {
+        if (name != null && (event.getName() == null || !event.getName().startsWith(name))) {
+            return false;
+        }
+        if ((limitFrom != null || limitTo != null) && event.getLimit() == null) {
+            return false;
+        }
+        if (limitFrom != null && event.getLimit() < limitFrom || limitTo != null && event.getLimit() > limitTo) {
+            return false;
+        }
+        if ((startDateFrom != null || startDateTo != null) && event.getStartDate() == null) {
+            return false;
+        }
+        return (startDateFrom == null || !event.getStartDate().isBefore(startDateFrom))
+                && (startDateTo == null || !event.getStartDate().isAfter(startDateTo));
+    }
+}
@@ -0,0 +1,535 @@
+package com.jonghak.springbootweb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * - Event 저장소 (append-only 로그 + write-behind)
+ *  ● save()는 ID를 부여하고 큐에 넣기만 한다. 디스크 쓰기는 별도의 writer 스레드가 한다.
+ *  ● writer 스레드는 batchSize 만큼 모이거나 flushInterval이 지나면 모인 Event를 한 번의 write로 로그에 추가한다.
+ *      ○ 요청마다 commit(fsync) 하지 않고 여러 요청을 묶어서 한 번에 기록한다. (group commit)
+ *      ○ 기록에 성공한 Event만 메모리(인덱스)에 반영한다. 조회 결과에는 로그에 없는 Event가 나오지 않는다.
+ *      ○ 쓰기가 중간에 실패하면 로그를 마지막으로 성공한 위치까지 잘라서 다음 batch가 깨진 레코드 뒤에 붙지 않게 한다.
+ *  ● 시작할 때 로그를 한 번 읽어서 메모리에 올린다. 마지막 레코드가 중간에 잘린 경우 잘린 부분은 버린다.
+ *
+ * - 응답 시점 (Durability)
+ *  ● NONE  : 큐에 들어가면 바로 응답한다. (프로세스가 죽으면 아직 쓰지 않은 Event는 잃어버림, 조회는 기록된 다음부터 됨)
+ *  ● WRITE : 로그 파일에 write 된 다음 응답한다. (OS가 죽지 않으면 안전)
+ *  ● FSYNC : 디스크에 force 된 다음 응답한다.
+ *
+ * - 조회 (find)
+ *  ● id 외에 name, startDate, limit 보조 인덱스를 ConcurrentSkipListMap으로 유지한다. 키는 (값, id) 라서 값이 같아도 순서가 정해진다.
+ *  ● 조건에 따라 하나의 인덱스를 골라 범위(subMap)만 읽고, 나머지 조건은 읽으면서 확인한다.
+ *      ○ name 접두어 > startDate 범위 > limit 범위 > id 순서로 고르고, 결과도 그 인덱스 순서로 나온다.
+ *  ● 페이지는 offset이 아니라 마지막으로 읽은 키(cursor) 다음부터 읽는다. (keyset pagination)
+ *      ○ 앞 페이지를 건너뛰기 위해 다시 읽지 않기 때문에 몇 번째 페이지든 비용이 같다.
+ *  ● Event는 수정/삭제되지 않기 때문에(append-only) 인덱스는 저장할 때 추가만 한다.
+ *
+ * - 로그 레코드
+ *  ● [id(int)][flags(byte)][name(UTF)][limit(int)][startDate(epochDay, long)]
+ *  ● flags : 값이 있는 필드 (1 = name, 2 = limit, 4 = startDate), 없는 필드는 기록하지 않는다.
+ */
+public class EventRepository implements Closeable {
+
+    public enum Durability {NONE, WRITE, FSYNC}
+
+    private static final int HAS_NAME = 1;
+    private static final int HAS_LIMIT = 2;
+    private static final int HAS_START_DATE = 4;
+
+    private static final long CLOSE_CHECK_INTERVAL_MILLIS = 100;
+
+    private final Path logFile;
+
+    private final FileChannel logChannel;
+
+    private final Durability durability;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final ConcurrentNavigableMap<Integer, Event> events = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentNavigableMap<IndexKey<String>, Event> byName = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentNavigableMap<IndexKey<LocalDate>, Event> byStartDate = new ConcurrentSkipListMap<>();
+
+    private final ConcurrentNavigableMap<IndexKey<Integer>, Event> byLimit = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * 마지막으로 기록에 성공한 로그의 끝 (writer 스레드만 사용)
+     */
+    private long validSize;
+
+    private final BlockingQueue<PendingEvent> queue;
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    public EventRepository(Path logFile, Durability durability, int batchSize, Duration flushInterval,
+                           int queueCapacity) throws IOException {
+        this.logFile = logFile;
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Files.createDirectories(logFile.getParent());
+        loadLog();
+        this.logChannel = FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.validSize = logChannel.size();
+
+        this.writer = new Thread(this::writeLoop, "event-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * ID를 부여하고 저장한다. durability에 따라 로그에 기록될 때까지 기다릴 수 있지만 Event 하나를 위해 commit 하지는 않는다.
+     */
+    public Event save(Event event) {
+        try {
+            return saveAsync(event).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) ex.getCause());
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 큐에 넣고 바로 리턴한다.
+     *  ● Future는 Event마다 따로 완료된다. 레코드로 만들 수 없는 Event나 쓰기에 실패한 batch의 Event는 그 Future만 실패하고
+     *    뒤의 Event는 기록될 수 있으므로, 마지막 Future가 끝났다고 앞의 Event가 모두 기록된 것은 아니다. (각각 확인해야 함)
+     */
+    public CompletableFuture<Event> saveAsync(Event event) {
+        if (closed) {
+            throw new IllegalStateException("EventRepository is closed");
+        }
+        Event saved = copyOf(event);
+        saved.setId(sequence.incrementAndGet());
+        event.setId(saved.getId());
+
+        PendingEvent pending = new PendingEvent(saved);
+        try {
+            // 큐가 가득 찬 경우에만 기다린다. (back-pressure)
+            queue.put(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while saving event", ex);
+        }
+
+        if (durability == Durability.NONE) {
+            return CompletableFuture.completedFuture(event);
+        }
+        return pending.written.thenApply(ignored -> event);
+    }
+
+    public Optional<Event> findById(Integer id) {
+        return Optional.ofNullable(events.get(id)).map(EventRepository::copyOf);
+    }
+
+    public int count() {
+        return events.size();
+    }
+
+    /**
+     * 조건에 맞는 Event를 cursor 다음부터 인덱스 순서로 읽는다. 다음 Event는 읽을 때 찾는다. (한 번에 모으지 않음)
+     * 복사하지 않고 저장소의 Event를 그대로 넘겨주기 때문에 읽기만 해야 한다.
+     *
+     * @param cursor 이전 페이지의 cursorOf(), 처음이면 null
+     * @throws IllegalArgumentException cursor가 잘못되었거나 다른 조건으로 만든 경우
+     */
+    public Iterator<Event> find(EventQuery query, String cursor) {
+        Plan plan = Plan.of(query);
+        ByteBuffer after = cursor == null ? null : decodeCursor(plan, cursor);
+        try {
+            Collection<Event> range = range(plan, query, after);
+            if (after != null && after.hasRemaining()) {
+                throw new IllegalArgumentException("invalid cursor : " + cursor);
+            }
+            return range.stream().filter(query::matches).iterator();
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("invalid cursor : " + cursor, ex);
+        }
+    }
+
+    private Collection<Event> range(Plan plan, EventQuery query, ByteBuffer after) {
+        Collection<Event> range;
+        switch (plan) {
+            case NAME:
+                range = range(byName, new IndexKey<>(query.getName(), Integer.MIN_VALUE),
+                        new IndexKey<>(query.getName() + Character.MAX_VALUE, Integer.MIN_VALUE),
+                        after == null ? null : new IndexKey<>(readString(after), after.getInt()));
+                break;
+            case START_DATE:
+                range = range(byStartDate,
+                        query.getStartDateFrom() == null ? null : new IndexKey<>(query.getStartDateFrom(), Integer.MIN_VALUE),
+                        query.getStartDateTo() == null ? null : new IndexKey<>(query.getStartDateTo(), Integer.MAX_VALUE),
+                        after == null ? null : new IndexKey<>(readDate(after), after.getInt()));
+                break;
+            case LIMIT:
+                range = range(byLimit,
+                        query.getLimitFrom() == null ? null : new IndexKey<>(query.getLimitFrom(), Integer.MIN_VALUE),
+                        query.getLimitTo() == null ? null : new IndexKey<>(query.getLimitTo(), Integer.MAX_VALUE),
+                        after == null ? null : new IndexKey<>(after.getInt(), after.getInt()));
+                break;
+            default:
+                range = after == null ? events.values() : events.tailMap(after.getInt(), false).values();
+        }
+        return range;
+    }
+
+    /**
+     * event 다음부터 읽기 위한 cursor, 조회할 때 고른 인덱스의 키를 base64url로 인코딩한다.
+     */
+    public String cursorOf(EventQuery query, Event event) {
+        Plan plan = Plan.of(query);
+        String name = plan == Plan.NAME ? event.getName() : "";
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + name.length() * 3 + 12);
+        buffer.put((byte) plan.ordinal());
+        switch (plan) {
+            case NAME:
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(bytes.length).put(bytes);
+                break;
+            case START_DATE:
+                buffer.putLong(event.getStartDate().toEpochDay());
+                break;
+            case LIMIT:
+                buffer.putInt(event.getLimit());
+                break;
+            default:
+        }
+        buffer.putInt(event.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    private static <K> Collection<Event> range(ConcurrentNavigableMap<K, Event> index, K from, K to, K after) {
+        ConcurrentNavigableMap<K, Event> range = index;
+        if (after != null) {
+            range = range.tailMap(after, false);
+        } else if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+        return range.values();
+    }
+
+    private static ByteBuffer decodeCursor(Plan plan, String cursor) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+            if (buffer.get() != plan.ordinal()) {
+                throw new IllegalArgumentException("cursor does not match the query : " + cursor);
+            }
+            return buffer;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("invalid cursor : " + cursor, ex);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDate readDate(ByteBuffer buffer) {
+        long epochDay = buffer.getLong();
+        if (epochDay < LocalDate.MIN.toEpochDay() || epochDay > LocalDate.MAX.toEpochDay()) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    private void index(Event event) {
+        events.put(event.getId(), event);
+        if (event.getName() != null) {
+            byName.put(new IndexKey<>(event.getName(), event.getId()), event);
+        }
+        if (event.getStartDate() != null) {
+            byStartDate.put(new IndexKey<>(event.getStartDate(), event.getId()), event);
+        }
+        if (event.getLimit() != null) {
+            byLimit.put(new IndexKey<>(event.getLimit(), event.getId()), event);
+        }
+    }
+
+    /**
+     * 남은 Event를 모두 기록하고 writer 스레드를 멈춘다. (스프링이 bean을 제거할 때 호출)
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // writer가 끝난 뒤에 들어온 Event는 기록할 수 없으므로 기다리는 요청을 실패 처리한다.
+        PendingEvent pending;
+        while ((pending = queue.poll()) != null) {
+            pending.written.completeExceptionally(new IOException("EventRepository is closed"));
+        }
+        logChannel.close();
+    }
+
+    /**
+     * writer 스레드를 interrupt 하면 FileChannel이 닫히기 때문에(ClosedByInterruptException) 주기적으로 closed를 확인한다.
+     */
+    private void writeLoop() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                PendingEvent first = queue.poll(CLOSE_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                collectBatch(batch);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 첫 번째 Event가 들어온 뒤 batchSize 만큼 모이거나 flushInterval이 지날 때까지 모은다.
+     */
+    private void collectBatch(List<PendingEvent> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingEvent> batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 32);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(record);
+        List<PendingEvent> encoded = new ArrayList<>(batch.size());
+        for (PendingEvent pending : batch) {
+            // 레코드로 만들 수 없는 Event(이름이 너무 긴 경우 등)는 그 Event만 실패 처리한다.
+            record.reset();
+            try {
+                encode(pending.event, out);
+                record.writeTo(bytes);
+                encoded.add(pending);
+            } catch (IOException | RuntimeException ex) {
+                pending.written.completeExceptionally(ex);
+            }
+        }
+        if (encoded.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (logChannel.size() != validSize) {
+                // 이전 batch가 실패했을 때 자르지 못한 경우
+                logChannel.truncate(validSize);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                logChannel.write(buffer);
+            }
+            if (durability == Durability.FSYNC) {
+                logChannel.force(false);
+            }
+            validSize += bytes.size();
+        } catch (IOException | RuntimeException ex) {
+            truncateToValidSize();
+            for (PendingEvent pending : encoded) {
+                pending.written.completeExceptionally(ex);
+            }
+            return;
+        }
+        for (PendingEvent pending : encoded) {
+            index(pending.event);
+            pending.written.complete(null);
+        }
+    }
+
+    /**
+     * 쓰다가 실패한 batch의 일부가 로그에 남지 않도록 마지막으로 성공한 위치까지 자른다.
+     */
+    private void truncateToValidSize() {
+        try {
+            logChannel.truncate(validSize);
+        } catch (IOException ex) {
+            // 다음 flush에서 다시 자른다.
+        }
+    }
+
+    private void loadLog() throws IOException {
+        if (!Files.exists(logFile)) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(logFile);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long validLength = 0;
+        try {
+            while (in.available() > 0) {
+                Event event = decode(in);
+                index(event);
+                sequence.accumulateAndGet(event.getId(), Math::max);
+                validLength = bytes.length - in.available();
+            }
+        } catch (EOFException ex) {
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+    }
+
+    private static void encode(Event event, DataOutputStream out) throws IOException {
+        int flags = (event.getName() != null ? HAS_NAME : 0)
+                | (event.getLimit() != null ? HAS_LIMIT : 0)
+                | (event.getStartDate() != null ? HAS_START_DATE : 0);
+        out.writeInt(event.getId());
+        out.writeByte(flags);
+        if (event.getName() != null) {
+            out.writeUTF(event.getName());
+        }
+        if (event.getLimit() != null) {
+            out.writeInt(event.getLimit());
+        }
+        if (event.getStartDate() != null) {
+            out.writeLong(event.getStartDate().toEpochDay());
+        }
+    }
+
+    private static Event decode(DataInputStream in) throws IOException {
+        Event event = new Event();
+        event.setId(in.readInt());
+        int flags = in.readByte();
+        if ((flags & HAS_NAME) != 0) {
+            event.setName(in.readUTF());
+        }
+        if ((flags & HAS_LIMIT) != 0) {
+            event.setLimit(in.readInt());
+        }
+        if ((flags & HAS_START_DATE) != 0) {
+            event.setStartDate(LocalDate.ofEpochDay(in.readLong()));
+        }
+        return event;
+    }
+
+    /**
+     * Event는 변경 가능한 객체라서 저장소에는 복사본을 둔다.
+     */
+    private static Event copyOf(Event event) {
+        Event copy = new Event();
+        copy.setId(event.getId());
+        copy.setName(event.getName());
+        copy.setLimit(event.getLimit());
+        copy.setStartDate(event.getStartDate());
+        return copy;
+    }
+
+    /**
+     * 조건에 따라 읽을 인덱스 (cursor의 첫 byte)
+     */
+    private enum Plan {
+        ID, NAME, START_DATE, LIMIT;
+
+        private static Plan of(EventQuery query) {
+            if (query.getName() != null) {
+                return NAME;
+            }
+            if (query.getStartDateFrom() != null || query.getStartDateTo() != null) {
+                return START_DATE;
+            }
+            if (query.getLimitFrom() != null || query.getLimitTo() != null) {
+                return LIMIT;
+            }
+            return ID;
+        }
+    }
+
+    private static final class IndexKey<T extends Comparable<? super T>> implements Comparable<IndexKey<T>> {
+
+        private final T value;
+
+        private final int id;
+
+        private IndexKey(T value, int id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(IndexKey<T> other) {
+            int result = value.compareTo(other.value);
+            return result != 0 ? result : Integer.compare(id, other.id);
+        }
+    }
+
+    private static class PendingEvent {
+
+        private final Event event;
+
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PendingEvent(Event event) {
+            this.event = event;
+        }
+    }
+}
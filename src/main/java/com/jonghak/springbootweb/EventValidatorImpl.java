@@ -1,9 +1,22 @@
 package com.jonghak.springbootweb;
 
+import com.jonghak.springbootweb.validation.NameRuleRegistry;
 import org.springframework.validation.Errors;
-import org.springframework.validation.Validator;
+import org.springframework.validation.SmartValidator;
 
-public class EventValidatorImpl implements Validator {
+/**
+ * - Event 이름을 금지 규칙(app.event.name-rules.location)으로 검사하는 Validator
+ *  ● 규칙은 NameRuleRegistry가 파일에서 읽고, 파일이 바뀌면 다시 읽는다. (이름 길이만큼만 읽고 규칙 수와 상관없음)
+ *  ● 이름이 없거나 이미 name 에러가 있으면 검사하지 않는다. (@NotEmpty가 에러를 만듦)
+ *  ● 검증 그룹(@Validated)이 있으면 ValidateName 그룹일 때만 검사한다. (@Valid 는 그룹 없이 항상 검사)
+ */
+public class EventValidatorImpl implements SmartValidator {
+
+    private final NameRuleRegistry nameRules;
+
+    public EventValidatorImpl(NameRuleRegistry nameRules) {
+        this.nameRules = nameRules;
+    }
 
     @Override
     public boolean supports(Class<?> clazz) {
@@ -14,8 +27,21 @@ public class EventValidatorImpl implements Validator {
     public void validate(Object target, Errors errors) {
         Event event = (Event) target;
 
-        if(event.getName().equalsIgnoreCase("aaa")) {
+        if (event.getName() == null || errors.hasFieldErrors("name")) {
+            return;
+        }
+        if (nameRules.matches(event.getName())) {
             errors.rejectValue("name", "wrongValue", "the value is not allowed");
         }
     }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        for (Object hint : validationHints) {
+            if (hint == Event.ValidateName.class) {
+                validate(target, errors);
+                return;
+            }
+        }
+    }
 }
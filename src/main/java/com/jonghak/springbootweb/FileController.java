@@ -1,28 +1,67 @@
 package com.jonghak.springbootweb;
 
-import org.apache.tika.Tika;
+import com.jonghak.springbootweb.file.ChunkedUploadManager;
+import com.jonghak.springbootweb.file.ChunkedUploadStatus;
+import com.jonghak.springbootweb.file.CompressedVariants;
+import com.jonghak.springbootweb.file.CompressedVariants.CompressedVariant;
+import com.jonghak.springbootweb.file.FileStore;
+import com.jonghak.springbootweb.file.FileUploadPipeline;
+import com.jonghak.springbootweb.file.MediaTypeDetector;
+import com.jonghak.springbootweb.file.StoredFile;
+import com.jonghak.springbootweb.file.ZeroCopyFileSender;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.io.File;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
 
 @Controller
 public class FileController {
 
     @Autowired
-    ResourceLoader resourceLoader;
+    FileStore fileStore;
 
     @Autowired
-    Tika tika;
+    MediaTypeDetector mediaTypeDetector;
+
+    @Autowired
+    ZeroCopyFileSender fileSender;
+
+    @Autowired
+    CompressedVariants compressedVariants;
+
+    @Autowired
+    FileUploadPipeline fileUploadPipeline;
+
+    @Autowired
+    ChunkedUploadManager chunkedUploadManager;
+
+    /**
+     * FileUploadPipeline이 요청을 읽다가 거절한 경우 (잘못된 파일명, multipart가 아닌 요청, 크기 초과)
+     */
+    @ExceptionHandler(MultipartException.class)
+    public void multipartErrorHandler(MultipartException exception, HttpServletResponse response) throws IOException {
+        HttpStatus status = exception instanceof MaxUploadSizeExceededException ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+        response.sendError(status.value(), exception.getMessage());
+    }
 
     /**
      * - MultipartFile
@@ -34,6 +73,9 @@ public class FileController {
      * - 파일 업로드 관련 스프링 부트 설정
      *  ● MultipartAutoConfiguration
      *  ● MultipartProperties
+     *
+     * - MultipartFile은 핸들러 실행 전에 요청 전체를 메모리/임시 파일에 받아두기 때문에
+     *   spring.servlet.multipart.enabled=false 로 끄고 FileUploadPipeline으로 요청 본문을 바로 저장한다.
      */
     @GetMapping("/file")
     public String fileUploadForm(Model model) {
@@ -41,33 +83,114 @@ public class FileController {
     }
 
     @PostMapping("/file")
-    public String fileUpload(@RequestParam MultipartFile file,
-                             RedirectAttributes redirectAttributes) {
+    public String fileUpload(HttpServletRequest request,
+                             RedirectAttributes redirectAttributes) throws IOException, MissingServletRequestPartException {
 
         // file save process
+        List<StoredFile> uploadedFiles = fileUploadPipeline.upload(request, "file");
+        if (uploadedFiles.isEmpty()) {
+            throw new MissingServletRequestPartException("file");
+        }
 
-        System.out.println("file name : " + file.getName());
-        System.out.println("file original name : " + file.getOriginalFilename());
-
-        String message = file.getOriginalFilename() + " is uploaded";
+        StoredFile file = uploadedFiles.get(0);
+        String message = file.getFilename() + " is uploaded";
         redirectAttributes.addFlashAttribute("message", message);
         return "redirect:/file";
 
     }
 
+    /**
+     * - 청크 업로드 (이어받기 가능)
+     *  ● POST   /file/uploads?filename=&size=&chunkSize= : 업로드 시작, 업로드 ID 발급
+     *  ● PUT    /file/uploads/{uploadId}/chunks/{index}  : 청크 전송 (순서 상관없이 여러 연결에서 동시에 보낼 수 있음)
+     *  ● GET    /file/uploads/{uploadId}                 : 받은 청크 / 남은 청크 확인 (끊긴 경우 남은 청크만 다시 보낸다)
+     *  ● POST   /file/uploads/{uploadId}/commit          : 청크를 합쳐서 저장
+     *  ● DELETE /file/uploads/{uploadId}                 : 업로드 취소
+     */
+    @PostMapping("/file/uploads")
+    public ResponseEntity<ChunkedUploadStatus> chunkedUploadInit(@RequestParam String filename,
+                                                                 @RequestParam long size,
+                                                                 @RequestParam(defaultValue = "8388608") int chunkSize) throws IOException {
+        ChunkedUploadStatus status = chunkedUploadManager.init(filename, size, chunkSize);
+        return ResponseEntity.created(URI.create("/file/uploads/" + status.getUploadId())).body(status);
+    }
+
+    @PutMapping("/file/uploads/{uploadId}/chunks/{index}")
+    public ResponseEntity<Void> chunkedUploadChunk(@PathVariable String uploadId,
+                                                   @PathVariable int index,
+                                                   HttpServletRequest request) throws IOException {
+        chunkedUploadManager.writeChunk(uploadId, index, request.getContentLengthLong(), request.getInputStream());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/file/uploads/{uploadId}")
+    @ResponseBody
+    public ChunkedUploadStatus chunkedUploadStatus(@PathVariable String uploadId) throws IOException {
+        return chunkedUploadManager.status(uploadId);
+    }
+
+    @PostMapping("/file/uploads/{uploadId}/commit")
+    @ResponseBody
+    public StoredFile chunkedUploadCommit(@PathVariable String uploadId) throws IOException {
+        return chunkedUploadManager.commit(uploadId);
+    }
+
+    @DeleteMapping("/file/uploads/{uploadId}")
+    public ResponseEntity<Void> chunkedUploadAbort(@PathVariable String uploadId) throws IOException {
+        chunkedUploadManager.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * - 파일 다운로드
+     *  ● Resource를 리턴하지 않고 ZeroCopyFileSender로 응답에 직접 쓴다.
+     *      ○ Tomcat sendfile을 쓸 수 있으면 zero-copy, 그렇지 않으면 FileChannel.transferTo로 OutputStream에 버퍼 복사
+     *  ● Range, If-Range(206), If-None-Match, If-Modified-Since(304)를 지원한다.
+     *  ● classpath가 아니라 FileStore에서 찾기 때문에 실행 중에 업로드한 파일도 받을 수 있다.
+     *      ○ 내용의 SHA-256을 ETag로 사용한다.
+     */
     @GetMapping("/file/{filename}")
-    public ResponseEntity<Resource> fileDownload(@PathVariable String filename) throws IOException {
-        Resource resource = resourceLoader.getResource("classpath:" + filename);
-        File file = resource.getFile();
-
-        // 파일의 CONTENT_TYPE을 알기 위해 사용하는 라이브러리
-        String mediaType = tika.detect(file);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachement; filename=\"" + resource.getFilename()+"\"")
-                .header(HttpHeaders.CONTENT_TYPE, mediaType)
-                .header(HttpHeaders.CONTENT_LENGTH, file.length() + "")
-                .body(resource);
+    public void fileDownload(@PathVariable String filename,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        StoredFile storedFile = fileStore.find(filename)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, filename + " is not found"));
+        Path path = storedFile.getPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        // 파일의 CONTENT_TYPE을 알기 위해 사용하는 라이브러리 (저장할 때 판별하지 않은 경우에만 Tika, 판별 결과는 캐시됨)
+        String mediaType = storedFile.getMediaType() != null
+                ? storedFile.getMediaType()
+                : mediaTypeDetector.detect(path, attributes, storedFile.getFilename());
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachement; filename=\"" + storedFile.getFilename()+"\"");
+
+        // Accept-Encoding에 맞는 압축 파일이 있으면 그 파일을 보낸다. (이미 압축된 형식은 원본 그대로)
+        String etag = "\"" + storedFile.getSha256() + "\"";
+        if (!compressedVariants.isCompressible(mediaType)) {
+            fileSender.send(path, attributes, etag, mediaType, request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Optional<CompressedVariant> variant = compressedVariants.resolve(storedFile, mediaType, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        boolean sendfile = true;
+        try {
+            if (variant.isPresent()) {
+                try {
+                    attributes = Files.readAttributes(variant.get().getPath(), BasicFileAttributes.class);
+                    path = variant.get().getPath();
+                    etag = variant.get().getEtag();
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, variant.get().getEncoding());
+                    // sendfile은 리턴한 뒤(unpin 이후)에 파일을 열기 때문에 variant는 여기서 전송을 끝낸다.
+                    sendfile = false;
+                } catch (NoSuchFileException ex) {
+                    // 미리 압축된 파일이 그 사이에 지워진 경우는 원본을 보낸다.
+                }
+            }
+            fileSender.send(path, attributes, etag, mediaType, sendfile, request, response);
+        } finally {
+            variant.ifPresent(CompressedVariant::close);
+        }
 
     }
 
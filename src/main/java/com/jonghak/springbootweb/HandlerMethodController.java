@@ -1,5 +1,8 @@
 package com.jonghak.springbootweb;
 
+import com.jonghak.springbootweb.advice.UsesAdvice;
+import com.jonghak.springbootweb.cache.CachedResponse;
+import com.jonghak.springbootweb.cache.ConditionalGet;
 import com.sun.net.httpserver.HttpsServer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -31,6 +34,9 @@ import java.util.Map;
  * - SessionStatus를 사용해서 세션 처리 완료를 알려줄 수 있다.
  *  ● 폼 처리 끝나고 세션을 비울 때 사용한다.
  *
+ * - 이 프로젝트에서는 @SessionAttributes 모델을 HttpSession이 아니라 SessionStore에 보관한다. (WebConfig.sessionAttributeStore)
+ *  ● 진행 중인 폼 데이터가 Tomcat heap에 쌓이지 않고 재시작해도 유지된다.
+ *
  */
 @SessionAttributes("event")
 public class HandlerMethodController {
@@ -38,6 +44,9 @@ public class HandlerMethodController {
 //    @Autowired
 //    EventValidator eventValidator;
 
+    @Autowired
+    EventRepository eventRepository;
+
     @GetMapping("/events/error")
     public String eventError(Model model) throws EventException {
 
@@ -66,10 +75,13 @@ public class HandlerMethodController {
      *  ● (기본)값이 반드시 있어야 한다.
      *  ● Optional 지원.
      *  ● 이 기능은 기본적으로 비활성화 되어 있음. 활성화 하려면 다음과 같이 설정해야 함.
-     *    (WebConfig.configurePathMatch의 urlPathHelper.setRemoveSemicolonContetnt(false)로 되어 있어야함)
+     *    (WebConfig.configurePathMatch에서 PathPatternParser로 매칭하도록 되어 있어야함, ";" 부분을 지우지 않음)
      */
+    @ConditionalGet
+    @CachedResponse(ttl = 300)
     @GetMapping("/events/{id}")
     @ResponseBody
+    @UsesAdvice
     public Event getEvent(@PathVariable Integer id, @MatrixVariable String name) {
         Event event = new Event();
         event.setId(id);
@@ -93,6 +105,7 @@ public class HandlerMethodController {
      */
     @PostMapping("/eventParams")
     @ResponseBody
+    @UsesAdvice
     public Event getEventParams(@RequestParam String name,
                                 @RequestParam Integer limit) {
         Event event = new Event();
@@ -104,6 +117,7 @@ public class HandlerMethodController {
 
     @PostMapping("/eventParamMap")
     @ResponseBody
+    @UsesAdvice
     public Event getEventParams(@RequestParam Map<String, String> params) {
         Event event = new Event();
         event.setName(params.get("name"));
@@ -146,6 +160,7 @@ public class HandlerMethodController {
      */
     @PostMapping("/eventModel/name/{name}")
     @ResponseBody
+    @UsesAdvice
     public Event eventModel(@Validated({Event.ValidateName.class}) @ModelAttribute("newEvent") Event event, BindingResult bindingResult) {
         if(bindingResult.hasErrors()) {
             bindingResult.getAllErrors().forEach(e -> {
@@ -155,12 +170,14 @@ public class HandlerMethodController {
         return event;
     }
 
+    /**
+     * - 모델의 event는 @SessionAttributes("event")로 세션 저장소에 들어간다. (HttpSession을 직접 쓰지 않음)
+     */
     @GetMapping("/eventsFormSubmit/formSubmit")
-    public String eventsFormSubmit(Model model, HttpSession httpSession) {
+    public String eventsFormSubmit(Model model) {
         Event event = new Event();
         event.setLimit(50);
         model.addAttribute("event", event);
-        httpSession.setAttribute("event", event);
         return "events/formSubmit";
     }
 
@@ -182,6 +199,8 @@ public class HandlerMethodController {
         if(bindingResult.hasErrors()) {
             return "events/formSubmit";
         }
+        eventRepository.save(event);
+
         List<Event> eventList = new ArrayList<>();
         eventList.add(event);
         model.addAttribute("eventList", eventList);
@@ -1,5 +1,6 @@
 package com.jonghak.springbootweb;
 
+import com.jonghak.springbootweb.cache.ConditionalGet;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
@@ -7,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 @Controller
 public class PracticeController {
 
+    @ConditionalGet
     @RequestMapping(method = RequestMethod.GET, value = "/practice/{id}")
     @ResponseBody
     public String firstMethod(@PathVariable String id) {
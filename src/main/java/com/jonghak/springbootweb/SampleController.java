@@ -1,5 +1,7 @@
 package com.jonghak.springbootweb;
 
+import com.jonghak.springbootweb.cache.CachedResponse;
+import com.jonghak.springbootweb.cache.ConditionalGet;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
@@ -78,6 +80,8 @@ public class SampleController {
      * - 정규 표현식으로 맵핑할 수도 있습니다.
      *  ● /{name:정규식}
      */
+    @ConditionalGet(maxAge = 3600)
+    @CachedResponse(ttl = 300)
     @RequestMapping("/hello/{name:[a-z]+}")
     @ResponseBody
     public String regExp(@PathVariable String name) {
@@ -0,0 +1,56 @@
+package com.jonghak.springbootweb.advice;
+
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Map;
+
+/**
+ * - 핸들러 메소드 하나가 사용하는 @SharedModelAttribute 값과 @SharedInitBinder 설정 (AdviceRegistry가 핸들러별로 한 번 만듦)
+ *  ● 요청을 처리하는 동안 request attribute(ATTRIBUTE)로 AdvisedDataBinderFactory, AdvisedInvocableHandlerMethod에 전달한다.
+ */
+public final class AdvicePlan {
+
+    public static final String ATTRIBUTE = AdvicePlan.class.getName();
+
+    static final AdvicePlan NONE = new AdvicePlan(new String[0], new Object[0], Map.of());
+
+    private final String[] modelNames;
+
+    private final Object[] modelValues;
+
+    private final Map<String, BinderSettings[]> binderSettings;
+
+    AdvicePlan(String[] modelNames, Object[] modelValues, Map<String, BinderSettings[]> binderSettings) {
+        this.modelNames = modelNames;
+        this.modelValues = modelValues;
+        this.binderSettings = binderSettings;
+    }
+
+    /**
+     * 모델에 같은 이름이 없는 값만 넣는다. (세션, flash attribute가 먼저)
+     */
+    public void populateModel(ModelAndViewContainer mavContainer) {
+        for (int i = 0; i < modelNames.length; i++) {
+            if (!mavContainer.containsAttribute(modelNames[i])) {
+                mavContainer.addAttribute(modelNames[i], modelValues[i]);
+            }
+        }
+    }
+
+    public void initBinder(WebDataBinder binder) {
+        if (binderSettings.isEmpty()) {
+            return;
+        }
+        BinderSettings[] settings = binderSettings.get(binder.getObjectName());
+        if (settings != null) {
+            for (BinderSettings setting : settings) {
+                setting.applyTo(binder);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return modelNames.length == 0 && binderSettings.isEmpty();
+    }
+}
@@ -0,0 +1,242 @@
+package com.jonghak.springbootweb.advice;
+
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.method.ControllerAdviceBean;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * - @ControllerAdvice 빈의 @SharedModelAttribute, @SharedInitBinder 메소드를 모아서 핸들러별 AdvicePlan을 만든다.
+ *  ● 스프링 기본 방식(@ModelAttribute, @InitBinder advice)은 요청마다 InvocableHandlerMethod를 만들고 아규먼트를 resolve해서 호출한다.
+ *  ● 여기서는
+ *      ○ @SharedModelAttribute 메소드는 처음 한 번 호출하고 리턴 값을 모든 핸들러가 같이 사용한다.
+ *      ○ @SharedInitBinder 메소드는 binder 이름별로 한 번 호출해서 설정을 기록한다. (BinderSettings)
+ *      ○ 핸들러 메소드별로 @ControllerAdvice 적용 범위와 @UsesAdvice 선언을 보고 필요한 것만 골라 AdvicePlan으로 캐시한다.
+ *  ● HandlerMethod는 요청마다 새로 만들어질 수 있으므로(bean 이름 → 빈) 빈 타입 + Method로 캐시한다.
+ */
+public class AdviceRegistry implements ApplicationContextAware {
+
+    private ApplicationContext applicationContext;
+
+    private volatile List<ModelAdvice> modelAdvices;
+
+    private volatile List<BinderAdvice> binderAdvices;
+
+    private final Map<PlanKey, AdvicePlan> plans = new ConcurrentHashMap<>();
+
+    private final Map<Method, Object> modelValues = new ConcurrentHashMap<>();
+
+    private final Map<BinderKey, BinderSettings> binderSettings = new ConcurrentHashMap<>();
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    public AdvicePlan getPlan(HandlerMethod handlerMethod) {
+        PlanKey key = new PlanKey(handlerMethod.getBeanType(), handlerMethod.getMethod());
+        AdvicePlan plan = plans.get(key);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(key, k -> createPlan(handlerMethod));
+        }
+        return plan;
+    }
+
+    private AdvicePlan createPlan(HandlerMethod handlerMethod) {
+        initAdvices();
+        Class<?> handlerType = handlerMethod.getBeanType();
+        UsesAdvice uses = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), UsesAdvice.class);
+        if (uses == null) {
+            uses = AnnotatedElementUtils.findMergedAnnotation(handlerType, UsesAdvice.class);
+        }
+
+        List<String> modelNames = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (ModelAdvice advice : modelAdvices) {
+            if (advice.adviceBean.isApplicableToBeanType(handlerType) && (uses == null || contains(uses.model(), advice.name))) {
+                modelNames.add(advice.name);
+                values.add(modelValues.computeIfAbsent(advice.method, method -> advice.invoke()));
+            }
+        }
+        if (uses != null) {
+            for (String name : uses.model()) {
+                if (!modelNames.contains(name)) {
+                    throw new IllegalStateException("no @SharedModelAttribute(\"" + name + "\") applicable to " + handlerMethod);
+                }
+            }
+        }
+
+        Map<String, List<BinderSettings>> binders = new LinkedHashMap<>();
+        for (BinderAdvice advice : binderAdvices) {
+            if (!advice.adviceBean.isApplicableToBeanType(handlerType)) {
+                continue;
+            }
+            List<String> names = uses != null ? Arrays.asList(uses.binder()) : Arrays.asList(advice.names);
+            for (String name : names) {
+                if (advice.names.length == 0 || contains(advice.names, name)) {
+                    BinderSettings settings = binderSettings.computeIfAbsent(new BinderKey(advice.method, name), k -> advice.record(name));
+                    binders.computeIfAbsent(name, n -> new ArrayList<>()).add(settings);
+                }
+            }
+        }
+        if (uses != null) {
+            for (String name : uses.binder()) {
+                if (!binders.containsKey(name)) {
+                    throw new IllegalStateException("no @SharedInitBinder for \"" + name + "\" applicable to " + handlerMethod);
+                }
+            }
+        }
+
+        if (modelNames.isEmpty() && binders.isEmpty()) {
+            return AdvicePlan.NONE;
+        }
+        Map<String, BinderSettings[]> binderSettings = new HashMap<>();
+        binders.forEach((name, settings) -> binderSettings.put(name, settings.toArray(new BinderSettings[0])));
+        return new AdvicePlan(modelNames.toArray(new String[0]), values.toArray(), binderSettings);
+    }
+
+    private void initAdvices() {
+        if (binderAdvices != null) {
+            return;
+        }
+        synchronized (this) {
+            if (binderAdvices != null) {
+                return;
+            }
+            List<ModelAdvice> models = new ArrayList<>();
+            List<BinderAdvice> binders = new ArrayList<>();
+            for (ControllerAdviceBean adviceBean : ControllerAdviceBean.findAnnotatedBeans(applicationContext)) {
+                Class<?> beanType = adviceBean.getBeanType();
+                if (beanType == null) {
+                    continue;
+                }
+                Set<Method> modelMethods = MethodIntrospector.selectMethods(beanType,
+                        (ReflectionUtils.MethodFilter) method -> AnnotatedElementUtils.hasAnnotation(method, SharedModelAttribute.class));
+                for (Method method : modelMethods) {
+                    if (method.getParameterCount() != 0) {
+                        throw new IllegalStateException("@SharedModelAttribute method must not have arguments : " + method);
+                    }
+                    models.add(new ModelAdvice(adviceBean, method, AnnotatedElementUtils.findMergedAnnotation(method, SharedModelAttribute.class).value()));
+                }
+                Set<Method> binderMethods = MethodIntrospector.selectMethods(beanType,
+                        (ReflectionUtils.MethodFilter) method -> AnnotatedElementUtils.hasAnnotation(method, SharedInitBinder.class));
+                for (Method method : binderMethods) {
+                    if (method.getParameterCount() != 1 || !method.getParameterTypes()[0].isAssignableFrom(WebDataBinder.class)) {
+                        throw new IllegalStateException("@SharedInitBinder method must have one WebDataBinder argument : " + method);
+                    }
+                    binders.add(new BinderAdvice(adviceBean, method, AnnotatedElementUtils.findMergedAnnotation(method, SharedInitBinder.class).value()));
+                }
+            }
+            modelAdvices = models;
+            binderAdvices = binders;
+        }
+    }
+
+    private static boolean contains(String[] names, String name) {
+        for (String candidate : names) {
+            if (candidate.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class ModelAdvice {
+
+        private final ControllerAdviceBean adviceBean;
+
+        private final Method method;
+
+        private final String name;
+
+        private ModelAdvice(ControllerAdviceBean adviceBean, Method method, String name) {
+            this.adviceBean = adviceBean;
+            this.method = method;
+            this.name = name;
+            ReflectionUtils.makeAccessible(method);
+        }
+
+        private Object invoke() {
+            return ReflectionUtils.invokeMethod(method, adviceBean.resolveBean());
+        }
+    }
+
+    private static final class BinderAdvice {
+
+        private final ControllerAdviceBean adviceBean;
+
+        private final Method method;
+
+        private final String[] names;
+
+        private BinderAdvice(ControllerAdviceBean adviceBean, Method method, String[] names) {
+            this.adviceBean = adviceBean;
+            this.method = method;
+            this.names = names;
+            ReflectionUtils.makeAccessible(method);
+        }
+
+        private BinderSettings record(String name) {
+            return BinderSettings.record(name, binder -> ReflectionUtils.invokeMethod(method, adviceBean.resolveBean(), binder));
+        }
+    }
+
+    private static final class PlanKey {
+
+        private final Class<?> beanType;
+
+        private final Method method;
+
+        private PlanKey(Class<?> beanType, Method method) {
+            this.beanType = beanType;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PlanKey && beanType == ((PlanKey) other).beanType && method.equals(((PlanKey) other).method);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * beanType.hashCode() + method.hashCode();
+        }
+    }
+
+    private static final class BinderKey {
+
+        private final Method method;
+
+        private final String name;
+
+        private BinderKey(Method method, String name) {
+            this.method = method;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BinderKey && method.equals(((BinderKey) other).method) && name.equals(((BinderKey) other).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * method.hashCode() + name.hashCode();
+        }
+    }
+}
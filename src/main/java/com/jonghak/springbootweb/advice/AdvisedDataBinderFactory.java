@@ -0,0 +1,30 @@
+package com.jonghak.springbootweb.advice;
+
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.support.WebBindingInitializer;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.ServletRequestDataBinderFactory;
+
+import java.util.List;
+
+/**
+ * - binder를 만들 때 요청의 AdvicePlan에 있는 @SharedInitBinder 설정을 먼저 적용하는 ServletRequestDataBinderFactory
+ *  ● 그 다음에 @InitBinder 메소드(@ControllerAdvice, 컨트롤러)를 스프링 기본 방식대로 호출한다.
+ */
+public class AdvisedDataBinderFactory extends ServletRequestDataBinderFactory {
+
+    public AdvisedDataBinderFactory(List<InvocableHandlerMethod> binderMethods, WebBindingInitializer initializer) {
+        super(binderMethods, initializer);
+    }
+
+    @Override
+    public void initBinder(WebDataBinder dataBinder, NativeWebRequest request) throws Exception {
+        AdvicePlan plan = (AdvicePlan) request.getAttribute(AdvicePlan.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (plan != null) {
+            plan.initBinder(dataBinder);
+        }
+        super.initBinder(dataBinder, request);
+    }
+}
@@ -0,0 +1,29 @@
+package com.jonghak.springbootweb.advice;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+/**
+ * - 핸들러 메소드를 호출하기 전에 요청의 AdvicePlan에 있는 @SharedModelAttribute 값을 모델에 넣는 ServletInvocableHandlerMethod
+ *  ● 아규먼트를 resolve하기 전에 넣으므로 핸들러의 Model, 뷰에서 @ModelAttribute advice와 같이 사용할 수 있다.
+ *  ● AdvicePlan이 비어 있으면(@UsesAdvice API 등) 아무것도 하지 않는다.
+ */
+public class AdvisedInvocableHandlerMethod extends ServletInvocableHandlerMethod {
+
+    public AdvisedInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        super(handlerMethod);
+    }
+
+    @Override
+    public void invokeAndHandle(ServletWebRequest webRequest, ModelAndViewContainer mavContainer,
+                                Object... providedArgs) throws Exception {
+        AdvicePlan plan = (AdvicePlan) webRequest.getAttribute(AdvicePlan.ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (plan != null) {
+            plan.populateModel(mavContainer);
+        }
+        super.invokeAndHandle(webRequest, mavContainer, providedArgs);
+    }
+}
@@ -0,0 +1,167 @@
+package com.jonghak.springbootweb.advice;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.format.Formatter;
+import org.springframework.validation.BindingErrorProcessor;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.Validator;
+import org.springframework.web.bind.WebDataBinder;
+
+import java.beans.PropertyEditor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * - @SharedInitBinder 메소드가 WebDataBinder에 한 설정을 기록해 두었다가 다른 binder에 같은 순서로 다시 적용
+ *  ● 기록은 binder 이름별로 한 번만 한다. (target 없는 WebDataBinder로 메소드를 호출)
+ *  ● binder마다 따로 있어야 하는 객체(PropertyEditor)나 기록할 수 없는 설정은 호출할 때 IllegalStateException
+ */
+final class BinderSettings {
+
+    private final List<Consumer<WebDataBinder>> settings;
+
+    private BinderSettings(List<Consumer<WebDataBinder>> settings) {
+        this.settings = settings;
+    }
+
+    static BinderSettings record(String objectName, Consumer<WebDataBinder> initializer) {
+        RecordingDataBinder binder = new RecordingDataBinder(objectName);
+        initializer.accept(binder);
+        return new BinderSettings(List.copyOf(binder.settings));
+    }
+
+    void applyTo(WebDataBinder binder) {
+        for (Consumer<WebDataBinder> setting : settings) {
+            setting.accept(binder);
+        }
+    }
+
+    private static final class RecordingDataBinder extends WebDataBinder {
+
+        private final List<Consumer<WebDataBinder>> settings = new ArrayList<>();
+
+        private RecordingDataBinder(String objectName) {
+            super(null, objectName);
+        }
+
+        @Override
+        public void setAllowedFields(String... allowedFields) {
+            super.setAllowedFields(allowedFields);
+            String[] fields = allowedFields.clone();
+            settings.add(binder -> binder.setAllowedFields(fields));
+        }
+
+        @Override
+        public void setDisallowedFields(String... disallowedFields) {
+            super.setDisallowedFields(disallowedFields);
+            String[] fields = disallowedFields.clone();
+            settings.add(binder -> binder.setDisallowedFields(fields));
+        }
+
+        @Override
+        public void setRequiredFields(String... requiredFields) {
+            super.setRequiredFields(requiredFields);
+            String[] fields = requiredFields.clone();
+            settings.add(binder -> binder.setRequiredFields(fields));
+        }
+
+        @Override
+        public void setValidator(Validator validator) {
+            super.setValidator(validator);
+            settings.add(binder -> binder.setValidator(validator));
+        }
+
+        @Override
+        public void addValidators(Validator... validators) {
+            super.addValidators(validators);
+            Validator[] added = validators.clone();
+            settings.add(binder -> binder.addValidators(added));
+        }
+
+        @Override
+        public void replaceValidators(Validator... validators) {
+            super.replaceValidators(validators);
+            Validator[] replaced = validators.clone();
+            settings.add(binder -> binder.replaceValidators(replaced));
+        }
+
+        @Override
+        public void setIgnoreUnknownFields(boolean ignoreUnknownFields) {
+            super.setIgnoreUnknownFields(ignoreUnknownFields);
+            settings.add(binder -> binder.setIgnoreUnknownFields(ignoreUnknownFields));
+        }
+
+        @Override
+        public void setIgnoreInvalidFields(boolean ignoreInvalidFields) {
+            super.setIgnoreInvalidFields(ignoreInvalidFields);
+            settings.add(binder -> binder.setIgnoreInvalidFields(ignoreInvalidFields));
+        }
+
+        @Override
+        public void setAutoGrowNestedPaths(boolean autoGrowNestedPaths) {
+            super.setAutoGrowNestedPaths(autoGrowNestedPaths);
+            settings.add(binder -> binder.setAutoGrowNestedPaths(autoGrowNestedPaths));
+        }
+
+        @Override
+        public void setAutoGrowCollectionLimit(int autoGrowCollectionLimit) {
+            super.setAutoGrowCollectionLimit(autoGrowCollectionLimit);
+            settings.add(binder -> binder.setAutoGrowCollectionLimit(autoGrowCollectionLimit));
+        }
+
+        @Override
+        public void registerCustomEditor(Class<?> requiredType, PropertyEditor propertyEditor) {
+            throw unsupported("registerCustomEditor");
+        }
+
+        @Override
+        public void registerCustomEditor(Class<?> requiredType, String field, PropertyEditor propertyEditor) {
+            throw unsupported("registerCustomEditor");
+        }
+
+        @Override
+        public void addCustomFormatter(Formatter<?> formatter) {
+            throw unsupported("addCustomFormatter");
+        }
+
+        @Override
+        public void addCustomFormatter(Formatter<?> formatter, String... fields) {
+            throw unsupported("addCustomFormatter");
+        }
+
+        @Override
+        public void addCustomFormatter(Formatter<?> formatter, Class<?>... fieldTypes) {
+            throw unsupported("addCustomFormatter");
+        }
+
+        @Override
+        public void setConversionService(ConversionService conversionService) {
+            throw unsupported("setConversionService");
+        }
+
+        @Override
+        public void setMessageCodesResolver(MessageCodesResolver messageCodesResolver) {
+            throw unsupported("setMessageCodesResolver");
+        }
+
+        @Override
+        public void setBindingErrorProcessor(BindingErrorProcessor bindingErrorProcessor) {
+            throw unsupported("setBindingErrorProcessor");
+        }
+
+        @Override
+        public void initBeanPropertyAccess() {
+            throw unsupported("initBeanPropertyAccess");
+        }
+
+        @Override
+        public void initDirectFieldAccess() {
+            throw unsupported("initDirectFieldAccess");
+        }
+
+        private IllegalStateException unsupported(String method) {
+            return new IllegalStateException(method + " can't be shared by @SharedInitBinder, use @InitBinder instead");
+        }
+    }
+}
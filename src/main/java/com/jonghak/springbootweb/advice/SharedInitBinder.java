@@ -0,0 +1,29 @@
+package com.jonghak.springbootweb.advice;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - @ControllerAdvice의 @InitBinder 대신 사용하는, 요청과 상관없는 바인딩 설정
+ *  ● 처음 필요한 요청에서 기록용 WebDataBinder로 한 번만 호출하고, 기록한 설정을 binder를 만들 때마다 다시 적용한다. (BinderSettings)
+ *  ● 핸들러가 @UsesAdvice(binder = ...)로 필요하다고 한 경우에만 적용한다. (@UsesAdvice가 없으면 적용되는 모든 설정)
+ *
+ * - 사용 방법
+ *      @SharedInitBinder("event")
+ *      public void initEventBinder(WebDataBinder webDataBinder) { ... }
+ *
+ *  ● value : binder(모델) 이름, 비어 있으면 모든 binder에 적용 (@InitBinder와 같음)
+ *  ● 메소드는 WebDataBinder 아규먼트 하나만 받아야 한다.
+ *  ● 기록할 수 있는 설정 : allowed/disallowed/required fields, validator, ignoreUnknownFields, ignoreInvalidFields, autoGrow
+ *      ○ PropertyEditor, Formatter, ConversionService 등은 예외가 발생한다. (@InitBinder를 사용)
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SharedInitBinder {
+
+    String[] value() default {};
+}
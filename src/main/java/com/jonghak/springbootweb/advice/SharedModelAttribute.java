@@ -0,0 +1,30 @@
+package com.jonghak.springbootweb.advice;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - @ControllerAdvice의 @ModelAttribute 대신 사용하는, 요청과 상관없는 모델 값
+ *  ● 처음 필요한 요청에서 한 번만 호출하고 리턴 값을 계속 재사용한다. (AdviceRegistry)
+ *  ● 핸들러가 @UsesAdvice(model = ...)로 필요하다고 한 경우에만 모델에 넣는다. (@UsesAdvice가 없으면 적용되는 모든 값)
+ *  ● 모델에 같은 이름이 이미 있으면(세션, flash attribute 등) 넣지 않는다. (@ModelAttribute 메소드와 같음)
+ *
+ * - 사용 방법
+ *      @SharedModelAttribute("categories")
+ *      public List<String> categories() { ... }
+ *
+ *  ● 메소드는 아규먼트가 없어야 한다.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SharedModelAttribute {
+
+    /**
+     * 모델 이름
+     */
+    String value();
+}
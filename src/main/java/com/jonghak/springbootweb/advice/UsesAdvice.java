@@ -0,0 +1,36 @@
+package com.jonghak.springbootweb.advice;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - 핸들러가 사용하는 @SharedModelAttribute, @SharedInitBinder 선언
+ *  ● 핸들러 메소드에 붙인 것을 먼저 보고, 없으면 컨트롤러 클래스에 붙인 것을 본다.
+ *  ● 선언하지 않은 모델 값은 넣지 않고, 선언하지 않은 바인딩 설정은 적용하지 않는다.
+ *      ○ @UsesAdvice 만 붙이면 아무것도 사용하지 않는다. (뷰를 그리지 않는 API)
+ *  ● @UsesAdvice가 없는 핸들러는 @ControllerAdvice 범위에 해당하는 모든 값과 설정을 사용한다.
+ *  ● 없는 이름을 선언하면 처음 요청할 때 IllegalStateException이 발생한다.
+ *
+ * - 사용 방법
+ *      @UsesAdvice(binder = "event")
+ *      @RestController
+ *      public class EventApi
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UsesAdvice {
+
+    /**
+     * 사용할 @SharedModelAttribute 이름
+     */
+    String[] model() default {};
+
+    /**
+     * @SharedInitBinder 설정을 적용할 binder(모델) 이름 (value가 비어 있는 @SharedInitBinder도 여기 있는 binder에만 적용)
+     */
+    String[] binder() default {};
+}
@@ -0,0 +1,14 @@
+package com.jonghak.springbootweb.book;
+
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIdentityReference;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+
+/**
+ * - compact 응답에서 Author를 id로만 쓰기 위한 Jackson mixin
+ *  ● objectMapper.addMixIn(Author.class, AuthorReference.class)
+ */
+@JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
+@JsonIdentityReference(alwaysAsId = true)
+public interface AuthorReference {
+}
@@ -0,0 +1,39 @@
+package com.jonghak.springbootweb.book;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * - Author identity map (interning)
+ *  ● 같은 id의 Author는 처음 등록된 객체 하나만 사용한다. 책마다 Author 객체를 따로 들고 있지 않는다.
+ *  ● id가 없는 Author는 비교할 수 없으므로 그대로 둔다.
+ */
+public class AuthorRegistry {
+
+    private final Map<Long, Author> authors = new ConcurrentHashMap<>();
+
+    public Author intern(Author author) {
+        if (author == null || author.getId() == null) {
+            return author;
+        }
+        Author registered = authors.putIfAbsent(author.getId(), author);
+        return registered != null ? registered : author;
+    }
+
+    public Set<Author> internAll(Set<Author> authors) {
+        if (authors == null) {
+            return null;
+        }
+        Set<Author> interned = new LinkedHashSet<>(authors.size() * 2);
+        for (Author author : authors) {
+            interned.add(intern(author));
+        }
+        return interned;
+    }
+
+    public int size() {
+        return authors.size();
+    }
+}
@@ -0,0 +1,112 @@
+package com.jonghak.springbootweb.book;
+
+import com.jonghak.springbootweb.cache.Versioned;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * - 책 목록 저장소
+ *  ● id 순서로 정렬된 ConcurrentSkipListMap에 보관한다.
+ *  ● 페이지는 복사하지 않고 subMap(view)으로 돌려주기 때문에 한 번의 요청이 목록 전체를 heap에 올리지 않는다.
+ *  ● 페이지는 offset이 아니라 이전 페이지의 마지막 id(after) 다음부터 읽는다. (keyset pagination)
+ *  ● 저장할 때 Author를 AuthorRegistry로 interning 해서 같은 id의 Author는 객체 하나를 같이 쓴다.
+ *  ● 저장할 때마다 버전이 올라간다. (/books 의 ETag, @ConditionalGet)
+ */
+public class BookCatalog implements Versioned {
+
+    private final ConcurrentNavigableMap<Long, Book> books = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AuthorRegistry authorRegistry = new AuthorRegistry();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile long lastModified = System.currentTimeMillis();
+
+    /**
+     * id가 없으면 새로 부여한다.
+     */
+    public Book save(Book book) {
+        if (book.getId() == null) {
+            book.setId(sequence.incrementAndGet());
+        } else {
+            sequence.accumulateAndGet(book.getId(), Math::max);
+        }
+        book.setAuthors(authorRegistry.internAll(book.getAuthors()));
+        books.put(book.getId(), book);
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+        return book;
+    }
+
+    public Optional<Book> findById(Long id) {
+        return Optional.ofNullable(books.get(id));
+    }
+
+    public int size() {
+        return books.size();
+    }
+
+    /**
+     * after 다음부터 최대 pageSize 개의 책 (id 순서)
+     * 마지막 id를 찾을 때 키만 따라가고, 책은 돌려준 view를 읽을 때 하나씩 꺼낸다.
+     */
+    public NavigableMap<Long, Book> page(Long after, int pageSize) {
+        NavigableMap<Long, Book> tail = after == null ? books : books.tailMap(after, false);
+        Iterator<Long> ids = tail.keySet().iterator();
+        Long last = null;
+        for (int i = 0; i < pageSize && ids.hasNext(); i++) {
+            last = ids.next();
+        }
+        return last == null ? Collections.emptyNavigableMap() : tail.headMap(last, true);
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public int authorCount() {
+        return authorRegistry.size();
+    }
+
+    public boolean hasNext(Long id) {
+        return books.higherKey(id) != null;
+    }
+
+    /**
+     * 예제용 책 등록
+     */
+    public void saveSample() {
+        Author author = new Author();
+        author.setFirstName("jonghak");
+        author.setLastName("choi");
+        author.setEmail("jonghak@email.com");
+        author.setId(100l);
+        author.setAddress("경기도 군포시 부곡동");
+        author.setJoinedAt(LocalDateTime.now());
+
+        Book book = new Book();
+        book.setId(1l);
+        book.setTitle("spring boot");
+        book.setIsbn("skdjfkjsdkfsd");
+        book.setPublished(LocalDateTime.now());
+        book.setAuthors(Set.of(author));
+
+        save(book);
+    }
+}
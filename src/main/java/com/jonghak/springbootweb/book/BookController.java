@@ -1,12 +1,27 @@
 package com.jonghak.springbootweb.book;
 
-import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jonghak.springbootweb.cache.CachedResponse;
+import com.jonghak.springbootweb.cache.ConditionalGet;
+import com.jonghak.springbootweb.json.JsonViewWriters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Set;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
 
 /**
  * - JSON View
@@ -24,28 +39,106 @@ import java.util.Set;
 @RestController
 public class BookController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    BookCatalog bookCatalog;
+
+    @Autowired
+    @Qualifier("jsonViewWriters")
+    JsonViewWriters jsonViewWriters;
+
+    @Autowired
+    @Qualifier("compactBookWriters")
+    JsonViewWriters compactBookWriters;
+
+    /**
+     * - 책 목록 (페이지)
+     *  ● ?after={이전 페이지의 마지막 id}&pageSize={개수}, 다음 페이지가 있으면 Link 헤더(rel="next")로 알려준다.
+     *  ● ?view=simple|complex : @JsonView(BookJsonView.SimpleView / ComplexView), 기본은 complex
+     *  ● List<Book>을 만들어서 리턴하지 않고 저장소에서 한 권씩 꺼내 JsonGenerator로 바로 쓴다.
+     *      ○ 핸들러가 응답을 직접 쓰기 때문에 @JsonView 애노테이션 대신 JsonViewWriters에서 뷰별 ObjectWriter를 가져온다.
+     *  ● ?compact=true : 책의 authors는 id 목록으로 쓰고 Author는 authors 배열에 한 번씩만 쓴다.
+     *      ○ {"books":[{..., "authors":[100]}], "authors":[{"id":100, ...}]}
+     *      ○ authors가 포함되지 않는 뷰(simple)에서는 authors 배열도 쓰지 않는다.
+     *  ● ETag는 BookCatalog의 버전으로 만든다. 책이 추가되지 않았으면 304 (@ConditionalGet)
+     *  ● 같은 버전, 같은 요청의 응답은 서버에 byte로 캐시한다. (@CachedResponse)
+     */
+    @ConditionalGet(version = BookCatalog.class)
+    @CachedResponse(version = BookCatalog.class, ttl = 60)
     @GetMapping("/books")
-    @JsonView(BookJsonView.ComplexView.class)
-    public List<Book> getBooks() {
-        return books();
+    public void getBooks(@RequestParam(required = false) Long after,
+                         @RequestParam(defaultValue = "100") int pageSize,
+                         @RequestParam(defaultValue = "complex") String view,
+                         @RequestParam(defaultValue = "false") boolean compact,
+                         HttpServletResponse response) throws IOException {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "pageSize must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Class<?> jsonView = jsonView(view);
+
+        NavigableMap<Long, Book> page = bookCatalog.page(after, pageSize);
+        if (!page.isEmpty() && bookCatalog.hasNext(page.lastKey())) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.lastKey())
+                    .replaceQueryParam("pageSize", pageSize)
+                    .toUriString();
+            response.setHeader(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (compact) {
+            writeCompact(page.values(), jsonView, response);
+            return;
+        }
+        ObjectWriter writer = jsonViewWriters.writerFor(Book.class, jsonView);
+        try (JsonGenerator generator = writer.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            for (Book book : page.values()) {
+                writer.writeValue(generator, book);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private void writeCompact(Collection<Book> books, Class<?> jsonView, HttpServletResponse response) throws IOException {
+        ObjectWriter bookWriter = compactBookWriters.writerFor(Book.class, jsonView);
+        ObjectWriter authorWriter = jsonViewWriters.writerFor(Author.class, jsonView);
+        // Book.authors는 ComplexView 에만 포함된다.
+        boolean authorsInView = BookJsonView.ComplexView.class.isAssignableFrom(jsonView);
+
+        Map<Long, Author> authors = new LinkedHashMap<>();
+        try (JsonGenerator generator = bookWriter.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("books");
+            for (Book book : books) {
+                bookWriter.writeValue(generator, book);
+                if (authorsInView && book.getAuthors() != null) {
+                    for (Author author : book.getAuthors()) {
+                        authors.putIfAbsent(author.getId(), author);
+                    }
+                }
+            }
+            generator.writeEndArray();
+            if (authorsInView) {
+                generator.writeArrayFieldStart("authors");
+                for (Author author : authors.values()) {
+                    authorWriter.writeValue(generator, author);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
     }
 
-    private List<Book> books() {
-        Author author = new Author();
-        author.setFirstName("jonghak");
-        author.setLastName("choi");
-        author.setEmail("jonghak@email.com");
-        author.setId(100l);
-        author.setAddress("경기도 군포시 부곡동");
-        author.setJoinedAt(LocalDateTime.now());
-
-        Book book = new Book();
-        book.setId(1l);
-        book.setTitle("spring boot");
-        book.setIsbn("skdjfkjsdkfsd");
-        book.setPublished(LocalDateTime.now());
-        book.setAuthors(Set.of(author));
-
-        return List.of(book);
+    private Class<?> jsonView(String view) {
+        switch (view) {
+            case "simple":
+                return BookJsonView.SimpleView.class;
+            case "complex":
+                return BookJsonView.ComplexView.class;
+            default:
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown view : " + view);
+        }
     }
 }
@@ -2,9 +2,9 @@ package com.jonghak.springbootweb.book;
 
 public class BookJsonView {
 
-    interface SimpleView {};
+    public interface SimpleView {};
 
-    interface ComplexView extends SimpleView {};
+    public interface ComplexView extends SimpleView {};
 
 
 }
@@ -0,0 +1,32 @@
+package com.jonghak.springbootweb.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - GET 핸들러의 응답 본문(byte)을 서버에 캐시한다. (ResponseCache)
+ *  ● 캐시에 있으면 핸들러를 호출하지 않고 저장된 byte를 그대로 쓴다. (핸들러, Jackson 직렬화 모두 생략)
+ *  ● 키 : 핸들러 메소드 + 요청 URI(matrix variable 포함) + 요청 매개변수 + Accept 헤더 (+ 버전)
+ *  ● 같은 결과를 돌려주는(idempotent) 핸들러에만 사용해야 한다.
+ *
+ * - 사용 방법
+ *      @CachedResponse(version = BookCatalog.class, ttl = 60)
+ *      @GetMapping("/books")
+ *      public void getBooks(...)
+ *
+ *  ● version : 응답이 의존하는 Versioned 빈 타입, 버전이 바뀌면 다른 키가 되므로 바뀌기 전의 응답은 쓰지 않는다.
+ *      ○ 지정하지 않으면 ttl 동안 같은 응답을 쓴다.
+ *  ● ttl : 캐시에 보관하는 시간(초)
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedResponse {
+
+    Class<? extends Versioned> version() default Versioned.class;
+
+    long ttl() default 60;
+}
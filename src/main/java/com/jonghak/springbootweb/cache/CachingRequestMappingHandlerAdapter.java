@@ -0,0 +1,29 @@
+package com.jonghak.springbootweb.cache;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * - 핸들러 메소드를 호출하기 전에 ResponseCache를 먼저 확인하는 RequestMappingHandlerAdapter
+ *  ● 인터셉터는 응답 객체를 바꿀 수 없어서 본문을 받아두려면 핸들러를 호출하는 곳(HandlerAdapter)에서 감싸야 한다.
+ *  ● WebMvcRegistrations로 스프링 부트의 기본 RequestMappingHandlerAdapter 대신 등록한다. (WebConfig)
+ */
+public class CachingRequestMappingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final ResponseCache responseCache;
+
+    public CachingRequestMappingHandlerAdapter(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    protected ModelAndView handleInternal(HttpServletRequest request, HttpServletResponse response,
+                                          HandlerMethod handlerMethod) throws Exception {
+        return responseCache.handle(request, response, handlerMethod,
+                target -> super.handleInternal(request, target, handlerMethod));
+    }
+}
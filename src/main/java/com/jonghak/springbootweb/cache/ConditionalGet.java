@@ -0,0 +1,35 @@
+package com.jonghak.springbootweb.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * - GET 핸들러의 응답에 ETag, Last-Modified, Cache-Control을 붙이고 조건부 요청(If-None-Match, If-Modified-Since)을 처리한다.
+ *  ● ETag는 응답 본문이 아니라 버전(Versioned)과 요청 URI로 만든다. (ConditionalGetInterceptor)
+ *  ● 변경이 없으면 핸들러를 호출하지 않고 304로 응답한다. (본문을 만들거나 직렬화하지 않음)
+ *
+ * - 사용 방법
+ *      @ConditionalGet(version = BookCatalog.class)
+ *      @GetMapping("/books")
+ *      public void getBooks(...)
+ *
+ *  ● version : 응답이 의존하는 Versioned 빈 타입
+ *      ○ 지정하지 않으면 응답이 요청 URI로만 결정된다고 보고 애플리케이션 시작 시점을 버전으로 쓴다.
+ *  ● maxAge : 캐시에서 다시 확인하지 않고 쓸 수 있는 시간(초)
+ *      ○ 0이면 Cache-Control: no-cache (캐시는 하되 매번 ETag로 확인)
+ *  ● privateCache : true면 브라우저만 캐시하고 CDN 같은 공유 캐시는 캐시하지 않는다.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    Class<? extends Versioned> version() default Versioned.class;
+
+    long maxAge() default 0;
+
+    boolean privateCache() default false;
+}
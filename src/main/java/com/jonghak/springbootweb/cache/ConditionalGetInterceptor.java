@@ -0,0 +1,140 @@
+package com.jonghak.springbootweb.cache;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - @ConditionalGet 처리
+ *  ● 핸들러를 호출하기 전에(preHandle) ETag를 만들고 ServletWebRequest.checkNotModified로 조건부 요청을 확인한다.
+ *      ○ 변경이 없으면 304로 응답하고 false를 리턴해서 핸들러를 호출하지 않는다.
+ *      ○ 변경이 있으면 ETag, Last-Modified, Cache-Control 헤더만 붙이고 핸들러가 본문을 쓴다.
+ *  ● GET, HEAD 요청만 처리한다. (POST 등은 그대로 핸들러를 호출)
+ *  ● ETag = "버전-요청 URI, 요청 매개변수, Accept 헤더의 해시" (같은 버전이라도 페이지, 파라미터가 다르면 다른 ETag)
+ *      ○ Accept에 따라 다른 미디어 타입으로 응답할 수 있으므로 Accept도 해시에 넣고 Vary: Accept 를 붙인다.
+ *      ○ 본문을 만들어서 해시하는 ShallowEtagHeaderFilter와 달리 304에서도 본문을 만들지 않는다.
+ *      ○ 버전을 먼저 읽고 본문을 나중에 만들기 때문에 그 사이에 변경이 있어도 다음 요청에서는 버전이 달라 새로 받는다.
+ *  ● 핸들러 메소드별 설정(버전 빈, Cache-Control)은 처음 요청할 때 찾아서 캐시한다.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final BeanFactory beanFactory;
+
+    /**
+     * version을 지정하지 않은 핸들러의 버전 (애플리케이션 시작 시점)
+     */
+    private final Versioned startup;
+
+    private final Map<Method, Policy> policies = new ConcurrentHashMap<>();
+
+    public ConditionalGetInterceptor(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+        long startedAt = System.currentTimeMillis();
+        this.startup = new Versioned() {
+            @Override
+            public long version() {
+                return startedAt;
+            }
+
+            @Override
+            public long lastModified() {
+                return startedAt;
+            }
+        };
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod) || !isGetOrHead(request)) {
+            return true;
+        }
+        Policy policy = policies.computeIfAbsent(((HandlerMethod) handler).getMethod(), method -> policyOf((HandlerMethod) handler));
+        if (policy == Policy.NONE) {
+            return true;
+        }
+
+        long version = policy.versioned.version();
+        long lastModified = policy.versioned.lastModified();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, policy.cacheControl);
+        if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return !new ServletWebRequest(request, response).checkNotModified(etag(version, request), lastModified);
+    }
+
+    private static boolean isGetOrHead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+    }
+
+    private Policy policyOf(HandlerMethod handlerMethod) {
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return Policy.NONE;
+        }
+        Versioned versioned = conditionalGet.version() == Versioned.class
+                ? startup
+                : beanFactory.getBean(conditionalGet.version());
+
+        CacheControl cacheControl = conditionalGet.maxAge() > 0
+                ? CacheControl.maxAge(conditionalGet.maxAge(), TimeUnit.SECONDS)
+                : CacheControl.noCache();
+        cacheControl = conditionalGet.privateCache() ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+        return new Policy(versioned, cacheControl.getHeaderValue());
+    }
+
+    static String etag(long version, HttpServletRequest request) {
+        long hash = hash(FNV_OFFSET_BASIS, request.getRequestURI());
+        for (Map.Entry<String, String[]> parameter : request.getParameterMap().entrySet()) {
+            hash = hash(hash(hash, "?"), parameter.getKey());
+            for (String value : parameter.getValue()) {
+                hash = hash(hash(hash, "="), value);
+            }
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            hash = hash(hash(hash, "#"), accept);
+        }
+        return "\"" + Long.toHexString(version) + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * FNV-1a 64bit
+     */
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static final class Policy {
+
+        private static final Policy NONE = new Policy(null, null);
+
+        private final Versioned versioned;
+
+        private final String cacheControl;
+
+        private Policy(Versioned versioned, String cacheControl) {
+            this.versioned = versioned;
+            this.cacheControl = cacheControl;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.jonghak.springbootweb.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * - @CachedResponse 핸들러의 응답 캐시 (직렬화된 byte 보관)
+ *  ● Caffeine (W-TinyLFU) : 전체 크기(byte) 제한, 자주 쓰이는 응답을 남기고 한 번 쓰고 마는 응답은 먼저 밀려난다.
+ *  ● 항목마다 @CachedResponse.ttl 이 지나면 지운다.
+ *  ● 200 응답이고 핸들러가 본문을 직접 쓴 경우(@ResponseBody, ModelAndView 없음)만 캐시한다.
+ *      ○ 본문, Content-Type과 핸들러가 추가한 헤더(Link 등)를 보관한다. (Set-Cookie는 보관하지 않음)
+ *  ● 키 : 핸들러 메소드 + scheme, host, port + URI + 요청 매개변수 + Accept + 버전
+ *      ○ Link처럼 요청의 host로 만든 절대 URL이 다른 host의 요청에 내려가지 않도록 host까지 키에 넣는다.
+ *
+ * - 요청 합치기 (single-flight)
+ *  ● 캐시에 없는 키를 처음 요청한 스레드만 핸들러를 호출하고, 그동안 같은 키로 들어온 요청은 그 결과를 기다렸다가 같이 쓴다.
+ *  ● 처음 요청한 핸들러가 실패하거나 캐시할 수 없는 응답이면 기다리던 요청은 각자 핸들러를 호출한다.
+ */
+public class ResponseCache {
+
+    public interface Invocation {
+        ModelAndView proceed(HttpServletResponse response) throws Exception;
+    }
+
+    /**
+     * 키, 헤더 등 본문 외에 항목 하나가 차지하는 대략적인 크기
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            HttpHeaders.SET_COOKIE.toLowerCase(), HttpHeaders.CONTENT_TYPE.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase());
+
+    private final BeanFactory beanFactory;
+
+    private final AsyncCache<Key, Entry> cache;
+
+    private final Map<Method, Policy> policies = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    public ResponseCache(BeanFactory beanFactory, long maxBytes) {
+        this.beanFactory = beanFactory;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> entry.body.length + ENTRY_OVERHEAD)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictions.increment();
+                    } else if (cause == RemovalCause.EXPIRED) {
+                        expirations.increment();
+                    }
+                })
+                .buildAsync();
+    }
+
+    public ModelAndView handle(HttpServletRequest request, HttpServletResponse response, HandlerMethod handlerMethod,
+                               Invocation invocation) throws Exception {
+        if (!"GET".equals(request.getMethod())) {
+            return invocation.proceed(response);
+        }
+        Policy policy = policies.computeIfAbsent(handlerMethod.getMethod(), method -> policyOf(handlerMethod));
+        if (policy == Policy.NONE) {
+            return invocation.proceed(response);
+        }
+
+        Key key = new Key(handlerMethod.getMethod(), request, policy.versioned == null ? 0 : policy.versioned.version());
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(key, loading);
+        if (existing != null) {
+            boolean done = existing.isDone();
+            Entry entry = await(existing);
+            if (entry != null) {
+                (done ? hits : coalesced).increment();
+                entry.writeTo(response);
+                return null;
+            }
+            misses.increment();
+            return invocation.proceed(response);
+        }
+
+        misses.increment();
+        Entry entry = null;
+        try {
+            Set<String> headersBefore = new HashSet<>(response.getHeaderNames());
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            ModelAndView modelAndView = invocation.proceed(wrapper);
+            if (modelAndView == null && wrapper.getStatus() == HttpServletResponse.SC_OK) {
+                entry = Entry.of(wrapper, headersBefore, policy.ttlNanos);
+            }
+            wrapper.copyBodyToResponse();
+            return modelAndView;
+        } finally {
+            // null이면 캐시에서 빠지고 기다리던 요청은 각자 핸들러를 호출한다.
+            loading.complete(entry);
+        }
+    }
+
+    public ResponseCacheStats stats() {
+        ResponseCacheStats stats = new ResponseCacheStats();
+        stats.setHits(hits.sum());
+        stats.setCoalesced(coalesced.sum());
+        stats.setMisses(misses.sum());
+        stats.setEvictions(evictions.sum());
+        stats.setExpirations(expirations.sum());
+        stats.setEntries(cache.synchronous().estimatedSize());
+        cache.synchronous().policy().eviction().ifPresent(eviction -> stats.setBytes(eviction.weightedSize().orElse(0)));
+        return stats;
+    }
+
+    private Policy policyOf(HandlerMethod handlerMethod) {
+        CachedResponse cachedResponse = handlerMethod.getMethodAnnotation(CachedResponse.class);
+        if (cachedResponse == null) {
+            return Policy.NONE;
+        }
+        Versioned versioned = cachedResponse.version() == Versioned.class
+                ? null
+                : beanFactory.getBean(cachedResponse.version());
+        return new Policy(versioned, TimeUnit.SECONDS.toNanos(cachedResponse.ttl()));
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            return null;
+        }
+    }
+
+    private static final class Policy {
+
+        private static final Policy NONE = new Policy(null, 0);
+
+        private final Versioned versioned;
+
+        private final long ttlNanos;
+
+        private Policy(Versioned versioned, long ttlNanos) {
+            this.versioned = versioned;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static final class Key {
+
+        private final Method method;
+
+        private final String origin;
+
+        private final String uri;
+
+        private final String parameters;
+
+        private final String accept;
+
+        private final long version;
+
+        private final int hash;
+
+        private Key(Method method, HttpServletRequest request, long version) {
+            this.method = method;
+            // ServletUriComponentsBuilder.fromCurrentRequest()가 URL을 만들 때 쓰는 값
+            this.origin = request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort();
+            this.uri = request.getRequestURI();
+            this.parameters = parameters(request);
+            this.accept = request.getHeader(HttpHeaders.ACCEPT);
+            this.version = version;
+            this.hash = Objects.hash(method, origin, uri, parameters, accept, version);
+        }
+
+        /**
+         * 요청 매개변수 순서가 달라도 같은 키가 되도록 이름 순으로 정렬한다.
+         */
+        private static String parameters(HttpServletRequest request) {
+            Map<String, String[]> parameterMap = request.getParameterMap();
+            if (parameterMap.isEmpty()) {
+                return "";
+            }
+            StringBuilder builder = new StringBuilder();
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameterMap).entrySet()) {
+                builder.append(parameter.getKey()).append('=').append(Arrays.toString(parameter.getValue())).append('&');
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return version == key.version && method.equals(key.method) && origin.equals(key.origin) && uri.equals(key.uri)
+                    && parameters.equals(key.parameters) && Objects.equals(accept, key.accept);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] body;
+
+        private final String contentType;
+
+        private final Map<String, List<String>> headers;
+
+        private final long ttlNanos;
+
+        private Entry(byte[] body, String contentType, Map<String, List<String>> headers, long ttlNanos) {
+            this.body = body;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.ttlNanos = ttlNanos;
+        }
+
+        private static Entry of(ContentCachingResponseWrapper response, Set<String> headersBefore, long ttlNanos) {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String name : response.getHeaderNames()) {
+                if (!headersBefore.contains(name) && !EXCLUDED_HEADERS.contains(name.toLowerCase())) {
+                    headers.put(name, new ArrayList<>(response.getHeaders(name)));
+                }
+            }
+            return new Entry(response.getContentAsByteArray(), response.getContentType(), headers, ttlNanos);
+        }
+
+        private void writeTo(HttpServletResponse response) throws IOException {
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
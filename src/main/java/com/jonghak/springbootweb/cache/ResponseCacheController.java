@@ -0,0 +1,20 @@
+package com.jonghak.springbootweb.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * - 응답 캐시 통계 (hit / miss / eviction)
+ */
+@RestController
+public class ResponseCacheController {
+
+    @Autowired
+    ResponseCache responseCache;
+
+    @GetMapping("/cache/stats")
+    public ResponseCacheStats stats() {
+        return responseCache.stats();
+    }
+}
@@ -0,0 +1,28 @@
+package com.jonghak.springbootweb.cache;
+
+import lombok.Data;
+
+/**
+ * - ResponseCache 통계
+ *  ● hits : 캐시에 있던 응답을 쓴 수
+ *  ● coalesced : 같은 키를 먼저 요청한 핸들러가 끝나기를 기다렸다가 그 응답을 쓴 수 (single-flight)
+ *  ● misses : 핸들러를 호출한 수
+ *  ● evictions : 크기 제한으로 밀려난 수, expirations : ttl이 지나서 지워진 수
+ */
+@Data
+public class ResponseCacheStats {
+
+    private long hits;
+
+    private long coalesced;
+
+    private long misses;
+
+    private long evictions;
+
+    private long expirations;
+
+    private long entries;
+
+    private long bytes;
+}
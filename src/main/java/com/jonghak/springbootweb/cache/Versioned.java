@@ -0,0 +1,16 @@
+package com.jonghak.springbootweb.cache;
+
+/**
+ * - @ConditionalGet 응답의 ETag / Last-Modified를 만들 때 사용하는 버전
+ *  ● 응답 내용이 바뀌는 변경이 있을 때마다 version()이 바뀌어야 한다.
+ *  ● 응답 본문을 만들지 않고 버전만으로 ETag를 만들기 때문에 버전은 싸게 읽을 수 있어야 한다. (카운터 등)
+ */
+public interface Versioned {
+
+    long version();
+
+    /**
+     * 마지막으로 변경된 시각 (epoch millis)
+     */
+    long lastModified();
+}
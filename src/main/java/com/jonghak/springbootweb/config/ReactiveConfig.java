@@ -0,0 +1,59 @@
+package com.jonghak.springbootweb.config;
+
+import com.jonghak.springbootweb.file.FileStore;
+import com.jonghak.springbootweb.file.ReactiveFileUpload;
+import com.jonghak.springbootweb.validation.CompiledValidator;
+import org.apache.tika.Tika;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.Validator;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * - WebFlux 실행(ReactiveWebApplication) 설정
+ *  ● 저장소 빈은 서블릿 설정과 같은 StoreConfig를 사용한다.
+ *  ● 클래스패스에 Tomcat도 있어서 스프링 부트는 reactive Tomcat을 고르므로 Netty를 직접 등록한다.
+ *  ● @Valid, @Validated 검증은 서블릿과 같은 CompiledValidator를 사용한다. (webFluxValidator)
+ *  ● multipart는 spring.webflux.multipart.streaming=true 로 Part를 임시 파일에 받아두지 않고 읽는 대로 넘겨받는다.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import(StoreConfig.class)
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    @Autowired
+    CompiledValidator compiledValidator;
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * - 업로드 파일 저장 (Flux<DataBuffer>)
+     *  ● app.file.upload.max-file-size : 파일 하나의 최대 크기
+     *  ● app.file.seed-resources : 시작할 때 저장소에 없으면 등록할 샘플 파일
+     */
+    @Bean
+    public ReactiveFileUpload reactiveFileUpload(FileStore fileStore, Tika tika,
+                                                 @Value("${app.file.upload.max-file-size:10GB}") DataSize maxFileSize,
+                                                 @Value("${app.file.seed-resources:}") Resource[] seedResources) {
+        ReactiveFileUpload upload = new ReactiveFileUpload(fileStore, tika, maxFileSize.toBytes());
+        for (Resource seedResource : seedResources) {
+            upload.importIfAbsent(seedResource).block();
+        }
+        return upload;
+    }
+
+    @Override
+    public Validator getValidator() {
+        return compiledValidator;
+    }
+}
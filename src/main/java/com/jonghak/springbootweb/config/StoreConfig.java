@@ -0,0 +1,101 @@
+package com.jonghak.springbootweb.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jonghak.springbootweb.EventBatchProcessor;
+import com.jonghak.springbootweb.EventRepository;
+import com.jonghak.springbootweb.EventValidatorImpl;
+import com.jonghak.springbootweb.file.CompressedVariants;
+import com.jonghak.springbootweb.file.ContentAddressedFileStore;
+import com.jonghak.springbootweb.file.FileStore;
+import com.jonghak.springbootweb.file.MediaTypeDetector;
+import com.jonghak.springbootweb.validation.CompiledValidator;
+import org.apache.tika.Tika;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * - 서블릿(WebConfig)과 WebFlux(ReactiveConfig) 설정이 같이 사용하는 저장소 빈
+ *  ● 두 스택이 같은 프로퍼티로 같은 저장소(파일, Event 로그)를 사용한다.
+ */
+@Configuration
+@Import(ValidationConfig.class)
+public class StoreConfig {
+
+    /**
+     * - 공통으로 사용할 라이브러리 bean으로 등록
+     * - controller 및 service 에서 사용 방법
+     *      @Autowired
+     *      Tika tika;
+     *
+     */
+    @Bean
+    public Tika setConfigTika(){
+        return new Tika();
+    }
+
+    /**
+     * - Tika 판별 결과 캐시
+     *  ● app.file.media-type-cache.max-entries : 캐시할 최대 파일 수 (LRU)
+     *  ● app.file.media-type-cache.prefix-size : 판별할 때 읽는 파일 앞부분 크기(byte)
+     */
+    @Bean
+    public MediaTypeDetector mediaTypeDetector(Tika tika,
+                                               @Value("${app.file.media-type-cache.max-entries:1024}") int maxEntries,
+                                               @Value("${app.file.media-type-cache.prefix-size:8192}") int prefixSize) {
+        return new MediaTypeDetector(tika, maxEntries, prefixSize);
+    }
+
+    /**
+     * - 업로드 파일 저장소 (SHA-256 content-addressed)
+     *  ● app.file.storage-dir : 저장소 디렉토리
+     */
+    @Bean
+    public FileStore fileStore(@Value("${app.file.storage-dir}") Path storageDir) throws IOException {
+        return new ContentAddressedFileStore(storageDir);
+    }
+
+    /**
+     * - 압축 variant 캐시
+     *  ● 요청시 만든 gzip 파일은 저장소 디렉토리 아래 variants 에 보관한다. (재시작해도 재사용)
+     *  ● app.file.compression.cache-size : variant 디스크 캐시 최대 크기 (넘으면 LRU로 삭제)
+     *  ● app.file.compression.min-size : 이 크기보다 작은 파일은 압축하지 않음
+     */
+    @Bean
+    public CompressedVariants compressedVariants(FileStore fileStore,
+                                                 @Value("${app.file.storage-dir}") Path storageDir,
+                                                 @Value("${app.file.compression.cache-size:1GB}") DataSize cacheSize,
+                                                 @Value("${app.file.compression.min-size:1KB}") DataSize minSize) throws IOException {
+        return new CompressedVariants(fileStore, storageDir.resolve("variants"), cacheSize.toBytes(), minSize.toBytes());
+    }
+
+    /**
+     * - Event 배치 등록 처리기
+     *  ● 스프링 부트가 설정한 ObjectMapper(날짜 모듈 등)와 웹 요청 검증에 쓰는 Validator(ValidationConfig)를 그대로 재사용한다.
+     */
+    @Bean
+    public EventBatchProcessor eventBatchProcessor(ObjectMapper objectMapper, CompiledValidator compiledValidator, EventValidatorImpl eventValidator) {
+        return new EventBatchProcessor(objectMapper, compiledValidator, eventValidator);
+    }
+
+    /**
+     * - Event 저장소 (append-only 로그, write-behind)
+     *  ● app.event.store.durability : 응답 시점 NONE(큐에 넣으면) / WRITE(로그에 쓰면) / FSYNC(디스크에 force 하면)
+     *  ● app.event.store.batch-size, flush-interval : 이만큼 모이거나 시간이 지나면 한 번에 기록
+     *  ● app.event.store.queue-capacity : 기록 대기 중인 Event 최대 개수 (가득 차면 요청이 기다림)
+     */
+    @Bean
+    public EventRepository eventRepository(@Value("${app.event.store.log-file}") Path logFile,
+                                           @Value("${app.event.store.durability:WRITE}") EventRepository.Durability durability,
+                                           @Value("${app.event.store.batch-size:512}") int batchSize,
+                                           @Value("${app.event.store.flush-interval:5ms}") Duration flushInterval,
+                                           @Value("${app.event.store.queue-capacity:65536}") int queueCapacity) throws IOException {
+        return new EventRepository(logFile, durability, batchSize, flushInterval, queueCapacity);
+    }
+}
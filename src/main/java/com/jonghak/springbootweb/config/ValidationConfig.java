@@ -0,0 +1,43 @@
+package com.jonghak.springbootweb.config;
+
+import com.jonghak.springbootweb.EventValidatorImpl;
+import com.jonghak.springbootweb.validation.CompiledValidator;
+import com.jonghak.springbootweb.validation.NameRuleRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * - 서블릿(WebConfig)과 WebFlux(ReactiveConfig)가 같이 사용하는 검증 빈
+ *  ● CompiledValidator : 스프링 부트의 Bean Validation Validator(defaultValidator)를 감싸서 그룹별로 미리 만든 검사 plan을 사용
+ *      ○ WebMvcConfigurer/WebFluxConfigurer.getValidator()로 @Valid, @Validated 검증에 사용된다. (mvcValidator, webFluxValidator)
+ *  ● EventValidatorImpl : 상태가 없으므로 하나만 만들어서 @InitBinder, 배치 등록이 같이 사용한다.
+ */
+@Configuration
+public class ValidationConfig {
+
+    @Bean
+    public CompiledValidator compiledValidator(javax.validation.Validator validator) {
+        return new CompiledValidator(validator);
+    }
+
+    /**
+     * - Event 이름 금지 규칙
+     *  ● app.event.name-rules.location : 규칙 파일 (한 줄에 하나, aaa 는 이름이 같은 경우, *aaa* 는 이름에 들어간 경우)
+     *  ● app.event.name-rules.reload-interval : 파일이 바뀌었는지 확인하는 주기 (0이면 다시 읽지 않음)
+     */
+    @Bean
+    public NameRuleRegistry nameRuleRegistry(@Value("${app.event.name-rules.location:classpath:event-name-rules.txt}") Resource location,
+                                             @Value("${app.event.name-rules.reload-interval:5s}") Duration reloadInterval) throws IOException {
+        return new NameRuleRegistry(location, reloadInterval);
+    }
+
+    @Bean
+    public EventValidatorImpl eventValidatorImpl(NameRuleRegistry nameRuleRegistry) {
+        return new EventValidatorImpl(nameRuleRegistry);
+    }
+}
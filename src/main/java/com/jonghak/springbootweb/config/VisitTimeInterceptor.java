@@ -1,19 +1,122 @@
 package com.jonghak.springbootweb.config;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
 
+/**
+ * - 첫 방문 시각 (visitTime)
+ *  ● 서버 세션 대신 서명된 쿠키에 첫 방문 시각을 보관한다. (visitTime=epochMillis.HMAC-SHA256)
+ *      ○ 서버에는 아무것도 저장하지 않기 때문에 익명 요청이 많아도 세션 메모리가 늘지 않는다.
+ *      ○ 서명이 맞지 않는 쿠키는 무시하고 새로 발급한다.
+ *  ● 핸들러에서는 @RequestAttribute LocalDateTime visitTime 으로 받을 수 있다.
+ *  ● storeInSession : @SessionAttribute로 읽는 화면을 위해 세션에도 넣는다. (이 경우만 세션을 만든다)
+ *      ○ 어떤 요청에 세션이 만들어지는지는 WebConfig.addInterceptors의 path pattern으로 정한다.
+ */
 public class VisitTimeInterceptor implements HandlerInterceptor {
+
+    public static final String VISIT_TIME = "visitTime";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final Duration COOKIE_MAX_AGE = Duration.ofDays(365);
+
+    private final SecretKeySpec key;
+
+    private final boolean storeInSession;
+
+    private final ThreadLocal<Mac> macs;
+
+    public VisitTimeInterceptor(byte[] secret, boolean storeInSession) {
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.storeInSession = storeInSession;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        HttpSession httpSession = request.getSession();
-        if(httpSession.getAttribute("visitTime") == null) {
-            httpSession.setAttribute("visitTime", LocalDateTime.now());
+        // app.mvc.execution.mode=async 에서 핸들러가 끝난 뒤 async dispatch로 다시 호출된 경우
+        if (request.getAttribute(VISIT_TIME) != null) {
+            return true;
+        }
+        Cookie cookie = WebUtils.getCookie(request, VISIT_TIME);
+        Long visitMillis = cookie == null ? null : verify(cookie.getValue());
+        if (visitMillis == null) {
+            visitMillis = System.currentTimeMillis();
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(VISIT_TIME, sign(visitMillis))
+                    .path("/")
+                    .maxAge(COOKIE_MAX_AGE)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+        LocalDateTime visitTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(visitMillis), ZoneId.systemDefault());
+        request.setAttribute(VISIT_TIME, visitTime);
+
+        if (storeInSession) {
+            HttpSession httpSession = request.getSession();
+            if (httpSession.getAttribute(VISIT_TIME) == null) {
+                httpSession.setAttribute(VISIT_TIME, visitTime);
+            }
         }
         return true;
     }
+
+    String sign(long visitMillis) {
+        String value = Long.toString(visitMillis);
+        return value + "." + mac(value);
+    }
+
+    /**
+     * @return 서명이 맞으면 쿠키의 방문 시각, 아니면 null
+     */
+    Long verify(String cookieValue) {
+        int dot = cookieValue.indexOf('.');
+        if (dot < 1) {
+            return null;
+        }
+        String value = cookieValue.substring(0, dot);
+        byte[] expected = mac(value).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = cookieValue.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private String mac(String value) {
+        byte[] signature = macs.get().doFinal(value.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
 }
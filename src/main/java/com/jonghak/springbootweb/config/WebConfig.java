@@ -1,44 +1,322 @@
 package com.jonghak.springbootweb.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jonghak.springbootweb.advice.AdvicePlan;
+import com.jonghak.springbootweb.advice.AdviceRegistry;
+import com.jonghak.springbootweb.advice.AdvisedDataBinderFactory;
+import com.jonghak.springbootweb.advice.AdvisedInvocableHandlerMethod;
+import com.jonghak.springbootweb.book.Author;
+import com.jonghak.springbootweb.book.AuthorReference;
+import com.jonghak.springbootweb.book.BookCatalog;
+import com.jonghak.springbootweb.cache.CachingRequestMappingHandlerAdapter;
+import com.jonghak.springbootweb.cache.ConditionalGetInterceptor;
+import com.jonghak.springbootweb.cache.ResponseCache;
+import com.jonghak.springbootweb.execution.HandlerExecution;
+import com.jonghak.springbootweb.execution.OffloadingInvocableHandlerMethod;
+import com.jonghak.springbootweb.file.BufferPool;
+import com.jonghak.springbootweb.file.ChunkedUploadManager;
+import com.jonghak.springbootweb.file.FileStore;
+import com.jonghak.springbootweb.file.FileUploadPipeline;
+import com.jonghak.springbootweb.file.ZeroCopyFileSender;
+import com.jonghak.springbootweb.json.JsonViewWriters;
+import com.jonghak.springbootweb.mapping.CachingMatrixVariableMethodArgumentResolver;
+import com.jonghak.springbootweb.mapping.CompiledRequestMappingHandlerMapping;
+import com.jonghak.springbootweb.session.InMemorySessionStore;
+import com.jonghak.springbootweb.session.MappedSessionStore;
+import com.jonghak.springbootweb.session.SessionStore;
+import com.jonghak.springbootweb.session.StoreSessionAttributeStore;
+import com.jonghak.springbootweb.session.TokenFlashMapManager;
+import com.jonghak.springbootweb.validation.CompiledValidator;
 import org.apache.tika.Tika;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.Resource;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.InitBinderDataBinderFactory;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.servlet.FlashMapManager;
+import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.util.pattern.PathPatternParser;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
+@Import(StoreConfig.class)
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    BeanFactory beanFactory;
+
+    @Autowired
+    CompiledValidator compiledValidator;
+
+    @Value("${app.visit-time.secret:}")
+    String visitTimeSecret;
+
     /**
-     * URI패턴의 @MatrixVariable을 사용하기 위해 URI의 ";" 제거 설정을 false로 변경한다.
+     * - 요청 매핑은 PathPatternParser로 한다.
+     *  ● 미리 파싱한 요청 경로(RequestPath)로 매칭하므로 요청마다 UrlPathHelper로 경로를 디코딩하지 않는다.
+     *  ● 경로의 ";" 부분을 지우지 않고 segment별 matrix 변수로 읽으므로 @MatrixVariable을 쓰기 위한 UrlPathHelper 설정이 필요 없다.
      */
     @Override
     public void configurePathMatch(PathMatchConfigurer configurer) {
-        UrlPathHelper urlPathHelper = new UrlPathHelper();
-        urlPathHelper.setRemoveSemicolonContent(false);
-        configurer.setUrlPathHelper(urlPathHelper);
+        configurer.setPatternParser(new PathPatternParser());
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new VisitTimeInterceptor());
+        // @SessionAttribute visitTime을 읽는 화면에만 등록한다. (JSON API 요청에는 세션을 만들지 않음)
+        registry.addInterceptor(visitTimeInterceptor()).addPathPatterns("/events/list");
+        registry.addInterceptor(conditionalGetInterceptor());
+    }
+
+    /**
+     * - 첫 방문 시각 (서명된 쿠키 + 세션)
+     *  ● app.visit-time.secret : 쿠키 서명 키, 없으면 시작할 때 임의로 만든다. (재시작하면 이전 쿠키는 새 방문으로 처리)
+     */
+    @Bean
+    public VisitTimeInterceptor visitTimeInterceptor() {
+        byte[] secret;
+        if (visitTimeSecret.isEmpty()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = visitTimeSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        return new VisitTimeInterceptor(secret, true);
+    }
+
+    /**
+     * - @ConditionalGet 핸들러의 ETag / 304 처리
+     *  ● 버전(Versioned) 빈은 핸들러를 처음 호출할 때 찾는다.
+     */
+    @Bean
+    public ConditionalGetInterceptor conditionalGetInterceptor() {
+        return new ConditionalGetInterceptor(beanFactory);
     }
 
     /**
-     * - 공통으로 사용할 라이브러리 bean으로 등록
-     * - controller 및 service 에서 사용 방법
-     *      @Autowired
-     *      Tika tika;
-     *
+     * - @CachedResponse 응답 캐시
+     *  ● app.cache.response.max-size : 캐시에 보관하는 응답 본문 전체 최대 크기
      */
     @Bean
-    public Tika setConfigTika(){
-        return new Tika();
+    public ResponseCache responseCache(@Value("${app.cache.response.max-size:64MB}") DataSize maxSize) {
+        return new ResponseCache(beanFactory, maxSize.toBytes());
+    }
+
+    /**
+     * - 스프링 부트가 만드는 MVC 기본 빈 교체
+     *  ● RequestMappingHandlerAdapter : 핸들러를 호출하기 전에 ResponseCache 확인, @SessionAttributes는 SessionStore에 보관
+     *      ○ @MatrixVariable은 경로별 파싱 결과를 캐시하는 resolver로 처리 (app.mvc.matrix-variables.cache-size)
+     *      ○ app.mvc.execution.mode=async 이면 핸들러 메소드 호출을 HandlerExecution의 executor에서 실행
+     *      ○ @SharedModelAttribute, @SharedInitBinder advice는 핸들러별로 캐시한 AdvicePlan으로 적용 (AdviceRegistry)
+     *  ● RequestMappingHandlerMapping : app.mvc.compiled-mapping.enabled=true 이면 trie 인덱스로 매핑 후보를 찾음
+     */
+    @Bean
+    public WebMvcRegistrations webMvcRegistrations(ResponseCache responseCache, StoreSessionAttributeStore sessionAttributeStore,
+                                                   HandlerExecution handlerExecution, AdviceRegistry adviceRegistry,
+                                                   @Value("${app.mvc.compiled-mapping.enabled:false}") boolean compiledMapping,
+                                                   @Value("${app.mvc.matrix-variables.cache-size:1024}") int matrixCacheSize) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return compiledMapping ? new CompiledRequestMappingHandlerMapping() : null;
+            }
+
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                CachingRequestMappingHandlerAdapter adapter = new CachingRequestMappingHandlerAdapter(responseCache) {
+                    @Override
+                    public void afterPropertiesSet() {
+                        super.afterPropertiesSet();
+                        // 기본 resolver 목록이 만들어진 다음에 @MatrixVariable resolver를 바꿔 끼운다.
+                        setArgumentResolvers(CachingMatrixVariableMethodArgumentResolver.replaceDefault(getArgumentResolvers(), matrixCacheSize));
+                        // 스프링 부트가 설정한 비동기 처리 executor(applicationTaskExecutor) 대신 사용
+                        if (handlerExecution.getExecutor() != null) {
+                            setTaskExecutor(handlerExecution.getExecutor());
+                        }
+                    }
+
+                    @Override
+                    protected ModelAndView invokeHandlerMethod(HttpServletRequest request, HttpServletResponse response,
+                                                               HandlerMethod handlerMethod) throws Exception {
+                        request.setAttribute(AdvicePlan.ATTRIBUTE, adviceRegistry.getPlan(handlerMethod));
+                        return super.invokeHandlerMethod(request, response, handlerMethod);
+                    }
+
+                    @Override
+                    protected InitBinderDataBinderFactory createDataBinderFactory(List<InvocableHandlerMethod> binderMethods) {
+                        return new AdvisedDataBinderFactory(binderMethods, getWebBindingInitializer());
+                    }
+
+                    @Override
+                    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+                        if (handlerExecution.getMode() == HandlerExecution.Mode.ASYNC && OffloadingInvocableHandlerMethod.supports(handlerMethod)) {
+                            return new OffloadingInvocableHandlerMethod(handlerMethod);
+                        }
+                        return new AdvisedInvocableHandlerMethod(handlerMethod);
+                    }
+                };
+                adapter.setSessionAttributeStore(sessionAttributeStore);
+                return adapter;
+            }
+        };
+    }
+
+    /**
+     * - @ControllerAdvice의 @SharedModelAttribute, @SharedInitBinder를 핸들러별로 골라 캐시 (@UsesAdvice)
+     */
+    @Bean
+    public AdviceRegistry adviceRegistry() {
+        return new AdviceRegistry();
+    }
+
+    /**
+     * - 핸들러 메소드 실행 방식
+     *  ● app.mvc.execution.mode : platform (Tomcat 워커 스레드) / async (가상 스레드, 지원하지 않는 JDK면 스레드 풀)
+     *  ● app.mvc.execution.pool-size, queue-capacity : 가상 스레드를 쓸 수 없을 때의 스레드 풀 크기
+     */
+    @Bean
+    public HandlerExecution handlerExecution(@Value("${app.mvc.execution.mode:platform}") HandlerExecution.Mode mode,
+                                             @Value("${app.mvc.execution.pool-size:1000}") int poolSize,
+                                             @Value("${app.mvc.execution.queue-capacity:10000}") int queueCapacity) {
+        return new HandlerExecution(mode, poolSize, queueCapacity);
+    }
+
+    /**
+     * - 세션 저장소 (@SessionAttributes 모델을 HttpSession 대신 보관)
+     *  ● app.session.store.type : mapped (메모리 맵 파일, 재시작해도 유지) / memory (원격 저장소 대신 사용하는 구현)
+     *  ● app.session.store.slots * slot-size : 파일 크기 (slot 하나에 세션 하나)
+     */
+    @Bean
+    public SessionStore sessionStore(@Value("${app.session.store.type:mapped}") String type,
+                                     @Value("${app.session.store.file}") Path file,
+                                     @Value("${app.session.store.slots:524288}") int slots,
+                                     @Value("${app.session.store.slot-size:512B}") DataSize slotSize) throws IOException {
+        switch (type) {
+            case "mapped":
+                return new MappedSessionStore(file, slots, (int) slotSize.toBytes());
+            case "memory":
+                return new InMemorySessionStore(slots);
+            default:
+                throw new IllegalArgumentException("unknown app.session.store.type : " + type);
+        }
+    }
+
+    /**
+     * - app.session.store.ttl : 마지막으로 저장한 뒤 세션을 보관하는 시간
+     */
+    @Bean
+    public StoreSessionAttributeStore sessionAttributeStore(SessionStore sessionStore,
+                                                            @Value("${app.session.store.ttl:30m}") Duration ttl) {
+        return new StoreSessionAttributeStore(sessionStore, ttl);
+    }
+
+    /**
+     * - Flash Attributes 저장소 (세션 대신 리다이렉트 쿠키의 token으로 찾음)
+     *  ● DispatcherServlet은 flashMapManager 라는 이름의 빈을 사용한다. (스프링 부트 기본은 SessionFlashMapManager)
+     *  ● app.flash.max-entries : 동시에 보관하는 최대 FlashMap 수
+     */
+    @Bean
+    public FlashMapManager flashMapManager(@Value("${app.flash.max-entries:100000}") long maxEntries) {
+        return new TokenFlashMapManager(maxEntries);
+    }
+
+    /**
+     * - 업로드에서 사용하는 버퍼 풀
+     *  ● app.file.upload.buffer-size * app.file.upload.buffer-count : 업로드 전체가 사용하는 최대 버퍼 메모리
+     */
+    @Bean
+    public BufferPool uploadBufferPool(@Value("${app.file.upload.buffer-size:64KB}") DataSize bufferSize,
+                                       @Value("${app.file.upload.buffer-count:256}") int bufferCount) {
+        return new BufferPool((int) bufferSize.toBytes(), bufferCount);
+    }
+
+    /**
+     * - 업로드 파일 저장 파이프라인
+     *  ● app.file.upload.max-file-size : 파일 하나의 최대 크기
+     *  ● app.file.seed-resources : 시작할 때 저장소에 없으면 등록할 샘플 파일
+     */
+    @Bean
+    public FileUploadPipeline fileUploadPipeline(FileStore fileStore, BufferPool uploadBufferPool, Tika tika,
+                                                 @Value("${app.file.upload.max-file-size:10GB}") DataSize maxFileSize,
+                                                 @Value("${app.file.seed-resources:}") Resource[] seedResources) throws IOException {
+        FileUploadPipeline pipeline = new FileUploadPipeline(fileStore, uploadBufferPool, maxFileSize.toBytes(), tika);
+        for (Resource seedResource : seedResources) {
+            pipeline.importIfAbsent(seedResource);
+        }
+        return pipeline;
+    }
+
+    /**
+     * - 청크 업로드 (이어받기)
+     *  ● 진행 중인 업로드는 저장소 디렉토리 아래 uploads 에 보관한다. (저장소로 rename 하기 위해 같은 파일시스템)
+     *  ● app.file.upload.min-chunk-size / max-chunk-size : 청크 하나의 최소 / 최대 크기
+     *  ● app.file.upload.max-chunk-count : 업로드 하나의 최대 청크 개수
+     *  ● app.file.upload.expire-after : 이 시간 동안 청크가 오지 않은 업로드는 지운다. (0이면 지우지 않음)
+     */
+    @Bean
+    public ChunkedUploadManager chunkedUploadManager(FileStore fileStore, BufferPool uploadBufferPool, Tika tika,
+                                                     @Value("${app.file.storage-dir}") Path storageDir,
+                                                     @Value("${app.file.upload.max-file-size:10GB}") DataSize maxFileSize,
+                                                     @Value("${app.file.upload.min-chunk-size:64KB}") DataSize minChunkSize,
+                                                     @Value("${app.file.upload.max-chunk-size:64MB}") DataSize maxChunkSize,
+                                                     @Value("${app.file.upload.max-chunk-count:10000}") int maxChunkCount,
+                                                     @Value("${app.file.upload.expire-after:24h}") Duration expireAfter) throws IOException {
+        return new ChunkedUploadManager(storageDir.resolve("uploads"), fileStore, uploadBufferPool, tika,
+                maxFileSize.toBytes(), (int) minChunkSize.toBytes(), (int) maxChunkSize.toBytes(), maxChunkCount, expireAfter);
+    }
+
+    @Bean
+    public ZeroCopyFileSender zeroCopyFileSender() {
+        return new ZeroCopyFileSender();
+    }
+
+    /**
+     * - @JsonView 별 ObjectWriter 캐시
+     *  ● 뷰에 포함되지 않는 프로퍼티를 serializer를 만들 때 빼서 직렬화할 때마다 뷰를 검사하지 않는다.
+     */
+    @Bean
+    public JsonViewWriters jsonViewWriters(ObjectMapper objectMapper) {
+        return new JsonViewWriters(objectMapper);
+    }
+
+    /**
+     * - /books?compact=true 용 ObjectWriter 캐시 (Author를 id로만 씀)
+     */
+    @Bean
+    public JsonViewWriters compactBookWriters(ObjectMapper objectMapper) {
+        return new JsonViewWriters(objectMapper.copy().addMixIn(Author.class, AuthorReference.class));
+    }
+
+    /**
+     * - 책 목록 저장소 (예제 책 한 권 등록)
+     */
+    @Bean
+    public BookCatalog bookCatalog() {
+        BookCatalog bookCatalog = new BookCatalog();
+        bookCatalog.saveSample();
+        return bookCatalog;
     }
 
     /**
@@ -58,4 +336,13 @@ public class WebConfig implements WebMvcConfigurer {
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         WebMvcConfigurer.super.configureMessageConverters(converters);
     }
+
+    /**
+     * - @Valid, @Validated 검증에 사용할 Validator (mvcValidator)
+     *  ● 그룹별로 미리 만든 검사 plan으로 먼저 검사하고, 위반이 있을 때만 Hibernate Validator로 에러를 만든다. (ValidationConfig)
+     */
+    @Override
+    public org.springframework.validation.Validator getValidator() {
+        return compiledValidator;
+    }
 }
@@ -0,0 +1,98 @@
+package com.jonghak.springbootweb.execution;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * - 핸들러 메소드를 어느 스레드에서 실행할지 (app.mvc.execution.mode)
+ *  ● platform : Tomcat 워커 스레드에서 실행 (기본)
+ *  ● async : 요청 매개변수를 바인딩한 다음, 핸들러 메소드 호출은 Callable로 넘겨서 MVC 비동기 처리로 실행한다.
+ *      ○ Tomcat 워커 스레드는 핸들러가 끝날 때까지 기다리지 않고 반납된다. (server.tomcat.threads.max를 늘리지 않아도 됨)
+ *      ○ JDK가 가상 스레드를 지원하면(Executors.newVirtualThreadPerTaskExecutor) 요청마다 가상 스레드 하나
+ *      ○ 지원하지 않으면 크기가 정해진 스레드 풀 (app.mvc.execution.pool-size, queue-capacity)
+ *          - 큐까지 가득 차면 Tomcat 워커 스레드에서 바로 실행한다. (CallerRunsPolicy, 요청을 거절하지 않고 속도를 늦춤)
+ *
+ * - 동시에 열려 있는 연결 수는 server.tomcat.max-connections(기본 8192)를 넘을 수 없다.
+ */
+public class HandlerExecution implements DisposableBean {
+
+    public enum Mode {
+        PLATFORM, ASYNC
+    }
+
+    private final Mode mode;
+
+    private final AsyncTaskExecutor executor;
+
+    private final ExecutorService virtualThreads;
+
+    private final ThreadPoolTaskExecutor threadPool;
+
+    public HandlerExecution(Mode mode, int poolSize, int queueCapacity) {
+        this.mode = mode;
+        this.virtualThreads = mode == Mode.ASYNC ? newVirtualThreadPerTaskExecutor() : null;
+        if (mode == Mode.PLATFORM) {
+            this.threadPool = null;
+            this.executor = null;
+        } else if (virtualThreads != null) {
+            this.threadPool = null;
+            this.executor = new TaskExecutorAdapter(virtualThreads);
+        } else {
+            ThreadPoolTaskExecutor threadPool = new ThreadPoolTaskExecutor();
+            threadPool.setThreadNamePrefix("handler-");
+            threadPool.setCorePoolSize(poolSize);
+            threadPool.setMaxPoolSize(poolSize);
+            threadPool.setQueueCapacity(queueCapacity);
+            threadPool.setAllowCoreThreadTimeOut(true);
+            threadPool.setDaemon(true);
+            threadPool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            threadPool.initialize();
+            this.threadPool = threadPool;
+            this.executor = threadPool;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 핸들러를 실행할 executor (platform 모드면 null)
+     */
+    public AsyncTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads != null;
+    }
+
+    @Override
+    public void destroy() {
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+        if (threadPool != null) {
+            threadPool.shutdown();
+        }
+    }
+
+    /**
+     * 컴파일 대상은 Java 11이므로 가상 스레드 API는 리플렉션으로 찾는다.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.jonghak.springbootweb.execution;
+
+import com.jonghak.springbootweb.advice.AdvisedInvocableHandlerMethod;
+import com.jonghak.springbootweb.cache.CachedResponse;
+import org.springframework.http.HttpEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * - 핸들러 메소드 호출을 Callable로 돌려주는 ServletInvocableHandlerMethod (app.mvc.execution.mode=async)
+ *  ● 아규먼트 resolve(요청 매개변수 바인딩, 검증, @RequestBody 읽기)는 지금 스레드에서 하고, 메소드 호출만 Callable로 감싼다.
+ *  ● 돌려준 Callable은 CallableMethodReturnValueHandler가 어댑터의 taskExecutor(HandlerExecution)로 실행하고,
+ *    끝나면 async dispatch에서 원래 리턴 타입으로 처리한다. (@ResponseBody, 뷰 이름 모두 그대로)
+ *  ● void 핸들러가 HttpServletResponse/OutputStream 으로 직접 응답을 쓴 경우
+ *      ○ 아규먼트 resolve에서 표시한 requestHandled는 Callable을 리턴값으로 처리할 때 지워지므로
+ *        Callable이 끝날 때 다시 표시한다. (async dispatch는 같은 ModelAndViewContainer를 쓴다.)
+ *      ○ 표시하지 않으면 async dispatch에서 뷰를 찾으려고 해서 500이 된다.
+ *  ● 핸들러에서 던진 예외도 async dispatch에서 다시 던져지므로 @ExceptionHandler가 그대로 처리한다.
+ *  ● @SharedModelAttribute 값은 AdvisedInvocableHandlerMethod와 같이 아규먼트를 resolve하기 전에 모델에 넣는다.
+ *
+ * - 다음 핸들러는 감싸지 않는다. (supports)
+ *  ● 이미 비동기 타입을 리턴하는 핸들러 (Callable, DeferredResult, CompletionStage 등)
+ *  ● @CachedResponse 핸들러 : 응답 캐시는 핸들러가 지금 스레드에서 끝나야 본문을 받아둘 수 있음
+ */
+public class OffloadingInvocableHandlerMethod extends AdvisedInvocableHandlerMethod {
+
+    private static final List<Class<?>> ASYNC_RETURN_TYPES = List.of(Callable.class, WebAsyncTask.class, DeferredResult.class,
+            ListenableFuture.class, CompletionStage.class, ResponseBodyEmitter.class, StreamingResponseBody.class);
+
+    public OffloadingInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        super(handlerMethod);
+    }
+
+    public static boolean supports(HandlerMethod handlerMethod) {
+        if (handlerMethod.hasMethodAnnotation(CachedResponse.class)) {
+            return false;
+        }
+        Class<?> returnType = handlerMethod.getReturnType().getParameterType();
+        if (HttpEntity.class.isAssignableFrom(returnType)) {
+            returnType = handlerMethod.getReturnType().nested().getNestedParameterType();
+        }
+        for (Class<?> asyncType : ASYNC_RETURN_TYPES) {
+            if (asyncType.isAssignableFrom(returnType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer,
+                                   Object... providedArgs) throws Exception {
+        Object[] args = getMethodArgumentValues(request, mavContainer, providedArgs);
+        boolean requestHandled = mavContainer.isRequestHandled();
+        return (Callable<Object>) () -> {
+            Object returnValue = doInvoke(args);
+            if (returnValue == null && (requestHandled || isNotModified(request))) {
+                mavContainer.setRequestHandled(true);
+            }
+            return returnValue;
+        };
+    }
+
+    private static boolean isNotModified(NativeWebRequest request) {
+        return request instanceof ServletWebRequest && ((ServletWebRequest) request).isNotModified();
+    }
+}
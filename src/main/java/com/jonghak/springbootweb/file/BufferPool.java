@@ -0,0 +1,45 @@
+package com.jonghak.springbootweb.file;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - 업로드에서 사용하는 고정 크기 버퍼 풀
+ *  ● 버퍼는 bufferCount 개만 만들고 돌려쓰기 때문에 업로드 전체가 쓰는 메모리는 bufferCount * bufferSize 를 넘지 않는다.
+ *  ● 풀이 비어있으면 돌려받을 때까지 기다리고(요청 본문도 읽지 않음 = back-pressure) 제한 시간이 지나면 503을 응답한다.
+ */
+public class BufferPool {
+
+    private static final long WAIT_SECONDS = 30;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    public BufferPool(int bufferSize, int bufferCount) {
+        this.buffers = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            this.buffers.add(new byte[bufferSize]);
+        }
+    }
+
+    public byte[] borrow() throws IOException {
+        try {
+            byte[] buffer = buffers.poll(WAIT_SECONDS, TimeUnit.SECONDS);
+            if (buffer == null) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many concurrent uploads");
+            }
+            return buffer;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for an upload buffer", ex);
+        }
+    }
+
+    public void release(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+}
@@ -0,0 +1,452 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.tika.Tika;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * - 이어받기가 가능한 청크 업로드
+ *  ● init : 파일명, 전체 크기, 청크 크기를 받아서 업로드 ID를 만든다.
+ *  ● chunk : 번호가 붙은 청크를 받는다. 여러 연결에서 순서와 상관없이 동시에 보낼 수 있다.
+ *      ○ 하나의 데이터 파일에 FileChannel.write(buffer, position) 으로 각자 위치에 쓰기 때문에 청크를 합치는 복사가 없다.
+ *  ● commit : 모든 청크가 도착했으면 SHA-256을 계산하고 FileStore에 commit(rename) 한다.
+ *
+ * - 이어받기
+ *  ● 받은 청크는 디스크에 기록(force)한 다음 청크 상태 파일(청크당 1byte)에 표시한다.
+ *  ● 서버가 재시작되어도 업로드 ID로 상태를 다시 읽기 때문에 클라이언트는 status의 missingChunks만 다시 보내면 된다.
+ *  ● 메모리에는 청크당 1bit (BitSet) 만 둔다.
+ *
+ * - 제한
+ *  ● 청크 크기는 minChunkSize ~ maxChunkSize (청크가 하나뿐이면 minChunkSize 보다 작아도 된다.)
+ *  ● 청크 개수는 maxChunkCount 이하 → 클라이언트가 정한 청크 개수만큼 힙과 디스크를 쓰지 않도록
+ *  ● expireAfter 동안 청크가 오지 않은 업로드는 버려진 것으로 보고 주기적으로 지운다.
+ *
+ * - 업로드 디렉토리 ({uploadId}.part / .meta / .chunks)
+ *  ● FileStore로 rename 해야 하므로 저장소와 같은 파일시스템에 있어야 한다.
+ */
+public class ChunkedUploadManager {
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f\\-]{36}");
+
+    private static final int MAX_MISSING_CHUNKS = 1000;
+
+    private final Path uploadDir;
+
+    private final FileStore fileStore;
+
+    private final BufferPool bufferPool;
+
+    private final Tika tika;
+
+    private final long maxFileSize;
+
+    private final int minChunkSize;
+
+    private final int maxChunkSize;
+
+    private final int maxChunkCount;
+
+    private final Duration expireAfter;
+
+    private final ScheduledExecutorService cleaner;
+
+    private final Map<String, ChunkedUpload> uploads = new ConcurrentHashMap<>();
+
+    public ChunkedUploadManager(Path uploadDir, FileStore fileStore, BufferPool bufferPool, Tika tika,
+                                long maxFileSize, int minChunkSize, int maxChunkSize, int maxChunkCount,
+                                Duration expireAfter) throws IOException {
+        if (minChunkSize <= 0 || minChunkSize > maxChunkSize) {
+            throw new IllegalArgumentException("minChunkSize must be between 1 and " + maxChunkSize);
+        }
+        if (maxChunkCount <= 0) {
+            throw new IllegalArgumentException("maxChunkCount must be positive");
+        }
+        this.uploadDir = Files.createDirectories(uploadDir);
+        this.fileStore = fileStore;
+        this.bufferPool = bufferPool;
+        this.tika = tika;
+        this.maxFileSize = maxFileSize;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.maxChunkCount = maxChunkCount;
+        this.expireAfter = expireAfter;
+        if (!expireAfter.isZero() && !expireAfter.isNegative()) {
+            long interval = Math.max(1000, Math.min(expireAfter.toMillis(), Duration.ofHours(1).toMillis()));
+            cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "chunked-upload-cleaner");
+                thread.setDaemon(true);
+                return thread;
+            });
+            cleaner.scheduleWithFixedDelay(this::expireAbandoned, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            cleaner = null;
+        }
+    }
+
+    public ChunkedUploadStatus init(String filename, long size, int chunkSize) throws IOException {
+        // 청크를 모두 받은 다음 commit에서 거절되지 않도록 저장소와 같은 규칙으로 확인한다.
+        String cleanFilename;
+        try {
+            cleanFilename = FileUploadPipeline.filename(filename);
+        } catch (MultipartException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid file name : " + filename);
+        }
+        if (size <= 0 || size > maxFileSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + maxFileSize);
+        }
+        if (chunkSize <= 0 || chunkSize > maxChunkSize || (chunkSize < minChunkSize && chunkSize < size)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "chunkSize must be between " + minChunkSize + " and " + maxChunkSize);
+        }
+        long chunkCount = chunkCount(size, chunkSize);
+        if (chunkCount > maxChunkCount) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "chunk count must be at most " + maxChunkCount + " (chunkSize must be at least " + ((size - 1) / maxChunkCount + 1) + ")");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(metaFile(uploadId)))) {
+            out.writeUTF(cleanFilename);
+            out.writeLong(size);
+            out.writeInt(chunkSize);
+        }
+        // 청크 상태 파일은 0으로 채워진 chunkCount 크기의 파일
+        try (FileChannel chunks = FileChannel.open(chunksFile(uploadId), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            chunks.write(ByteBuffer.allocate(1), chunkCount - 1);
+        }
+        Files.createFile(dataFile(uploadId));
+
+        return get(uploadId).status();
+    }
+
+    public ChunkedUploadStatus status(String uploadId) throws IOException {
+        return get(uploadId).status();
+    }
+
+    public void writeChunk(String uploadId, int index, long contentLength, InputStream in) throws IOException {
+        ChunkedUpload upload = get(uploadId);
+        if (index < 0 || index >= upload.chunkCount) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "chunk index must be between 0 and " + (upload.chunkCount - 1));
+        }
+        long position = (long) index * upload.chunkSize;
+        long expected = Math.min(upload.chunkSize, upload.size - position);
+        if (contentLength >= 0 && contentLength != expected) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "chunk " + index + " must be " + expected + " bytes");
+        }
+
+        byte[] buffer = bufferPool.borrow();
+        upload.lock.readLock().lock();
+        try {
+            if (upload.committed) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "upload is already committed");
+            }
+            long written = 0;
+            int read;
+            while (written < expected && (read = in.readNBytes(buffer, 0, (int) Math.min(buffer.length, expected - written))) > 0) {
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    written += upload.data.write(chunk, position + written);
+                }
+            }
+            if (written != expected || in.read() != -1) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "chunk " + index + " must be " + expected + " bytes");
+            }
+            upload.data.force(false);
+            upload.markReceived(index);
+        } finally {
+            bufferPool.release(buffer);
+            upload.lock.readLock().unlock();
+        }
+    }
+
+    public StoredFile commit(String uploadId) throws IOException {
+        ChunkedUpload upload = get(uploadId);
+        upload.lock.writeLock().lock();
+        try {
+            if (upload.committed) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "upload is already committed");
+            }
+            ChunkedUploadStatus status = upload.status();
+            if (!status.getMissingChunks().isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "missing chunks : " + status.getMissingChunks());
+            }
+
+            MessageDigest digest = Digests.sha256();
+            String mediaType;
+            byte[] buffer = bufferPool.borrow();
+            try {
+                int read = upload.data.read(ByteBuffer.wrap(buffer), 0);
+                mediaType = tika.detect(new ByteArrayInputStream(buffer, 0, Math.max(read, 0)), upload.filename);
+                for (long position = 0; position < upload.size; position += read) {
+                    read = upload.data.read(ByteBuffer.wrap(buffer), position);
+                    if (read <= 0) {
+                        throw new IOException("upload data is truncated : " + uploadId);
+                    }
+                    digest.update(buffer, 0, read);
+                }
+            } finally {
+                bufferPool.release(buffer);
+            }
+
+            upload.committed = true;
+            upload.close();
+            // commit이 실패하면 파일은 그대로 남아있고 다음 요청에서 디스크로부터 다시 연다.
+            uploads.remove(uploadId);
+            StoredFile storedFile = fileStore.commit(upload.filename, dataFile(uploadId), Digests.hex(digest.digest()), mediaType);
+            discard(uploadId);
+            return storedFile;
+        } finally {
+            upload.lock.writeLock().unlock();
+        }
+    }
+
+    public void abort(String uploadId) throws IOException {
+        ChunkedUpload upload = get(uploadId);
+        upload.lock.writeLock().lock();
+        try {
+            upload.committed = true;
+            upload.close();
+            discard(uploadId);
+        } finally {
+            upload.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * - expireAfter 동안 청크 상태 파일이 바뀌지 않은 (청크가 오지 않은) 업로드를 지운다.
+     *  ● 청크를 쓰거나 commit 중인 업로드는 write lock을 얻지 못하므로 다음 주기로 넘긴다.
+     */
+    void expireAbandoned() {
+        FileTime expiredBefore = FileTime.fromMillis(System.currentTimeMillis() - expireAfter.toMillis());
+        try (Stream<Path> metaFiles = Files.list(uploadDir)) {
+            metaFiles.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".meta"))
+                    .map(name -> name.substring(0, name.length() - ".meta".length()))
+                    .filter(uploadId -> UPLOAD_ID.matcher(uploadId).matches())
+                    .forEach(uploadId -> {
+                        try {
+                            if (lastModified(uploadId).compareTo(expiredBefore) < 0) {
+                                expire(uploadId);
+                            }
+                        } catch (IOException | UncheckedIOException ex) {
+                            // 다음 주기에 다시 시도
+                        }
+                    });
+        } catch (IOException ex) {
+            // 다음 주기에 다시 시도
+        }
+    }
+
+    private FileTime lastModified(String uploadId) throws IOException {
+        Path chunksFile = chunksFile(uploadId);
+        return Files.exists(chunksFile) ? Files.getLastModifiedTime(chunksFile) : Files.getLastModifiedTime(metaFile(uploadId));
+    }
+
+    private void expire(String uploadId) throws IOException {
+        ChunkedUpload upload = uploads.get(uploadId);
+        if (upload == null) {
+            // 메모리에 없으면 get()이 그 사이에 파일을 열지 못하도록 map의 compute 안에서 지운다.
+            uploads.compute(uploadId, (id, current) -> {
+                if (current == null) {
+                    try {
+                        deleteFiles(id);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+                return current;
+            });
+            return;
+        }
+        if (!upload.lock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            if (!upload.committed) {
+                upload.committed = true;
+                upload.close();
+                discard(uploadId);
+            }
+        } finally {
+            upload.lock.writeLock().unlock();
+        }
+    }
+
+    public void close() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+    }
+
+    private void discard(String uploadId) throws IOException {
+        uploads.remove(uploadId);
+        deleteFiles(uploadId);
+    }
+
+    private void deleteFiles(String uploadId) throws IOException {
+        Files.deleteIfExists(dataFile(uploadId));
+        Files.deleteIfExists(chunksFile(uploadId));
+        Files.deleteIfExists(metaFile(uploadId));
+    }
+
+    /**
+     * 메모리에 없으면 (재시작 후) 업로드 디렉토리에서 ID로 바로 읽는다.
+     */
+    private ChunkedUpload get(String uploadId) throws IOException {
+        if (!UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, uploadId + " is not found");
+        }
+        try {
+            return uploads.computeIfAbsent(uploadId, id -> {
+                try {
+                    return open(id);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            if (ex.getCause() instanceof NoSuchFileException) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, uploadId + " is not found");
+            }
+            throw ex.getCause();
+        }
+    }
+
+    private ChunkedUpload open(String uploadId) throws IOException {
+        String filename;
+        long size;
+        int chunkSize;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(metaFile(uploadId)))) {
+            filename = in.readUTF();
+            size = in.readLong();
+            chunkSize = in.readInt();
+        }
+        if (size <= 0 || chunkSize <= 0 || chunkCount(size, chunkSize) > Integer.MAX_VALUE) {
+            throw new IOException("invalid upload meta : " + uploadId);
+        }
+        FileChannel data = FileChannel.open(dataFile(uploadId), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel chunks = FileChannel.open(chunksFile(uploadId), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ChunkedUpload(uploadId, filename, size, chunkSize, data, chunks);
+    }
+
+    private static long chunkCount(long size, int chunkSize) {
+        return size / chunkSize + (size % chunkSize == 0 ? 0 : 1);
+    }
+
+    private Path metaFile(String uploadId) {
+        return uploadDir.resolve(uploadId + ".meta");
+    }
+
+    private Path chunksFile(String uploadId) {
+        return uploadDir.resolve(uploadId + ".chunks");
+    }
+
+    private Path dataFile(String uploadId) {
+        return uploadDir.resolve(uploadId + ".part");
+    }
+
+    private static class ChunkedUpload {
+
+        private final String uploadId;
+
+        private final String filename;
+
+        private final long size;
+
+        private final int chunkSize;
+
+        private final int chunkCount;
+
+        private final FileChannel data;
+
+        private final FileChannel chunks;
+
+        private final BitSet received;
+
+        /**
+         * 청크 쓰기는 read lock(동시에 여러 개), commit/abort는 write lock
+         */
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private volatile boolean committed;
+
+        private ChunkedUpload(String uploadId, String filename, long size, int chunkSize,
+                              FileChannel data, FileChannel chunks) throws IOException {
+            this.uploadId = uploadId;
+            this.filename = filename;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.chunkCount = (int) chunkCount(size, chunkSize);
+            this.data = data;
+            this.chunks = chunks;
+            this.received = new BitSet(chunkCount);
+            // 청크 상태 파일을 나눠서 읽으면서 받은 청크만 표시한다.
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            long position = 0;
+            int read;
+            while (position < chunkCount && (read = chunks.read(buffer.clear(), position)) > 0) {
+                for (int i = 0; i < read && position + i < chunkCount; i++) {
+                    if (buffer.get(i) == 1) {
+                        received.set((int) (position + i));
+                    }
+                }
+                position += read;
+            }
+        }
+
+        private void markReceived(int index) throws IOException {
+            chunks.write(ByteBuffer.wrap(new byte[]{1}), index);
+            chunks.force(false);
+            synchronized (received) {
+                received.set(index);
+            }
+        }
+
+        private ChunkedUploadStatus status() {
+            List<Integer> missingChunks = new ArrayList<>();
+            int receivedCount;
+            synchronized (received) {
+                receivedCount = received.cardinality();
+                for (int i = received.nextClearBit(0); i < chunkCount && missingChunks.size() < MAX_MISSING_CHUNKS;
+                     i = received.nextClearBit(i + 1)) {
+                    missingChunks.add(i);
+                }
+            }
+            return new ChunkedUploadStatus(uploadId, filename, size, chunkSize, chunkCount, receivedCount, missingChunks);
+        }
+
+        private void close() throws IOException {
+            data.close();
+            chunks.close();
+        }
+    }
+}
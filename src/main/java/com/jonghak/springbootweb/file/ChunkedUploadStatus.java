@@ -0,0 +1,27 @@
+package com.jonghak.springbootweb.file;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ChunkedUploadStatus {
+
+    private final String uploadId;
+
+    private final String filename;
+
+    private final long size;
+
+    private final int chunkSize;
+
+    private final int chunkCount;
+
+    private final int receivedChunks;
+
+    /**
+     * 아직 받지 못한 청크 번호 (최대 1000개), 비어있으면 commit 할 수 있다.
+     */
+    private final List<Integer> missingChunks;
+
+}
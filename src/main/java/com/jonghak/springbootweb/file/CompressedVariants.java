@@ -0,0 +1,352 @@
+package com.jonghak.springbootweb.file;
+
+import org.springframework.util.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * - Accept-Encoding에 따라 압축된 파일(variant)을 골라주는 클래스
+ *  ● 미리 압축된 파일 : 저장소에 {filename}.br, {filename}.zst, {filename}.gz 가 있으면 그대로 내려준다.
+ *  ● 요청시 압축 : 압축할 가치가 있는 CONTENT_TYPE(text, json, xml, ...)은 처음 요청될 때 gzip으로 압축해서 디스크 캐시에 둔다.
+ *      ○ br, zstd는 순수 자바 인코더가 없어서 미리 압축된 파일이 있는 경우에만 사용한다.
+ *      ○ 캐시 키는 내용의 SHA-256 이기 때문에 파일이 바뀌면 자연스럽게 새 variant가 만들어진다.
+ *      ○ 같은 파일에 대한 동시 요청은 한 번만 압축한다. (나머지는 결과를 기다림)
+ *      ○ 캐시 전체 크기가 maxCacheSize를 넘으면 가장 오래 쓰지 않은 variant부터 지운다. (LRU)
+ *      ○ 내려보내는 중인 variant는 고정(pin)해서 지우지 않는다. 사용이 끝나면 CompressedVariant.close()로 놓아준다.
+ *      ○ 압축해도 줄지 않는 파일은 최대 MAX_INCOMPRESSIBLE 개까지만 기억한다. (LRU)
+ *  ● image/jpeg 같이 이미 압축된 형식은 건너뛴다.
+ *
+ * - 참고
+ *  ● https://developer.mozilla.org/en-US/docs/Web/HTTP/Headers/Accept-Encoding
+ */
+public class CompressedVariants {
+
+    private static final String[][] PRECOMPRESSED_SUFFIXES = {{"br", ".br"}, {"zstd", ".zst"}, {"gzip", ".gz"}};
+
+    private static final String GZIP = "gzip";
+
+    private static final int MAX_INCOMPRESSIBLE = 10_000;
+
+    private final FileStore fileStore;
+
+    private final Path cacheDir;
+
+    private final long maxCacheSize;
+
+    private final long minSize;
+
+    /**
+     * 캐시된 variant 파일명 -> 크기 (LRU 순서)
+     */
+    private final LinkedHashMap<String, Long> cached = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long cachedSize;
+
+    /**
+     * 내려보내는 중인 variant 파일명 -> 사용 중인 요청 수 (cached와 같이 cached로 동기화)
+     */
+    private final Map<String, Integer> pins = new HashMap<>();
+
+    /**
+     * 압축해도 줄지 않는 파일의 variant 파일명 (LRU, cached로 동기화)
+     */
+    private final LinkedHashMap<String, Boolean> incompressible = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_INCOMPRESSIBLE;
+        }
+    };
+
+    private final Map<String, CompletableFuture<Optional<Path>>> inFlight = new ConcurrentHashMap<>();
+
+    public CompressedVariants(FileStore fileStore, Path cacheDir, long maxCacheSize, long minSize) throws IOException {
+        this.fileStore = fileStore;
+        this.cacheDir = Files.createDirectories(cacheDir);
+        this.maxCacheSize = maxCacheSize;
+        this.minSize = minSize;
+        loadCache();
+    }
+
+    /**
+     * 압축할 가치가 있는 CONTENT_TYPE 인지 (Vary: Accept-Encoding 헤더도 이 경우에만 필요)
+     */
+    public boolean isCompressible(String mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        String type = mediaType.toLowerCase();
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).trim();
+        }
+        return type.startsWith("text/")
+                || type.endsWith("+json") || type.endsWith("+xml")
+                || type.equals("application/json") || type.equals("application/x-ndjson")
+                || type.equals("application/xml") || type.equals("application/javascript")
+                || type.equals("application/x-javascript") || type.equals("application/wasm")
+                || type.equals("image/svg+xml") || type.equals("image/bmp");
+    }
+
+    public Optional<CompressedVariant> resolve(StoredFile file, String mediaType, String acceptEncoding) throws IOException {
+        if (!StringUtils.hasText(acceptEncoding) || !isCompressible(mediaType)) {
+            return Optional.empty();
+        }
+
+        // 미리 압축된 파일 (br > zstd > gzip 순서, 같은 q 값이면 앞의 것)
+        String best = null;
+        StoredFile bestFile = null;
+        double bestQuality = 0;
+        for (String[] precompressed : PRECOMPRESSED_SUFFIXES) {
+            double quality = quality(acceptEncoding, precompressed[0]);
+            if (quality > bestQuality) {
+                Optional<StoredFile> sibling = fileStore.find(file.getFilename() + precompressed[1]);
+                if (sibling.isPresent()) {
+                    best = precompressed[0];
+                    bestFile = sibling.get();
+                    bestQuality = quality;
+                }
+            }
+        }
+        if (bestFile != null && bestQuality >= quality(acceptEncoding, GZIP)) {
+            return Optional.of(new CompressedVariant(best, bestFile.getPath(), "\"" + bestFile.getSha256() + "\""));
+        }
+
+        if (quality(acceptEncoding, GZIP) <= 0 || file.getSize() < minSize) {
+            return Optional.empty();
+        }
+        String name = file.getSha256() + ".gz";
+        return gzipVariant(file, name).map(path -> new CompressedVariant(GZIP, path, "\"" + file.getSha256() + "-gzip\"", this, name));
+    }
+
+    /**
+     * 돌려주는 variant는 고정(pin)되어 있다.
+     */
+    private Optional<Path> gzipVariant(StoredFile file, String name) throws IOException {
+        synchronized (cached) {
+            if (incompressible.get(name) != null) {
+                return Optional.empty();
+            }
+            if (pin(name)) {
+                return Optional.of(cacheDir.resolve(name));
+            }
+        }
+
+        CompletableFuture<Optional<Path>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<Path>> running = inFlight.putIfAbsent(name, future);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            future.complete(compress(file, name));
+        } catch (IOException | RuntimeException ex) {
+            future.completeExceptionally(ex);
+        } finally {
+            inFlight.remove(name);
+        }
+        Optional<Path> compressed = await(future);
+        synchronized (cached) {
+            // 압축한 뒤 고정하기 전에 지워진 경우는 원본을 내려보낸다.
+            return compressed.isPresent() && pin(name) ? compressed : Optional.empty();
+        }
+    }
+
+    private boolean pin(String name) {
+        if (cached.get(name) == null) {
+            return false;
+        }
+        pins.merge(name, 1, Integer::sum);
+        return true;
+    }
+
+    private void unpin(String name) {
+        synchronized (cached) {
+            pins.computeIfPresent(name, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private Optional<Path> compress(StoredFile file, String name) throws IOException {
+        Path target = cacheDir.resolve(name);
+        Path temp = cacheDir.resolve("." + UUID.randomUUID() + ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(file.getPath());
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                in.transferTo(out);
+            }
+            long size = Files.size(temp);
+            if (size >= file.getSize()) {
+                synchronized (cached) {
+                    incompressible.put(name, Boolean.TRUE);
+                }
+                return Optional.empty();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            register(name, size);
+            return Optional.of(target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void register(String name, long size) throws IOException {
+        List<String> evicted = new ArrayList<>();
+        synchronized (cached) {
+            Long previous = cached.put(name, size);
+            cachedSize += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> iterator = cached.entrySet().iterator();
+            while (cachedSize > maxCacheSize && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                // 내려보내는 중인 variant는 다음에 지운다.
+                if (eldest.getKey().equals(name) || pins.containsKey(eldest.getKey())) {
+                    continue;
+                }
+                cachedSize -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (String evictedName : evicted) {
+            Files.deleteIfExists(cacheDir.resolve(evictedName));
+        }
+    }
+
+    /**
+     * 재시작 후에도 캐시를 재사용하기 위해 수정시간 순서로 등록한다. (시작할 때 한 번만 캐시 디렉토리를 읽음)
+     */
+    private void loadCache() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir)) {
+            for (Path path : stream) {
+                if (path.getFileName().toString().startsWith(".")) {
+                    Files.deleteIfExists(path);
+                } else {
+                    files.add(path);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(path -> {
+            try {
+                return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime();
+            } catch (IOException ex) {
+                return null;
+            }
+        }, Comparator.nullsFirst(Comparator.naturalOrder())));
+        for (Path path : files) {
+            register(path.getFileName().toString(), Files.size(path));
+        }
+    }
+
+    private Optional<Path> await(CompletableFuture<Optional<Path>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while compressing", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * Accept-Encoding에서 encoding의 q 값, 없으면 0 ("*" 는 명시되지 않은 encoding에 적용)
+     */
+    static double quality(String acceptEncoding, String encoding) {
+        double wildcard = 0;
+        for (String token : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+            if (parts.length == 0) {
+                continue;
+            }
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                if (parts[i].startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parts[i].substring(2));
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (parts[0].equalsIgnoreCase(encoding)) {
+                return quality;
+            }
+            if (parts[0].equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard;
+    }
+
+    /**
+     * 요청시 압축한 variant는 close() 할 때까지 캐시에서 지워지지 않는다.
+     */
+    public static class CompressedVariant implements Closeable {
+
+        private final String encoding;
+
+        private final Path path;
+
+        private final String etag;
+
+        private final CompressedVariants owner;
+
+        private final String cacheName;
+
+        private boolean closed;
+
+        private CompressedVariant(String encoding, Path path, String etag) {
+            this(encoding, path, etag, null, null);
+        }
+
+        private CompressedVariant(String encoding, Path path, String etag, CompressedVariants owner, String cacheName) {
+            this.encoding = encoding;
+            this.path = path;
+            this.etag = etag;
+            this.owner = owner;
+            this.cacheName = cacheName;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (owner != null && !closed) {
+                closed = true;
+                owner.unpin(cacheName);
+            }
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.jonghak.springbootweb.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * - 로컬 디스크 기반 content-addressed 파일 저장소
+ *  ● 파일 내용은 SHA-256 값을 경로로 저장한다. objects/{sha[0..2]}/{sha[2..4]}/{sha}
+ *      ○ 내용이 같은 파일은 한 번만 저장된다. (중복 제거)
+ *      ○ 두 단계로 나눈 디렉토리(256 * 256)라서 한 디렉토리에 파일이 몰리지 않는다.
+ *  ● 파일명 -> SHA-256 매핑은 index.log 에 추가(append)만 하는 바이너리 로그로 저장한다.
+ *      ○ 시작할 때 한 번 읽어서 메모리(ConcurrentHashMap)에 올리기 때문에 조회는 O(1)이고 파일시스템을 뒤지지 않는다.
+ *      ○ 지워지거나 덮어쓴 레코드가 살아있는 레코드의 2배를 넘으면 시작할 때 다시 써서 줄인다. (compaction)
+ *  ● 같은 내용을 가리키는 파일명이 하나도 없으면 내용 파일도 지운다. (참조 카운트)
+ *
+ * - index.log 레코드
+ *  ● PUT    : [1][filename(UTF)][sha256(32byte)][size(long)][mediaType(UTF, 없으면 "")]
+ *  ● DELETE : [2][filename(UTF)]
+ */
+public class ContentAddressedFileStore implements FileStore {
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private static final int COMPACTION_MIN_RECORDS = 1024;
+
+    private final Path objectsDir;
+
+    private final Path stagingDir;
+
+    private final Path indexFile;
+
+    private final Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+
+    /**
+     * sha256 -> 이 내용을 가리키는 파일명 개수, commit/delete 에서만 사용하므로 this로 동기화
+     */
+    private final Map<String, Integer> references = new HashMap<>();
+
+    private final FileChannel indexChannel;
+
+    public ContentAddressedFileStore(Path root) throws IOException {
+        this.objectsDir = Files.createDirectories(root.resolve("objects"));
+        this.stagingDir = Files.createDirectories(root.resolve("staging"));
+        this.indexFile = root.resolve("index.log");
+
+        int records = loadIndex();
+        if (records > COMPACTION_MIN_RECORDS && records > index.size() * 2) {
+            compactIndex();
+        }
+        this.indexChannel = FileChannel.open(indexFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        for (IndexEntry entry : index.values()) {
+            references.merge(entry.sha256, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public Path newStagingFile() throws IOException {
+        return Files.createFile(stagingDir.resolve(UUID.randomUUID() + ".tmp"));
+    }
+
+    @Override
+    public synchronized StoredFile commit(String filename, Path stagingFile, String sha256, String mediaType) throws IOException {
+        validateFilename(filename);
+        Path object = objectPath(sha256);
+        long size = Files.size(stagingFile);
+
+        if (Files.exists(object)) {
+            // 같은 내용이 이미 저장되어 있음
+            Files.delete(stagingFile);
+        } else {
+            Files.createDirectories(object.getParent());
+            Files.move(stagingFile, object, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        IndexEntry entry = new IndexEntry(sha256, size, mediaType);
+        appendRecord(encodePut(filename, entry));
+        references.merge(sha256, 1, Integer::sum);
+        IndexEntry previous = index.put(filename, entry);
+        if (previous != null) {
+            release(previous.sha256);
+        }
+        return toStoredFile(filename, entry);
+    }
+
+    @Override
+    public Optional<StoredFile> find(String filename) {
+        IndexEntry entry = index.get(filename);
+        return entry == null ? Optional.empty() : Optional.of(toStoredFile(filename, entry));
+    }
+
+    @Override
+    public synchronized boolean delete(String filename) throws IOException {
+        if (!index.containsKey(filename)) {
+            return false;
+        }
+        appendRecord(encodeDelete(filename));
+        release(index.remove(filename).sha256);
+        return true;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private void release(String sha256) throws IOException {
+        int remaining = references.merge(sha256, -1, Integer::sum);
+        if (remaining <= 0) {
+            references.remove(sha256);
+            // transferTo로 보내는 중인 다운로드는 파일 디스크립터가 살아있으므로 계속 전송된다.
+            // sendfile 다운로드는 핸들러가 끝난 뒤에 파일을 열기 때문에 그 전에 지워지면 전송이 실패한다. (연결 종료)
+            Files.deleteIfExists(objectPath(sha256));
+        }
+    }
+
+    private Path objectPath(String sha256) {
+        return objectsDir.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private StoredFile toStoredFile(String filename, IndexEntry entry) {
+        return new StoredFile(filename, entry.sha256, entry.size, entry.mediaType, objectPath(entry.sha256));
+    }
+
+    private void validateFilename(String filename) {
+        if (!FileStore.isValidFilename(filename)) {
+            throw new IllegalArgumentException("Invalid file name : " + filename);
+        }
+    }
+
+    /**
+     * index.log를 읽어서 메모리 인덱스를 만들고 읽은 레코드 수를 리턴한다.
+     * 마지막 레코드가 중간에 잘린 경우(쓰는 도중 종료) 잘린 부분은 버린다.
+     */
+    private int loadIndex() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(indexFile);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int records = 0;
+        long validLength = 0;
+        try {
+            while (in.available() > 0) {
+                byte op = in.readByte();
+                String filename = in.readUTF();
+                if (op == OP_PUT) {
+                    byte[] sha = new byte[32];
+                    in.readFully(sha);
+                    long size = in.readLong();
+                    String mediaType = in.readUTF();
+                    index.put(filename, new IndexEntry(Digests.hex(sha), size, mediaType.isEmpty() ? null : mediaType));
+                } else if (op == OP_DELETE) {
+                    index.remove(filename);
+                } else {
+                    throw new IOException("corrupted index record at " + validLength + " : " + indexFile);
+                }
+                records++;
+                validLength = bytes.length - in.available();
+            }
+        } catch (EOFException ex) {
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return records;
+    }
+
+    private void compactIndex() throws IOException {
+        Path compacted = indexFile.resolveSibling("index.log.compact");
+        try (FileChannel channel = FileChannel.open(compacted,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+                write(channel, encodePut(entry.getKey(), entry.getValue()));
+            }
+            channel.force(true);
+        }
+        Files.move(compacted, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void appendRecord(byte[] record) throws IOException {
+        // 레코드 하나는 한 번의 write로 추가되고, 인덱스가 메모리에 반영되기 전에 디스크에 기록된다.
+        write(indexChannel, record);
+        indexChannel.force(false);
+    }
+
+    private void write(FileChannel channel, byte[] record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private byte[] encodePut(String filename, IndexEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + filename.length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(OP_PUT);
+        out.writeUTF(filename);
+        out.write(unhex(entry.sha256));
+        out.writeLong(entry.size);
+        out.writeUTF(entry.mediaType == null ? "" : entry.mediaType);
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeDelete(String filename) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + filename.length());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(OP_DELETE);
+        out.writeUTF(filename);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] unhex(String hex) {
+        if (hex.length() != 64) {
+            throw new IllegalArgumentException("Invalid SHA-256 : " + hex);
+        }
+        byte[] bytes = new byte[32];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex, i * 2, i * 2 + 2, 16);
+        }
+        return bytes;
+    }
+
+    private static class IndexEntry {
+
+        private final String sha256;
+
+        private final long size;
+
+        private final String mediaType;
+
+        private IndexEntry(String sha256, long size, String mediaType) {
+            this.sha256 = sha256;
+            this.size = size;
+            this.mediaType = mediaType;
+        }
+    }
+}
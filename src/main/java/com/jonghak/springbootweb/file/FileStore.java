@@ -0,0 +1,35 @@
+package com.jonghak.springbootweb.file;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * - 업로드 파일 저장소
+ *  ● 파일명으로 저장된 파일을 찾는다. (파일명 -> 저장된 파일)
+ *  ● 저장할 파일은 newStagingFile()로 받은 경로에 먼저 쓰고 commit() 한다.
+ *      ○ 스테이징 파일은 저장소와 같은 파일시스템에 있기 때문에 commit은 rename만 하고 복사하지 않는다.
+ */
+public interface FileStore {
+
+    Path newStagingFile() throws IOException;
+
+    /**
+     * 스테이징 파일을 filename으로 저장한다. 같은 filename이 있으면 교체한다.
+     * 스테이징 파일은 commit 이후 저장소가 소유한다. (이동 또는 삭제됨)
+     */
+    StoredFile commit(String filename, Path stagingFile, String sha256, String mediaType) throws IOException;
+
+    Optional<StoredFile> find(String filename);
+
+    boolean delete(String filename) throws IOException;
+
+    /**
+     * 저장할 수 있는 파일명 (1 ~ 255자, "."으로 시작하지 않고 경로 구분자와 제어 문자가 없음)
+     */
+    static boolean isValidFilename(String filename) {
+        return filename != null && !filename.isEmpty() && filename.length() <= 255 && !filename.startsWith(".")
+                && filename.chars().noneMatch(c -> c == '/' || c == '\\' || Character.isISOControl(c));
+    }
+
+}
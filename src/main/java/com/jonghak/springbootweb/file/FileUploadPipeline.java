@@ -0,0 +1,156 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.tika.Tika;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * - multipart 업로드를 임시 파일 없이 저장소(FileStore)로 바로 저장하는 파이프라인
+ *  ● MultipartFile은 핸들러가 실행되기 전에 요청 전체를 메모리 또는 임시 파일에 먼저 받아둔다. (2번 쓰기)
+ *  ● spring.servlet.multipart.enabled=false 로 스프링의 multipart 처리를 끄고
+ *    commons-fileupload의 스트리밍 API(FileItemIterator)로 요청 본문을 읽으면서 바로 저장한다.
+ *
+ * - 저장 과정
+ *  ● 버퍼 크기(bufferSize) 단위로 읽어서 FileChannel에 쓰고, 동시에 SHA-256을 계산한다.
+ *  ● 첫 번째 청크로 CONTENT_TYPE을 판별한다. (Tika)
+ *  ● 저장소의 스테이징 파일에 쓴 다음 commit(rename)만 하기 때문에 다시 복사하지 않는다.
+ *
+ * - 메모리 상한 (back-pressure)
+ *  ● 업로드 하나는 BufferPool에서 버퍼 하나만 빌려 쓴다.
+ *
+ * - 참고
+ *  ● https://commons.apache.org/proper/commons-fileupload/streaming.html
+ */
+public class FileUploadPipeline {
+
+    private final FileStore fileStore;
+
+    private final long maxFileSize;
+
+    private final Tika tika;
+
+    private final BufferPool bufferPool;
+
+    public FileUploadPipeline(FileStore fileStore, BufferPool bufferPool, long maxFileSize, Tika tika) {
+        this.fileStore = fileStore;
+        this.bufferPool = bufferPool;
+        this.maxFileSize = maxFileSize;
+        this.tika = tika;
+    }
+
+    /**
+     * 요청에서 fieldName에 해당하는 파일을 모두 저장한다.
+     * 이미 multipart로 변환된 요청(MockMvc 등)이면 각 파일의 InputStream을 그대로 사용한다.
+     */
+    public List<StoredFile> upload(HttpServletRequest request, String fieldName) throws IOException {
+        List<StoredFile> uploadedFiles = new ArrayList<>();
+        if (request instanceof MultipartHttpServletRequest) {
+            for (MultipartFile file : ((MultipartHttpServletRequest) request).getFiles(fieldName)) {
+                try (InputStream in = file.getInputStream()) {
+                    uploadedFiles.add(store(file.getOriginalFilename(), in));
+                }
+            }
+            return uploadedFiles;
+        }
+
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            throw new MultipartException("Current request is not a multipart request");
+        }
+        try {
+            FileItemIterator iterator = new ServletFileUpload().getItemIterator(request);
+            while (iterator.hasNext()) {
+                FileItemStream item = iterator.next();
+                if (item.isFormField() || !fieldName.equals(item.getFieldName())) {
+                    continue;
+                }
+                try (InputStream in = item.openStream()) {
+                    uploadedFiles.add(store(item.getName(), in));
+                }
+            }
+        } catch (FileUploadException ex) {
+            throw new MultipartException("Failed to parse multipart request", ex);
+        }
+        return uploadedFiles;
+    }
+
+    /**
+     * 저장소에 없는 경우에만 리소스를 저장한다. (샘플 파일 등록용)
+     */
+    public void importIfAbsent(Resource resource) throws IOException {
+        if (fileStore.find(resource.getFilename()).isEmpty()) {
+            try (InputStream in = resource.getInputStream()) {
+                store(resource.getFilename(), in);
+            }
+        }
+    }
+
+    public StoredFile store(String originalFilename, InputStream in) throws IOException {
+        String filename = filename(originalFilename);
+
+        byte[] buffer = bufferPool.borrow();
+        Path staging = fileStore.newStagingFile();
+        try {
+            MessageDigest digest = Digests.sha256();
+            String mediaType = null;
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                    size += read;
+                    if (size > maxFileSize) {
+                        throw new MaxUploadSizeExceededException(maxFileSize);
+                    }
+                    if (mediaType == null) {
+                        mediaType = tika.detect(new ByteArrayInputStream(buffer, 0, read), filename);
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                }
+            }
+            if (mediaType == null) {
+                mediaType = tika.detect(filename);
+            }
+
+            return fileStore.commit(filename, staging, Digests.hex(digest.digest()), mediaType);
+        } finally {
+            bufferPool.release(buffer);
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * 업로드한 파일명에서 경로를 뗀 파일명 (FileStore.isValidFilename()이 아니면 MultipartException)
+     * 저장소에 commit 할 때 거절되지 않도록 본문을 받기 전에 확인한다.
+     */
+    static String filename(String originalFilename) {
+        String filename = StringUtils.getFilename(StringUtils.cleanPath(originalFilename == null ? "" : originalFilename));
+        if (!StringUtils.hasText(filename) || !FileStore.isValidFilename(filename)) {
+            throw new MultipartException("Invalid file name : " + originalFilename);
+        }
+        return filename;
+    }
+}
@@ -0,0 +1,164 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.tika.Tika;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * - Tika.detect() 결과를 캐시하는 CONTENT_TYPE 판별기
+ *  ● Tika.detect(File)은 호출할 때마다 파일을 열고 magic byte를 검사하기 때문에 자주 받는 파일은 캐시에서 바로 꺼낸다.
+ *  ● 캐시 키는 경로, 값에는 판별 당시의 파일 크기와 수정시간을 함께 저장한다.
+ *      ○ 크기나 수정시간이 달라졌으면 파일이 바뀐 것으로 보고 다시 판별한다. (invalidation)
+ *  ● LinkedHashMap(accessOrder = true)의 LRU 순서로 maxEntries를 넘으면 가장 오래 쓰지 않은 항목부터 제거한다.
+ *
+ * - 판별 시 파일 전체가 아니라 앞부분(prefixSize)만 풀에서 빌린 버퍼로 읽어서 Tika에 넘긴다.
+ */
+public class MediaTypeDetector {
+
+    private static final int BUFFER_POOL_SIZE = 16;
+
+    private final Tika tika;
+
+    private final int prefixSize;
+
+    private final Map<Path, CachedMediaType> cache;
+
+    private final BlockingQueue<byte[]> bufferPool = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public MediaTypeDetector(Tika tika, int maxEntries, int prefixSize) {
+        this.tika = tika;
+        this.prefixSize = prefixSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, CachedMediaType> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public String detect(Path path) throws IOException {
+        return detect(path, Files.readAttributes(path, BasicFileAttributes.class));
+    }
+
+    public String detect(Path path, BasicFileAttributes attributes) throws IOException {
+        return detect(path, attributes, path.getFileName().toString());
+    }
+
+    /**
+     * 호출하는 쪽에서 이미 읽은 파일 속성을 넘겨주면 stat을 다시 하지 않는다.
+     * 저장소의 파일처럼 경로에 확장자가 없는 경우 원래 파일명을 힌트로 넘긴다.
+     */
+    public String detect(Path path, BasicFileAttributes attributes, String filename) throws IOException {
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        CachedMediaType cached;
+        synchronized (cache) {
+            cached = cache.get(path);
+        }
+        if (cached != null) {
+            if (cached.size == size && cached.lastModified == lastModified) {
+                hits.increment();
+                return cached.mediaType;
+            }
+            invalidations.increment();
+        }
+        misses.increment();
+
+        String mediaType = detectFromPrefix(path, filename);
+        synchronized (cache) {
+            cache.put(path, new CachedMediaType(size, lastModified, mediaType));
+        }
+        return mediaType;
+    }
+
+    /**
+     * 파일이 삭제되거나 교체된 경우 호출하는 쪽에서 명시적으로 제거할 수 있다.
+     */
+    public void invalidate(Path path) {
+        synchronized (cache) {
+            if (cache.remove(path) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private String detectFromPrefix(Path path, String filename) throws IOException {
+        byte[] buffer = bufferPool.poll();
+        if (buffer == null) {
+            buffer = new byte[prefixSize];
+        }
+        try {
+            int read;
+            try (InputStream in = Files.newInputStream(path)) {
+                read = in.readNBytes(buffer, 0, buffer.length);
+            }
+            // 파일명(확장자) 힌트와 앞부분 magic byte로 판별, ByteArrayInputStream은 mark를 지원한다.
+            return tika.detect(new ByteArrayInputStream(buffer, 0, read), filename);
+        } finally {
+            bufferPool.offer(buffer);
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "MediaTypeDetector{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + ", invalidations=" + getInvalidationCount() + "}";
+    }
+
+    private static class CachedMediaType {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String mediaType;
+
+        private CachedMediaType(long size, long lastModified, String mediaType) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.mediaType = mediaType;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.tika.Tika;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * - WebFlux 업로드를 저장소(FileStore)로 저장 (FileUploadPipeline의 reactive 버전)
+ *  ● 요청 본문을 Flux<DataBuffer>로 받는 대로 스테이징 파일에 쓴다. (AsynchronousFileChannel, 요청 전체를 모으지 않음)
+ *      ○ 받은 DataBuffer로 SHA-256을 계산하고, 첫 번째 DataBuffer로 CONTENT_TYPE을 판별한다. (Tika)
+ *      ○ 쓰기가 끝날 때까지 다음 DataBuffer를 요청하지 않으므로 디스크가 느리면 클라이언트도 기다린다. (back-pressure)
+ *  ● 스테이징 파일을 만들고 commit(rename) 하는 블로킹 호출만 boundedElastic에서 실행한다.
+ *  ● 파일명 검사와 최대 크기는 FileUploadPipeline과 같다.
+ */
+public class ReactiveFileUpload {
+
+    private static final int SEED_BUFFER_SIZE = 64 * 1024;
+
+    private final FileStore fileStore;
+
+    private final Tika tika;
+
+    private final long maxFileSize;
+
+    public ReactiveFileUpload(FileStore fileStore, Tika tika, long maxFileSize) {
+        this.fileStore = fileStore;
+        this.tika = tika;
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * 저장소에 없는 경우에만 리소스를 저장한다. (샘플 파일 등록용)
+     */
+    public Mono<StoredFile> importIfAbsent(Resource resource) {
+        if (fileStore.find(resource.getFilename()).isPresent()) {
+            return Mono.empty();
+        }
+        return store(resource.getFilename(), DataBufferUtils.read(resource, DefaultDataBufferFactory.sharedInstance, SEED_BUFFER_SIZE));
+    }
+
+    public Mono<StoredFile> store(String originalFilename, Flux<DataBuffer> content) {
+        String filename;
+        try {
+            filename = FileUploadPipeline.filename(originalFilename);
+        } catch (MultipartException ex) {
+            return Mono.error(ex);
+        }
+        return Mono.usingWhen(
+                Mono.fromCallable(fileStore::newStagingFile).subscribeOn(Schedulers.boundedElastic()),
+                staging -> write(filename, staging, content),
+                staging -> Mono.fromCallable(() -> Files.deleteIfExists(staging)).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private Mono<StoredFile> write(String filename, Path staging, Flux<DataBuffer> content) {
+        MessageDigest digest = Digests.sha256();
+        String[] mediaType = new String[1];
+        long[] size = new long[1];
+        Flux<DataBuffer> checked = content.handle((buffer, sink) -> {
+            size[0] += buffer.readableByteCount();
+            if (size[0] > maxFileSize) {
+                DataBufferUtils.release(buffer);
+                sink.error(new MaxUploadSizeExceededException(maxFileSize));
+                return;
+            }
+            ByteBuffer bytes = buffer.asByteBuffer();
+            if (mediaType[0] == null) {
+                byte[] prefix = new byte[bytes.remaining()];
+                bytes.duplicate().get(prefix);
+                mediaType[0] = tika.detect(prefix, filename);
+            }
+            digest.update(bytes);
+            sink.next(buffer);
+        });
+        return DataBufferUtils.write(checked, staging, StandardOpenOption.WRITE)
+                .then(Mono.fromCallable(() -> fileStore.commit(filename, staging, Digests.hex(digest.digest()),
+                        mediaType[0] != null ? mediaType[0] : tika.detect(filename)))
+                        .subscribeOn(Schedulers.boundedElastic()));
+    }
+}
@@ -0,0 +1,25 @@
+package com.jonghak.springbootweb.file;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+@Data
+public class StoredFile {
+
+    private final String filename;
+
+    private final String sha256;
+
+    private final long size;
+
+    /**
+     * 저장할 때 판별한 CONTENT_TYPE, 판별하지 않고 저장된 경우 null
+     */
+    private final String mediaType;
+
+    @JsonIgnore
+    private final Path path;
+
+}
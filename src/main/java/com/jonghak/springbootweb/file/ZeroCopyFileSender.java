@@ -0,0 +1,241 @@
+package com.jonghak.springbootweb.file;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * - 디스크의 파일을 응답으로 내려보내는 다운로드 처리기
+ *  ● zero-copy는 Tomcat NIO 커넥터의 sendfile을 쓰는 경우뿐이다.
+ *      ○ 요청 속성(org.apache.tomcat.sendfile.*)만 설정하면 서블릿이 끝난 뒤 커넥터가 sendfile(2)로 전송한다. (힙을 거치지 않음)
+ *  ● sendfile을 쓸 수 없는 경우(48KB 미만, multipart/byteranges, 비동기 처리 중, MockMvc 등)는 FileChannel.transferTo로 서블릿 OutputStream에 쓴다.
+ *      ○ 대상이 소켓이 아니라 OutputStream이라서 zero-copy가 아니다. JDK가 임시 버퍼로 읽어서 OutputStream(커넥터의 버퍼)에 복사한다.
+ *  ● sendfile은 send()가 리턴한 뒤에 커넥터가 파일을 연다.
+ *      ○ 보내는 동안만 지워지지 않게 붙잡아 두는 파일(CompressedVariants의 캐시 등)은 sendfile=false로 보내서 send() 안에서 전송을 끝낸다.
+ *
+ * - 조건부 요청 (Conditional GET)
+ *  ● ETag / Last-Modified 헤더를 내려주고 If-None-Match, If-Modified-Since가 일치하면 304를 응답한다.
+ *  ● ServletWebRequest.checkNotModified()가 If-Match, If-Unmodified-Since(412)까지 처리해준다.
+ *
+ * - 부분 요청 (Range / If-Range)
+ *  ● 범위가 하나면 206 + Content-Range, 여러 개면 206 + multipart/byteranges 로 응답한다.
+ *  ● If-Range의 ETag(강한 비교) 또는 날짜가 현재 파일과 다르면 Range를 무시하고 전체(200)를 내려준다.
+ *  ● 만족할 수 없는 범위는 416 + "Content-Range: bytes * /{length}"
+ *
+ * - 참고
+ *  ● https://www.rfc-editor.org/rfc/rfc7233
+ *  ● https://tomcat.apache.org/tomcat-9.0-doc/config/http.html (useSendfile)
+ */
+public class ZeroCopyFileSender {
+
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Tomcat DefaultServlet의 sendfileSize 기본값(48KB)과 동일, 이보다 작으면 sendfile 준비 비용이 더 크다.
+     */
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 파일 크기와 수정시간으로 만든 강한(strong) ETag
+     */
+    public static String etagOf(BasicFileAttributes attributes) {
+        return "\"" + Long.toHexString(attributes.size()) + "-"
+                + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+    }
+
+    public void send(Path path, String mediaType, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        send(path, attributes, etagOf(attributes), mediaType, request, response);
+    }
+
+    public void send(Path path, BasicFileAttributes attributes, String etag, String mediaType,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        send(path, attributes, etag, mediaType, true, request, response);
+    }
+
+    /**
+     * @param sendfile false면 sendfile을 쓰지 않고 리턴하기 전에 본문을 모두 쓴다.
+     */
+    public void send(Path path, BasicFileAttributes attributes, String etag, String mediaType, boolean sendfile,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        // 304(또는 412)인 경우 본문 없이 종료, 200인 경우 ETag, Last-Modified 헤더가 설정된다.
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !isIfRangeSatisfied(request, etag, lastModified)) {
+            response.setContentType(mediaType);
+            response.setContentLengthLong(length);
+            transfer(path, 0, length, sendfile, request, response);
+            return;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException ex) {
+            sendRangeNotSatisfiable(length, response);
+            return;
+        }
+        for (HttpRange range : ranges) {
+            if (!isSatisfiable(range, length)) {
+                sendRangeNotSatisfiable(length, response);
+                return;
+            }
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(length);
+            long end = ranges.get(0).getRangeEnd(length);
+            response.setContentType(mediaType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length));
+            response.setContentLengthLong(end - start + 1);
+            transfer(path, start, end - start + 1, sendfile, request, response);
+        } else {
+            sendMultipartRanges(path, ranges, length, mediaType, request, response);
+        }
+    }
+
+    /**
+     * - If-Range
+     *  ● ETag인 경우 강한 비교만 허용한다. (W/ 로 시작하는 약한 ETag는 불일치)
+     *  ● 날짜인 경우 Last-Modified와 초 단위로 정확히 같아야 한다.
+     */
+    private boolean isIfRangeSatisfied(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private boolean isSatisfiable(HttpRange range, long length) {
+        if (length == 0) {
+            return false;
+        }
+        try {
+            return range.getRangeStart(length) < length
+                    && range.getRangeStart(length) <= range.getRangeEnd(length);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private void sendRangeNotSatisfiable(long length, HttpServletResponse response) {
+        response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        response.setContentLength(0);
+    }
+
+    private void sendMultipartRanges(Path path, List<HttpRange> ranges, long length, String mediaType,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        byte[][] partHeaders = new byte[ranges.size()][];
+        byte[] closeDelimiter = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        // Content-Length를 미리 계산해서 chunked 인코딩이 되지 않도록 한다.
+        long contentLength = closeDelimiter.length;
+        for (int i = 0; i < ranges.size(); i++) {
+            long start = ranges.get(i).getRangeStart(length);
+            long end = ranges.get(i).getRangeEnd(length);
+            partHeaders[i] = ((i == 0 ? "" : "\r\n") + "--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + mediaType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(start, end, length) + "\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + CRLF.length + (end - start + 1);
+        }
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (isHead(request)) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < ranges.size(); i++) {
+                long start = ranges.get(i).getRangeStart(length);
+                long end = ranges.get(i).getRangeEnd(length);
+                out.write(partHeaders[i]);
+                out.write(CRLF);
+                transferTo(channel, start, end - start + 1, target);
+            }
+        }
+        out.write(closeDelimiter);
+        out.flush();
+    }
+
+    private void transfer(Path path, long position, long count, boolean sendfile,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (isHead(request) || count == 0) {
+            return;
+        }
+        // 비동기 처리 중(app.mvc.execution.mode=async)에는 서블릿이 끝나는 시점이 아니므로 sendfile을 쓰지 않는다.
+        if (sendfile && count >= SENDFILE_THRESHOLD && !request.isAsyncStarted() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            // 응답 본문은 쓰지 않고 속성만 설정하면 서블릿이 끝난 뒤 커넥터가 sendfile(2)로 전송한다.
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+            return;
+        }
+        // 버퍼 복사 (zero-copy 아님)
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            transferTo(channel, position, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void transferTo(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                throw new IOException("file truncated while sending : " + remaining + " bytes remain");
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    private String contentRange(long start, long end, long length) {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+
+    private boolean isHead(HttpServletRequest request) {
+        return "HEAD".equals(request.getMethod());
+    }
+}
@@ -0,0 +1,136 @@
+package com.jonghak.springbootweb.json;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * - @JsonView 별로 미리 만들어 둔 ObjectWriter 캐시
+ *  ● objectMapper.writerWithView(view)는 직렬화할 때마다 프로퍼티의 뷰를 검사한다. (BeanSerializer의 filtered properties)
+ *  ● 뷰마다 ObjectMapper를 복사하고 BeanSerializerModifier로 뷰에 포함되지 않는 프로퍼티를 serializer를 만들 때 빼버린다.
+ *      ○ 만들어진 serializer에는 뷰에 포함된 프로퍼티만 남기 때문에 직렬화할 때는 뷰를 검사하지 않는다.
+ *      ○ 중첩된 객체(Book -> Author)도 같은 ObjectMapper로 직렬화되므로 같은 뷰가 적용된다.
+ *  ● (타입, 뷰) 별 ObjectWriter는 처음 사용할 때 만들어서 캐시한다. (root serializer를 미리 찾아둠)
+ *      ○ 하나의 JsonGenerator에 여러 값을 이어서 쓸 수 있도록 값마다 flush 하지 않는다. (FLUSH_AFTER_WRITE_VALUE)
+ *
+ * - 뷰 포함 규칙은 Jackson과 같다.
+ *  ● @JsonView가 있는 프로퍼티 : 선언된 뷰가 요청한 뷰의 상위 타입(또는 같은 타입)이면 포함
+ *  ● @JsonView가 없는 프로퍼티 : MapperFeature.DEFAULT_VIEW_INCLUSION (spring.jackson.mapper.default-view-inclusion)
+ */
+public class JsonViewWriters {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Class<?>, ObjectMapper> viewMappers = new ConcurrentHashMap<>();
+
+    private final Map<WriterKey, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonViewWriters(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ObjectWriter writerFor(Type type, Class<?> view) {
+        return writerFor(objectMapper.constructType(type), view);
+    }
+
+    public ObjectWriter writerFor(JavaType type, Class<?> view) {
+        return writers.computeIfAbsent(new WriterKey(type, view), key -> viewMapper(view).writerFor(type)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+    }
+
+    /**
+     * 시작할 때 미리 만들어 두고 싶은 경우 (첫 요청에서 serializer를 만드는 비용을 없앰)
+     */
+    public void prepare(Type type, Class<?>... views) {
+        for (Class<?> view : views) {
+            writerFor(type, view);
+        }
+    }
+
+    public int size() {
+        return writers.size();
+    }
+
+    private ObjectMapper viewMapper(Class<?> view) {
+        return viewMappers.computeIfAbsent(view, key -> {
+            ObjectMapper viewMapper = objectMapper.copy();
+            viewMapper.setSerializerFactory(viewMapper.getSerializerFactory()
+                    .withSerializerModifier(new ViewPropertyFilter(view)));
+            return viewMapper;
+        });
+    }
+
+    private static class ViewPropertyFilter extends BeanSerializerModifier {
+
+        private final Class<?> view;
+
+        private ViewPropertyFilter(Class<?> view) {
+            this.view = view;
+        }
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                         List<BeanPropertyWriter> beanProperties) {
+            boolean defaultInclusion = config.isEnabled(MapperFeature.DEFAULT_VIEW_INCLUSION);
+            List<BeanPropertyWriter> included = new ArrayList<>(beanProperties.size());
+            for (BeanPropertyWriter property : beanProperties) {
+                Class<?>[] views = property.getViews();
+                if (views == null ? defaultInclusion : isIncluded(views)) {
+                    included.add(property);
+                }
+            }
+            return included;
+        }
+
+        private boolean isIncluded(Class<?>[] views) {
+            for (Class<?> propertyView : views) {
+                if (propertyView.isAssignableFrom(view)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class WriterKey {
+
+        private final JavaType type;
+
+        private final Class<?> view;
+
+        private WriterKey(JavaType type, Class<?> view) {
+            this.type = type;
+            this.view = view;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof WriterKey)) {
+                return false;
+            }
+            WriterKey other = (WriterKey) o;
+            return type.equals(other.type) && view.equals(other.view);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, view);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.annotation.MatrixVariable;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.MatrixVariableMethodArgumentResolver;
+import org.springframework.web.util.ServletRequestPathUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * - @MatrixVariable 단일 값 resolver (MatrixVariableMethodArgumentResolver 대신 사용)
+ *  ● 요청 경로를 MatrixVariables로 한 번에 읽고, 같은 경로의 결과는 LRU 캐시에서 꺼낸다.
+ *      ○ ';'가 없는 경로는 읽지 않고 캐시에도 넣지 않음
+ *  ● 어떤 segment를 볼지는 매칭된 패턴으로 정한다. (패턴별로 변수 segment 번호를 기억함)
+ *      ○ pathVar를 지정하지 않으면 변수가 있는 모든 segment에서 찾고, 두 군데 이상 있으면 에러 (기본 구현과 같음)
+ *  ● pathVar를 지정했거나, 패턴에 {*path}가 있거나, PathPatternParser로 매칭하지 않은 요청은 기본 구현으로 처리한다.
+ *  ● 타입 변환, required/defaultValue, 값이 없을 때의 에러는 기본 구현 그대로 사용한다.
+ *
+ * - RequestMappingHandlerAdapter의 argument resolver 목록에서 기본 구현과 바꿔 끼운다. (replaceDefault)
+ */
+public class CachingMatrixVariableMethodArgumentResolver extends MatrixVariableMethodArgumentResolver {
+
+    private static final int[] FALLBACK = new int[0];
+
+    private final Map<String, MatrixVariables> cache;
+
+    private final Map<String, int[]> variableSegments = new ConcurrentHashMap<>();
+
+    public CachingMatrixVariableMethodArgumentResolver(int cacheSize) {
+        this.cache = new LinkedHashMap<String, MatrixVariables>(cacheSize * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MatrixVariables> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * argument resolver 목록의 MatrixVariableMethodArgumentResolver를 이 resolver로 바꾼 목록을 돌려준다.
+     */
+    public static List<HandlerMethodArgumentResolver> replaceDefault(List<HandlerMethodArgumentResolver> resolvers, int cacheSize) {
+        List<HandlerMethodArgumentResolver> replaced = new ArrayList<>(resolvers);
+        replaced.replaceAll(resolver -> resolver.getClass() == MatrixVariableMethodArgumentResolver.class
+                ? new CachingMatrixVariableMethodArgumentResolver(cacheSize) : resolver);
+        return replaced;
+    }
+
+    @Override
+    protected Object resolveName(String name, MethodParameter parameter, NativeWebRequest request) throws Exception {
+        HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        MatrixVariable annotation = parameter.getParameterAnnotation(MatrixVariable.class);
+        // UrlPathHelper로 lookup path를 구한 요청은 PathPatternParser로 매칭한 요청이 아니다.
+        if (servletRequest == null || pattern == null || annotation == null
+                || !ValueConstants.DEFAULT_NONE.equals(annotation.pathVar())
+                || !ServletRequestPathUtils.hasParsedRequestPath(servletRequest)
+                || servletRequest.getAttribute(UrlPathHelper.PATH_ATTRIBUTE) != null) {
+            return super.resolveName(name, parameter, request);
+        }
+        int[] segments = variableSegments.computeIfAbsent(pattern.toString(), CachingMatrixVariableMethodArgumentResolver::variableSegments);
+        if (segments == FALLBACK) {
+            return super.resolveName(name, parameter, request);
+        }
+
+        MatrixVariables matrixVariables = matrixVariables(ServletRequestPathUtils.getParsedRequestPath(servletRequest).pathWithinApplication().value());
+        if (matrixVariables.isEmpty()) {
+            return null;
+        }
+        List<String> values = null;
+        for (int segment : segments) {
+            MultiValueMap<String, String> parameters = matrixVariables.segment(segment);
+            if (parameters != null && parameters.containsKey(name)) {
+                if (values != null) {
+                    throw new ServletRequestBindingException("Found more than one match for URI path parameter '" + name
+                            + "' for parameter type [" + parameter.getNestedParameterType().getName() + "]. Use 'pathVar' attribute to disambiguate.");
+                }
+                values = parameters.get(name);
+            }
+        }
+        if (values == null) {
+            return null;
+        }
+        // 캐시에 있는 목록을 핸들러가 바꾸지 않도록 복사해서 넘긴다.
+        return values.size() == 1 ? values.get(0) : new ArrayList<>(values);
+    }
+
+    private MatrixVariables matrixVariables(String path) {
+        if (path.indexOf(';') < 0) {
+            return MatrixVariables.EMPTY;
+        }
+        MatrixVariables matrixVariables;
+        synchronized (cache) {
+            matrixVariables = cache.get(path);
+        }
+        if (matrixVariables == null) {
+            matrixVariables = MatrixVariables.parse(path);
+            synchronized (cache) {
+                cache.put(path, matrixVariables);
+            }
+        }
+        return matrixVariables;
+    }
+
+    /**
+     * 패턴에서 변수가 있는 segment 번호 ({*path}가 있으면 FALLBACK)
+     */
+    private static int[] variableSegments(String pattern) {
+        if (pattern.contains("{*")) {
+            return FALLBACK;
+        }
+        List<Integer> segments = new ArrayList<>();
+        int segment = 0;
+        int depth = 0;
+        boolean variable = false;
+        for (int i = 0; i <= pattern.length(); i++) {
+            char c = i < pattern.length() ? pattern.charAt(i) : '/';
+            if (c == '{') {
+                variable |= depth == 0;
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == '/' && depth == 0) {
+                if (variable) {
+                    segments.add(segment);
+                }
+                segment++;
+                variable = false;
+            }
+        }
+        return segments.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,149 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * - 매핑 후보를 RequestMappingIndex(trie)로 찾는 RequestMappingHandlerMapping
+ *  ● 기본 구현은 요청 경로와 똑같은 literal 매핑이 없으면 등록된 모든 매핑의 조건을 하나씩 검사한다.
+ *      ○ /hello/{name:[a-z]+}, /events/{id} 처럼 변수가 있는 경로는 매번 전체를 검사함
+ *  ● 이 구현은 trie에서 경로가 맞을 수 있는 후보만 모아서 그 후보의 조건만 검사한다.
+ *      ○ 후보를 고른 다음의 처리(조건 검사, 가장 구체적인 매핑 선택, 모호한 매핑 에러, 405/415/406 판단)는 기본 구현과 같다.
+ *  ● 인덱스는 첫 요청에서 만들고, 매핑이 추가/삭제되면 다시 만든다.
+ *  ● CORS preflight 요청은 기본 구현으로 처리한다.
+ *
+ * - WebMvcRegistrations로 등록한다. (app.mvc.compiled-mapping.enabled)
+ */
+public class CompiledRequestMappingHandlerMapping extends RequestMappingHandlerMapping {
+
+    private volatile Index index;
+
+    @Override
+    public void registerMapping(RequestMappingInfo mapping, Object handler, Method method) {
+        super.registerMapping(mapping, handler, method);
+        index = null;
+    }
+
+    @Override
+    protected void registerHandlerMethod(Object handler, Method method, RequestMappingInfo mapping) {
+        super.registerHandlerMethod(handler, method, mapping);
+        index = null;
+    }
+
+    @Override
+    public void unregisterMapping(RequestMappingInfo mapping) {
+        super.unregisterMapping(mapping);
+        index = null;
+    }
+
+    @Override
+    protected HandlerMethod lookupHandlerMethod(String lookupPath, HttpServletRequest request) throws Exception {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return super.lookupHandlerMethod(lookupPath, request);
+        }
+        Index current = index();
+
+        List<Match> matches = new ArrayList<>();
+        List<RequestMappingInfo> direct = current.directPaths.get(lookupPath);
+        if (direct != null) {
+            addMatchingMappings(direct, current, matches, request);
+        }
+        if (matches.isEmpty()) {
+            addMatchingMappings(current.trie.candidates(request.getMethod(), lookupPath), current, matches, request);
+        }
+        if (matches.isEmpty()) {
+            return handleNoMatch(current.trie.pathCandidates(lookupPath), lookupPath, request);
+        }
+
+        Match bestMatch = matches.get(0);
+        if (matches.size() > 1) {
+            Comparator<RequestMappingInfo> comparator = getMappingComparator(request);
+            matches.sort((match1, match2) -> comparator.compare(match1.mapping, match2.mapping));
+            bestMatch = matches.get(0);
+            Match secondBestMatch = matches.get(1);
+            if (comparator.compare(bestMatch.mapping, secondBestMatch.mapping) == 0) {
+                throw new IllegalStateException("Ambiguous handler methods mapped for '" + request.getRequestURI() + "': {"
+                        + bestMatch.handlerMethod.getMethod() + ", " + secondBestMatch.handlerMethod.getMethod() + "}");
+            }
+        }
+        request.setAttribute(BEST_MATCHING_HANDLER_ATTRIBUTE, bestMatch.handlerMethod);
+        handleMatch(bestMatch.mapping, lookupPath, request);
+        return bestMatch.handlerMethod;
+    }
+
+    private void addMatchingMappings(Iterable<RequestMappingInfo> mappings, Index current, List<Match> matches,
+                                     HttpServletRequest request) {
+        for (RequestMappingInfo mapping : mappings) {
+            RequestMappingInfo match = getMatchingMapping(mapping, request);
+            if (match != null) {
+                matches.add(new Match(match, current.handlerMethods.get(mapping)));
+            }
+        }
+    }
+
+    /**
+     * 첫 요청을 기다리지 않고 인덱스를 미리 만든다. (시작할 때 warm-up에서 호출)
+     */
+    public void prepareIndex() {
+        index();
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new Index(getHandlerMethods());
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private final class Index {
+
+        private final Map<RequestMappingInfo, HandlerMethod> handlerMethods;
+
+        /**
+         * 변수, 와일드카드가 없는 경로 -> 매핑 (기본 구현의 direct path와 같음)
+         */
+        private final Map<String, List<RequestMappingInfo>> directPaths = new HashMap<>();
+
+        private final RequestMappingIndex trie;
+
+        private Index(Map<RequestMappingInfo, HandlerMethod> handlerMethods) {
+            this.handlerMethods = handlerMethods;
+            for (RequestMappingInfo info : handlerMethods.keySet()) {
+                for (String path : getDirectPaths(info)) {
+                    directPaths.computeIfAbsent(path, key -> new ArrayList<>()).add(info);
+                }
+            }
+            this.trie = new RequestMappingIndex(handlerMethods.keySet());
+        }
+    }
+
+    private static final class Match {
+
+        private final RequestMappingInfo mapping;
+
+        private final HandlerMethod handlerMethod;
+
+        private Match(RequestMappingInfo mapping, HandlerMethod handlerMethod) {
+            this.mapping = mapping;
+            this.handlerMethod = handlerMethod;
+        }
+    }
+}
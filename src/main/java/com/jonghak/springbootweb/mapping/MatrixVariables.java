@@ -0,0 +1,121 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * - 요청 경로의 segment별 matrix 변수 (;key=value,value;key=value)
+ *  ● 경로를 한 번 훑으면서 ';', '=', ',', '/' 위치만 보고 key와 value 문자열만 만든다.
+ *      ○ segment, "key=value" 같은 중간 문자열을 만들지 않음
+ *      ○ '%'가 있는 key/value만 디코딩 (UTF-8)
+ *  ● segment 번호는 "/"로 나눈 순서 (맨 앞 "/" 앞의 빈 segment가 0번)
+ *  ● matrix 변수가 없는 segment는 null
+ */
+final class MatrixVariables {
+
+    static final MatrixVariables EMPTY = new MatrixVariables(new ArrayList<>());
+
+    private final List<MultiValueMap<String, String>> segments;
+
+    private MatrixVariables(List<MultiValueMap<String, String>> segments) {
+        this.segments = segments;
+    }
+
+    MultiValueMap<String, String> segment(int index) {
+        return index < segments.size() ? segments.get(index) : null;
+    }
+
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    static MatrixVariables parse(String path) {
+        if (path.indexOf(';') < 0) {
+            return EMPTY;
+        }
+        List<MultiValueMap<String, String>> segments = new ArrayList<>();
+        int length = path.length();
+        int index = 0;
+        int segment = 0;
+        while (index < length) {
+            char c = path.charAt(index);
+            if (c == '/') {
+                segment++;
+                index++;
+            } else if (c == ';') {
+                index = parseParameter(path, index + 1, segment, segments);
+            } else {
+                index++;
+            }
+        }
+        return new MatrixVariables(segments);
+    }
+
+    /**
+     * ;key=value,value 하나를 읽고 다음 ';' 또는 '/' 위치를 돌려준다.
+     */
+    private static int parseParameter(String path, int start, int segment, List<MultiValueMap<String, String>> segments) {
+        int length = path.length();
+        int index = start;
+        int equals = -1;
+        while (index < length) {
+            char c = path.charAt(index);
+            if (c == ';' || c == '/') {
+                break;
+            }
+            if (c == '=' && equals < 0) {
+                equals = index;
+            }
+            index++;
+        }
+        int end = index;
+        int keyEnd = equals < 0 ? end : equals;
+        if (keyEnd == start) {
+            return end;
+        }
+        String key = decode(path, start, keyEnd);
+        if (equals < 0) {
+            parameters(segments, segment).add(key, "");
+            return end;
+        }
+        // "key=" 는 값이 없는 것으로, "a,,b" 는 빈 값을 포함한 세 개로 읽는다. (스프링 PathContainer와 같음)
+        int valueStart = equals + 1;
+        if (valueStart == end) {
+            return end;
+        }
+        MultiValueMap<String, String> parameters = parameters(segments, segment);
+        for (int i = valueStart; i <= end; i++) {
+            if (i == end || path.charAt(i) == ',') {
+                parameters.add(key, decode(path, valueStart, i));
+                valueStart = i + 1;
+            }
+        }
+        return end;
+    }
+
+    private static MultiValueMap<String, String> parameters(List<MultiValueMap<String, String>> segments, int segment) {
+        while (segments.size() <= segment) {
+            segments.add(null);
+        }
+        MultiValueMap<String, String> parameters = segments.get(segment);
+        if (parameters == null) {
+            parameters = new LinkedMultiValueMap<>(4);
+            segments.set(segment, parameters);
+        }
+        return parameters;
+    }
+
+    private static String decode(String path, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (path.charAt(i) == '%') {
+                return StringUtils.uriDecode(path.substring(start, end), StandardCharsets.UTF_8);
+            }
+        }
+        return path.substring(start, end);
+    }
+}
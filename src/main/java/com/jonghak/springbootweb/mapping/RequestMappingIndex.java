@@ -0,0 +1,257 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * - RequestMappingInfo의 URL 패턴을 HTTP 메소드별 trie로 만든 인덱스
+ *  ● 요청 경로를 segment 단위로 따라가며 경로가 맞을 수 있는 매핑(후보)만 모은다. (경로 길이에 비례, 매핑 수와 무관)
+ *  ● 후보는 항상 실제로 맞는 매핑을 모두 포함한다. (더 많이 포함할 수는 있음)
+ *      ○ 최종 판단(메소드, params, headers, consumes, produces, 정확한 패턴)은 스프링의 RequestMappingInfo.getMatchingCondition이 한다.
+ *
+ * - 패턴 segment 종류
+ *  ● literal : books
+ *  ● 변수 : {id}, 정규식 변수 {name:[a-z]+} (정규식은 한 번 컴파일해서 노드에 둔다)
+ *  ● 한 segment 아무거나 : *, ?, {a}.{b} 처럼 일부만 변수인 경우
+ *  ● 나머지 전부 : **, {*path} (0개 이상의 segment, 중간에 있는 ** 도 그 뒤는 모두 맞는 것으로 본다)
+ *
+ * - 요청 경로는 빈 segment(연속된 /, 끝의 /)를 무시하고 matrix variable(;name=value)을 뗀 값으로 비교한다.
+ *  ● % 인코딩된 경로는 그대로의 segment와 디코딩한 segment(PathContainer와 같음) 양쪽으로 후보를 모은다.
+ *      ○ PathPatternParser는 lookupPath를 인코딩된 채로 받아 segment를 디코딩해서 비교하고,
+ *        AntPathMatcher는 이미 디코딩된 lookupPath를 받기 때문에 어느 쪽인지 알 수 없음
+ */
+final class RequestMappingIndex {
+
+    /**
+     * 메소드 조건이 없는 매핑
+     */
+    private final Node anyMethod = new Node();
+
+    private final Map<RequestMethod, Node> byMethod = new EnumMap<>(RequestMethod.class);
+
+    private final Map<String, Pattern> regexCache = new HashMap<>();
+
+    RequestMappingIndex(Collection<RequestMappingInfo> infos) {
+        for (RequestMappingInfo info : infos) {
+            Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+            if (methods.isEmpty()) {
+                add(anyMethod, info);
+            } else {
+                for (RequestMethod method : methods) {
+                    add(byMethod.computeIfAbsent(method, key -> new Node()), info);
+                }
+            }
+        }
+    }
+
+    /**
+     * 요청 메소드로 맞을 수 있는 매핑
+     *  ● HEAD는 GET 매핑도, OPTIONS는 모든 매핑을 본다. (스프링의 RequestMethodsRequestCondition과 같음)
+     */
+    Set<RequestMappingInfo> candidates(String method, String lookupPath) {
+        Set<RequestMappingInfo> candidates = new LinkedHashSet<>();
+        RequestMethod requestMethod = resolve(method);
+        for (List<String> segments : segments(lookupPath)) {
+            anyMethod.collect(segments, 0, candidates);
+            if (requestMethod == RequestMethod.OPTIONS) {
+                byMethod.values().forEach(node -> node.collect(segments, 0, candidates));
+                continue;
+            }
+            if (requestMethod != null && byMethod.containsKey(requestMethod)) {
+                byMethod.get(requestMethod).collect(segments, 0, candidates);
+            }
+            if (requestMethod == RequestMethod.HEAD && byMethod.containsKey(RequestMethod.GET)) {
+                byMethod.get(RequestMethod.GET).collect(segments, 0, candidates);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 메소드와 관계없이 경로가 맞을 수 있는 매핑 (매칭 실패시 405, 415 등을 판단할 때 사용)
+     */
+    Set<RequestMappingInfo> pathCandidates(String lookupPath) {
+        Set<RequestMappingInfo> candidates = new LinkedHashSet<>();
+        for (List<String> segments : segments(lookupPath)) {
+            anyMethod.collect(segments, 0, candidates);
+            byMethod.values().forEach(node -> node.collect(segments, 0, candidates));
+        }
+        return candidates;
+    }
+
+    private void add(Node root, RequestMappingInfo info) {
+        Set<String> patterns = info.getPatternValues();
+        if (patterns.isEmpty()) {
+            root.infos.add(info);
+            return;
+        }
+        for (String pattern : patterns) {
+            Node node = root;
+            for (String segment : pattern.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (segment.equals("**") || segment.startsWith("{*")) {
+                    node.rest.add(info);
+                    node = null;
+                    break;
+                }
+                node = node.child(segment, this);
+            }
+            if (node != null) {
+                node.infos.add(info);
+            }
+        }
+    }
+
+    private Pattern compile(String regex) {
+        return regexCache.computeIfAbsent(regex, Pattern::compile);
+    }
+
+    private static RequestMethod resolve(String method) {
+        try {
+            return RequestMethod.valueOf(method);
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 요청 경로의 segment, % 인코딩이 있으면 디코딩한 segment도
+     */
+    private static List<List<String>> segments(String lookupPath) {
+        List<String> segments = rawSegments(lookupPath);
+        if (lookupPath.indexOf('%') < 0) {
+            return List.of(segments);
+        }
+        List<String> decoded = new ArrayList<>(segments.size());
+        for (String segment : segments) {
+            try {
+                decoded.add(StringUtils.uriDecode(segment, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException ex) {
+                // 잘못된 인코딩은 PathContainer도 디코딩하지 못한다.
+                return List.of(segments);
+            }
+        }
+        return List.of(segments, decoded);
+    }
+
+    private static List<String> rawSegments(String lookupPath) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int length = lookupPath.length();
+        while (start <= length) {
+            int end = lookupPath.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                int semicolon = lookupPath.indexOf(';', start);
+                segments.add(lookupPath.substring(start, semicolon >= 0 && semicolon < end ? semicolon : end));
+            }
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+
+        private final List<Variable> variables = new ArrayList<>();
+
+        /**
+         * 한 segment 아무거나
+         */
+        private Node wildcard;
+
+        /**
+         * 여기서 끝나는 매핑
+         */
+        private final List<RequestMappingInfo> infos = new ArrayList<>();
+
+        /**
+         * 여기부터 나머지 전부 맞는 매핑 (**)
+         */
+        private final List<RequestMappingInfo> rest = new ArrayList<>();
+
+        private Node child(String segment, RequestMappingIndex index) {
+            if (segment.startsWith("{") && segment.endsWith("}") && segment.indexOf('{', 1) < 0) {
+                int colon = segment.indexOf(':');
+                Pattern regex = null;
+                if (colon > 0) {
+                    try {
+                        regex = index.compile(segment.substring(colon + 1, segment.length() - 1));
+                    } catch (PatternSyntaxException ex) {
+                        return wildcard();
+                    }
+                }
+                for (Variable variable : variables) {
+                    if (variable.regex == regex) {
+                        return variable.node;
+                    }
+                }
+                Variable variable = new Variable(regex, new Node());
+                variables.add(variable);
+                return variable.node;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+                return wildcard();
+            }
+            return literals.computeIfAbsent(segment, key -> new Node());
+        }
+
+        private Node wildcard() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+
+        private void collect(List<String> segments, int position, Set<RequestMappingInfo> candidates) {
+            candidates.addAll(rest);
+            if (position == segments.size()) {
+                candidates.addAll(infos);
+                return;
+            }
+            String segment = segments.get(position);
+            Node literal = literals.get(segment);
+            if (literal != null) {
+                literal.collect(segments, position + 1, candidates);
+            }
+            for (Variable variable : variables) {
+                if (variable.regex == null || variable.regex.matcher(segment).matches()) {
+                    variable.node.collect(segments, position + 1, candidates);
+                }
+            }
+            if (wildcard != null) {
+                wildcard.collect(segments, position + 1, candidates);
+            }
+        }
+    }
+
+    private static final class Variable {
+
+        private final Pattern regex;
+
+        private final Node node;
+
+        private Variable(Pattern regex, Node node) {
+            this.regex = regex;
+            this.node = node;
+        }
+    }
+}
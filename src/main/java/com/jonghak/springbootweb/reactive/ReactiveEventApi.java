@@ -0,0 +1,130 @@
+package com.jonghak.springbootweb.reactive;
+
+import com.jonghak.springbootweb.Event;
+import com.jonghak.springbootweb.EventBatchProcessor;
+import com.jonghak.springbootweb.EventQuery;
+import com.jonghak.springbootweb.EventRepository;
+import com.jonghak.springbootweb.EventValidatorImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * - EventApi의 WebFlux 버전 (같은 URL, 같은 요청/응답 형식)
+ *  ● 핸들러는 Mono를 리턴하고 이벤트 루프 스레드를 잡고 기다리지 않는다.
+ *      ○ 저장은 EventRepository.saveAsync()의 CompletableFuture를 Mono로 바꿔서 기다린다.
+ *  ● 검증은 서블릿과 같이 @Validated({ValidateLimit, ValidateName}) + EventValidatorImpl
+ *      ○ WebFlux의 @RequestBody에는 BindingResult 아규먼트가 없으므로 Mono<Event>의 WebExchangeBindException으로 받는다.
+ */
+@RestController
+@RequestMapping("/api/events")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEventApi {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    EventBatchProcessor eventBatchProcessor;
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    EventValidatorImpl eventValidator;
+
+    /**
+     * 요청 본문을 Event로 읽지 못한 경우 (EventApi의 @ExceptionHandler와 같은 응답)
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity errorHandler() {
+        return ResponseEntity.badRequest().body("can't create event as .... ");
+    }
+
+    /**
+     * 서블릿에서는 BaseController(@ControllerAdvice)의 @InitBinder("event")가 등록하는 Validator
+     *  ● @RequestBody Mono<Event> 아규먼트의 객체 이름은 "eventMono"
+     */
+    @InitBinder("eventMono")
+    public void initEventBinder(WebDataBinder webDataBinder) {
+        webDataBinder.addValidators(eventValidator);
+    }
+
+    @PostMapping("/requestBody")
+    public Mono<Event> createEventRequestBody(@RequestBody @Validated({Event.ValidateLimit.class, Event.ValidateName.class}) Mono<Event> event) {
+        return event.onErrorResume(WebExchangeBindException.class,
+                bindException -> Mono.just((Event) bindException.getTarget()));
+    }
+
+    @PostMapping("/httpEntity")
+    public Mono<Event> createEventHttpEntity(HttpEntity<Mono<Event>> request) {
+        return request.getBody();
+    }
+
+    @PostMapping("/responseEntity")
+    public Mono<ResponseEntity<Event>> createEventResponseEntity(@RequestBody @Validated({Event.ValidateLimit.class, Event.ValidateName.class}) Mono<Event> event) {
+        return event
+                // create process (write-behind, 설정된 durability 까지만 기다림)
+                .flatMap(valid -> Mono.fromFuture(eventRepository.saveAsync(valid)))
+                .map(ResponseEntity::ok)
+                .onErrorResume(WebExchangeBindException.class, bindException -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+    /**
+     * - 배치 등록 (application/json 또는 application/x-ndjson)
+     *  ● 요청 본문의 DataBuffer를 받는 대로 EventBatchProcessor에 넣고, 결과 DataBuffer를 바로 응답에 쓴다.
+     *  ● 저장이 끝난 항목부터 결과를 쓰고, 모든 항목의 저장이 끝난 다음에 응답을 끝낸다. (EventApi와 같음)
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<Void> createEventsBatch(ServerHttpRequest request, ServerHttpResponse response) {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(request.getHeaders().getContentType());
+        response.getHeaders().setContentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
+        return response.writeWith(eventBatchProcessor.process(request.getBody(), response.bufferFactory(), ndjson,
+                eventRepository::saveAsync));
+    }
+
+    /**
+     * - 목록 조회 (EventApi와 같은 조건, cursor, 응답 형식)
+     *  ● 저장소 인덱스는 메모리에 있으므로 이벤트 루프에서 바로 읽는다.
+     */
+    @GetMapping
+    public Mono<Map<String, Object>> getEvents(EventQuery query,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "100") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        Iterator<Event> events;
+        try {
+            events = eventRepository.find(query, cursor);
+        } catch (IllegalArgumentException ex) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage()));
+        }
+
+        List<Event> page = new ArrayList<>(Math.min(size, 16));
+        while (page.size() < size && events.hasNext()) {
+            page.add(events.next());
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("events", page);
+        body.put("next", events.hasNext() ? eventRepository.cursorOf(query, page.get(page.size() - 1)) : null);
+        return Mono.just(body);
+    }
+}
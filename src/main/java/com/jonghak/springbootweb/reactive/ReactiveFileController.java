@@ -0,0 +1,250 @@
+package com.jonghak.springbootweb.reactive;
+
+import com.jonghak.springbootweb.file.CompressedVariants;
+import com.jonghak.springbootweb.file.CompressedVariants.CompressedVariant;
+import com.jonghak.springbootweb.file.FileStore;
+import com.jonghak.springbootweb.file.MediaTypeDetector;
+import com.jonghak.springbootweb.file.ReactiveFileUpload;
+import com.jonghak.springbootweb.file.StoredFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * - FileController의 WebFlux 버전 (/file, /file/{filename})
+ *  ● 업로드 : multipart의 Part를 읽는 대로(Flux<DataBuffer>) ReactiveFileUpload로 저장한다.
+ *      ○ WebFlux에는 Flash Attributes가 없으므로 리다이렉트하지 않고 업로드 결과(message)와 함께 화면을 바로 보여준다.
+ *  ● 다운로드 : ZeroCopyHttpOutputMessage로 파일을 보낸다. (Netty FileRegion, sendfile)
+ *      ○ ETag(SHA-256), If-None-Match, If-Modified-Since(304), Accept-Encoding별 압축 variant는 FileController와 같다.
+ *      ○ Range는 범위가 하나인 경우만 206으로 응답하고, 여러 개면 Range를 무시하고 전체(200)를 보낸다.
+ *  ● 파일 속성 읽기, CONTENT_TYPE 판별, 압축 variant 만들기 같은 블로킹 호출은 boundedElastic에서 실행한다.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveFileController {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    FileStore fileStore;
+
+    @Autowired
+    MediaTypeDetector mediaTypeDetector;
+
+    @Autowired
+    CompressedVariants compressedVariants;
+
+    @Autowired
+    ReactiveFileUpload reactiveFileUpload;
+
+    @ExceptionHandler(MultipartException.class)
+    public Mono<Void> multipartErrorHandler(MultipartException exception) {
+        HttpStatus status = exception instanceof MaxUploadSizeExceededException ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+        return Mono.error(new ResponseStatusException(status, exception.getMessage(), exception));
+    }
+
+    @GetMapping("/file")
+    public String fileUploadForm(Model model) {
+        return "files/file";
+    }
+
+    /**
+     * Part는 요청에 들어있는 순서대로 하나씩 끝까지 읽어야 다음 Part를 받을 수 있다. (streaming)
+     */
+    @PostMapping(value = "/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<String> fileUpload(@RequestBody Flux<Part> parts, Model model) {
+        return parts
+                .concatMap(part -> part instanceof FilePart && "file".equals(part.name())
+                        ? reactiveFileUpload.store(((FilePart) part).filename(), part.content())
+                        : part.content().doOnNext(DataBufferUtils::release).then(Mono.empty()))
+                .collectList()
+                .map(uploadedFiles -> {
+                    if (uploadedFiles.isEmpty()) {
+                        throw new ServerWebInputException("Required request part 'file' is not present");
+                    }
+
+                    StoredFile file = uploadedFiles.get(0);
+                    model.addAttribute("message", file.getFilename() + " is uploaded");
+                    return "files/file";
+                });
+    }
+
+    @GetMapping("/file/{filename}")
+    public Mono<Void> fileDownload(@PathVariable String filename,
+                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                   ServerWebExchange exchange) {
+        StoredFile storedFile = fileStore.find(filename)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, filename + " is not found"));
+        // 압축 variant는 응답을 다 보낼 때까지 고정한다.
+        return Mono.using(() -> download(storedFile, acceptEncoding), download -> send(download, exchange), Download::close)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Download download(StoredFile storedFile, String acceptEncoding) throws IOException {
+        Download download = new Download();
+        download.path = storedFile.getPath();
+        download.attributes = Files.readAttributes(download.path, BasicFileAttributes.class);
+        download.filename = storedFile.getFilename();
+        download.mediaType = storedFile.getMediaType() != null
+                ? storedFile.getMediaType()
+                : mediaTypeDetector.detect(download.path, download.attributes, storedFile.getFilename());
+        download.etag = "\"" + storedFile.getSha256() + "\"";
+        if (compressedVariants.isCompressible(download.mediaType)) {
+            download.compressible = true;
+            Optional<CompressedVariant> variant = compressedVariants.resolve(storedFile, download.mediaType, acceptEncoding);
+            if (variant.isPresent()) {
+                download.variant = variant.get();
+                try {
+                    download.attributes = Files.readAttributes(variant.get().getPath(), BasicFileAttributes.class);
+                    download.path = variant.get().getPath();
+                    download.etag = variant.get().getEtag();
+                    download.encoding = variant.get().getEncoding();
+                } catch (NoSuchFileException ex) {
+                    // 미리 압축된 파일이 그 사이에 지워진 경우는 원본을 보낸다.
+                } catch (IOException | RuntimeException ex) {
+                    download.close();
+                    throw ex;
+                }
+            }
+        }
+        return download;
+    }
+
+    private Mono<Void> send(Download download, ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachement; filename=\"" + download.filename + "\"");
+        if (download.compressible) {
+            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (download.encoding != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, download.encoding);
+        }
+
+        // 304(또는 412)인 경우 본문 없이 종료, 200인 경우 ETag, Last-Modified 헤더가 설정된다.
+        Instant lastModified = download.attributes.lastModifiedTime().toInstant();
+        if (exchange.checkNotModified(download.etag, lastModified)) {
+            return response.setComplete();
+        }
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentType(MediaType.parseMediaType(download.mediaType));
+
+        long length = download.attributes.size();
+        long start = 0;
+        long count = length;
+        if (exchange.getRequest().getHeaders().containsKey(HttpHeaders.RANGE) && isIfRangeSatisfied(exchange, download.etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = exchange.getRequest().getHeaders().getRange();
+            } catch (IllegalArgumentException ex) {
+                ranges = List.of();
+            }
+            if (ranges.isEmpty() || !isSatisfiable(ranges.get(0), length)) {
+                response.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return response.setComplete();
+            }
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(length);
+                count = ranges.get(0).getRangeEnd(length) - start + 1;
+                response.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + count - 1) + "/" + length);
+            }
+        }
+        headers.setContentLength(count);
+
+        if (response instanceof ZeroCopyHttpOutputMessage) {
+            return ((ZeroCopyHttpOutputMessage) response).writeWith(download.path, start, count);
+        }
+        // HEAD 요청 등 응답이 감싸져 있는 경우
+        Flux<DataBuffer> body = DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(download.path, StandardOpenOption.READ), start, response.bufferFactory(), READ_BUFFER_SIZE);
+        return response.writeWith(DataBufferUtils.takeUntilByteCount(body, count));
+    }
+
+    /**
+     * If-Range의 ETag(강한 비교) 또는 날짜(초 단위)가 현재 파일과 같을 때만 Range를 적용한다. (ZeroCopyFileSender와 같음)
+     */
+    private boolean isIfRangeSatisfied(ServerWebExchange exchange, String etag, Instant lastModified) {
+        String ifRange = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return exchange.getRequest().getHeaders().getFirstDate(HttpHeaders.IF_RANGE) / 1000 == lastModified.getEpochSecond();
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private boolean isSatisfiable(HttpRange range, long length) {
+        if (length == 0) {
+            return false;
+        }
+        try {
+            return range.getRangeStart(length) < length
+                    && range.getRangeStart(length) <= range.getRangeEnd(length);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static class Download {
+
+        private Path path;
+
+        private BasicFileAttributes attributes;
+
+        private String filename;
+
+        private String mediaType;
+
+        private String etag;
+
+        private String encoding;
+
+        private boolean compressible;
+
+        private CompressedVariant variant;
+
+        private void close() {
+            if (variant != null) {
+                variant.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.jonghak.springbootweb.reactive;
+
+import com.jonghak.springbootweb.config.ReactiveConfig;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+
+/**
+ * - WebFlux(Netty) 실행 (I/O 대기가 많은 요청을 이벤트 루프에서 처리하는 배포 방식)
+ *  ● /api/events/*, /file, /file/{filename}을 서블릿과 같은 계약으로 제공한다. (Mono/Flux를 리턴하는 핸들러)
+ *  ● 클래스패스에 spring-boot-starter-web도 있으므로 main에서 WebApplicationType.REACTIVE로 실행한다.
+ *      ○ 기본 실행(SpringbootWebApplication)은 서블릿 그대로
+ *  ● 이 패키지만 스캔한다. 이 패키지의 빈은 @ConditionalOnWebApplication(type = REACTIVE)라서 서블릿 실행에서는 등록되지 않는다.
+ *
+ * - 실행
+ *  ● java -cp ... com.jonghak.springbootweb.reactive.ReactiveWebApplication --server.port=8081
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan
+@Import(ReactiveConfig.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveWebApplication.class);
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.run(args);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.jonghak.springbootweb.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * - 원격 세션 저장소(Redis 등)를 대신하는 구현
+ *  ● 원격 저장소처럼 byte 복사본만 주고받는다. (저장한 배열을 바꿔도 저장소에는 영향이 없음)
+ *  ● 항목마다 ttl을 적용하고 만료는 Caffeine의 timer wheel이 처리한다. (전체를 훑지 않음)
+ */
+public class InMemorySessionStore implements SessionStore {
+
+    private final Cache<String, Entry> sessions;
+
+    public InMemorySessionStore(long maxSessions) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String id, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Optional<byte[]> load(String id) {
+        Entry entry = sessions.getIfPresent(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.data.clone());
+    }
+
+    @Override
+    public boolean save(String id, byte[] data, Duration ttl) {
+        sessions.put(id, new Entry(data.clone(), ttl.toNanos()));
+        return true;
+    }
+
+    @Override
+    public void delete(String id) {
+        sessions.invalidate(id);
+    }
+
+    private static final class Entry {
+
+        private final byte[] data;
+
+        private final long ttlNanos;
+
+        private Entry(byte[] data, long ttlNanos) {
+            this.data = data;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
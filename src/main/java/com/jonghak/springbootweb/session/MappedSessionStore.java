@@ -0,0 +1,248 @@
+package com.jonghak.springbootweb.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * - 메모리 맵 파일 세션 저장소
+ *  ● 세션 데이터는 heap이 아니라 파일에 매핑된 메모리에 있어서 세션 수가 늘어도 heap 사용량은 그대로다.
+ *  ● 파일에 남아 있기 때문에 재시작해도 만료되지 않은 세션은 그대로 읽을 수 있다.
+ *  ● 파일 하나는 인스턴스 하나만 쓴다. 열 때 파일을 잠그고(FileChannel.tryLock) 이미 잠겨 있으면 시작하지 않는다.
+ *      ○ lock striping은 JVM 안에서만 동작하므로 같은 호스트의 다른 프로세스와 파일을 나눠 쓸 수 없다. (인스턴스마다 다른 파일을 설정)
+ *
+ * - 구조
+ *  ● [header 64 byte][slot][slot]... 크기가 같은 slot 배열 (파일 크기 = slotCount * slotSize, 미리 잡지만 sparse 파일)
+ *  ● slot : [id(16 byte)][만료 시각 epochMillis(long, 0 = 빈 slot)][데이터 길이(int)][데이터]
+ *  ● 세션 id의 해시로 bucket(BUCKET_SLOTS 개의 연속된 slot)을 정하고 그 안에서만 찾는다. (heap에 인덱스를 두지 않음)
+ *      ○ bucket마다 lock을 나눠서(striping) 다른 bucket의 세션은 동시에 읽고 쓸 수 있다.
+ *
+ * - 만료
+ *  ● 전체를 훑으며 지우지 않는다. bucket을 찾다가 만료된 slot을 만나면 빈 slot으로 다시 사용한다.
+ *  ● bucket이 가득 차면 살아있는 세션을 지우지 않고 저장하지 못했다고(false) 알린다.
+ *  ● slot보다 큰 데이터도 false (StoreSessionAttributeStore가 HttpSession에 대신 보관한다.)
+ */
+public class MappedSessionStore implements SessionStore, Closeable {
+
+    private static final int MAGIC = 0x53455353;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int SLOT_HEADER_SIZE = 28;
+
+    private static final int BUCKET_SLOTS = 32;
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slotSize;
+
+    private final int bucketCount;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public MappedSessionStore(Path file, int slotCount, int slotSize) throws IOException {
+        if (slotCount < BUCKET_SLOTS || slotCount % BUCKET_SLOTS != 0) {
+            throw new IllegalArgumentException("slotCount must be a multiple of " + BUCKET_SLOTS);
+        }
+        if (slotSize <= SLOT_HEADER_SIZE) {
+            throw new IllegalArgumentException("slotSize must be larger than " + SLOT_HEADER_SIZE);
+        }
+        long fileSize = HEADER_SIZE + (long) slotCount * slotSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("slotCount * slotSize must be less than 2GB");
+        }
+        this.slotSize = slotSize;
+        this.bucketCount = slotCount / BUCKET_SLOTS;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // 다른 인스턴스가 쓰고 있는 파일을 자르거나 덮어쓰지 않도록 잠근다. (channel을 닫으면 풀림)
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            lock = null;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("session store file is used by another instance : " + file);
+        }
+        boolean compatible = channel.size() == fileSize && readHeader(slotCount, slotSize);
+        if (!compatible) {
+            // 처음 만들거나 slot 설정이 바뀐 경우 (이전 세션은 버린다)
+            channel.truncate(0);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        if (!compatible) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, slotCount);
+            buffer.putInt(8, slotSize);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> load(String id) {
+        long[] key = decodeId(id);
+        if (key == null) {
+            return Optional.empty();
+        }
+        int bucket = bucketOf(key);
+        synchronized (lockOf(bucket)) {
+            long now = System.currentTimeMillis();
+            int slot = find(bucket, key, now);
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            int offset = offsetOf(slot);
+            byte[] data = new byte[buffer.getInt(offset + 24)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + SLOT_HEADER_SIZE);
+            view.get(data);
+            return Optional.of(data);
+        }
+    }
+
+    @Override
+    public boolean save(String id, byte[] data, Duration ttl) {
+        long[] key = decodeId(id);
+        if (key == null) {
+            throw new IllegalArgumentException("invalid session id : " + id);
+        }
+        if (data.length > slotSize - SLOT_HEADER_SIZE) {
+            return false;
+        }
+        int bucket = bucketOf(key);
+        synchronized (lockOf(bucket)) {
+            long now = System.currentTimeMillis();
+            int slot = find(bucket, key, now);
+            if (slot < 0) {
+                slot = emptySlot(bucket, now);
+                if (slot < 0) {
+                    return false;
+                }
+            }
+            int offset = offsetOf(slot);
+            buffer.putLong(offset, key[0]);
+            buffer.putLong(offset + 8, key[1]);
+            buffer.putLong(offset + 16, now + ttl.toMillis());
+            buffer.putInt(offset + 24, data.length);
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + SLOT_HEADER_SIZE);
+            view.put(data);
+        }
+        return true;
+    }
+
+    @Override
+    public void delete(String id) {
+        long[] key = decodeId(id);
+        if (key == null) {
+            return;
+        }
+        int bucket = bucketOf(key);
+        synchronized (lockOf(bucket)) {
+            int slot = find(bucket, key, System.currentTimeMillis());
+            if (slot >= 0) {
+                buffer.putLong(offsetOf(slot) + 16, 0);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * bucket 안에서 id가 같은 slot, 찾다가 만난 만료된 slot은 비운다.
+     */
+    private int find(int bucket, long[] key, long now) {
+        int first = bucket * BUCKET_SLOTS;
+        for (int slot = first; slot < first + BUCKET_SLOTS; slot++) {
+            int offset = offsetOf(slot);
+            long expiresAt = buffer.getLong(offset + 16);
+            if (expiresAt == 0) {
+                continue;
+            }
+            if (expiresAt <= now) {
+                buffer.putLong(offset + 16, 0);
+                continue;
+            }
+            if (buffer.getLong(offset) == key[0] && buffer.getLong(offset + 8) == key[1]) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 빈 slot (만료된 slot 포함), 없으면 -1
+     */
+    private int emptySlot(int bucket, long now) {
+        int first = bucket * BUCKET_SLOTS;
+        for (int slot = first; slot < first + BUCKET_SLOTS; slot++) {
+            if (buffer.getLong(offsetOf(slot) + 16) <= now) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean readHeader(int slotCount, int slotSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(12);
+        channel.read(header, 0);
+        header.flip();
+        return header.remaining() == 12 && header.getInt() == MAGIC && header.getInt() == slotCount && header.getInt() == slotSize;
+    }
+
+    private int offsetOf(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    private int bucketOf(long[] key) {
+        long hash = key[0] ^ key[1];
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) bucketCount);
+    }
+
+    private Object lockOf(int bucket) {
+        return locks[bucket % LOCK_STRIPES];
+    }
+
+    /**
+     * 세션 id(16 byte, base64url)를 long 두 개로
+     */
+    private static long[] decodeId(String id) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(id);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        if (bytes.length != 16) {
+            return null;
+        }
+        ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+        return new long[]{wrapped.getLong(), wrapped.getLong()};
+    }
+}
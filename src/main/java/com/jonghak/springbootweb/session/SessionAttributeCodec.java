@@ -0,0 +1,166 @@
+package com.jonghak.springbootweb.session;
+
+import com.jonghak.springbootweb.Event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * - 세션 속성(Map<String, Object>) <-> byte
+ *  ● [속성 개수(short)] 다음에 속성마다 [이름(UTF)][타입(byte)][값]
+ *  ● 자주 쓰는 타입은 필드만 기록한다. (Event는 값이 있는 필드만, Java 직렬화보다 훨씬 작음)
+ *      ○ String, Integer, Long, Boolean, Event
+ *  ● 그 밖의 타입은 Serializable이면 Java 직렬화, 아니면 IllegalArgumentException
+ */
+public final class SessionAttributeCodec {
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INTEGER = 2;
+    private static final int LONG = 3;
+    private static final int BOOLEAN = 4;
+    private static final int EVENT = 5;
+    private static final int SERIALIZED = 127;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_NAME = 2;
+    private static final int HAS_LIMIT = 4;
+    private static final int HAS_START_DATE = 8;
+
+    private SessionAttributeCodec() {
+    }
+
+    public static byte[] encode(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                out.writeUTF(attribute.getKey());
+                writeValue(attribute.getValue(), out);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Map<String, Object> decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int size = in.readUnsignedShort();
+            Map<String, Object> attributes = new LinkedHashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                attributes.put(in.readUTF(), readValue(in));
+            }
+            return attributes;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeValue(Object value, DataOutputStream out) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Event) {
+            out.writeByte(EVENT);
+            writeEvent((Event) value, out);
+        } else if (value instanceof Serializable) {
+            out.writeByte(SERIALIZED);
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+                objectOut.writeObject(value);
+            }
+            out.writeInt(serialized.size());
+            serialized.writeTo(out);
+        } else {
+            throw new IllegalArgumentException("unsupported session attribute type : " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        int type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case EVENT:
+                return readEvent(in);
+            case SERIALIZED:
+                byte[] serialized = new byte[in.readInt()];
+                in.readFully(serialized);
+                try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                    return objectIn.readObject();
+                } catch (ClassNotFoundException ex) {
+                    throw new IOException(ex);
+                }
+            default:
+                throw new IOException("unknown session attribute type : " + type);
+        }
+    }
+
+    private static void writeEvent(Event event, DataOutputStream out) throws IOException {
+        int flags = (event.getId() != null ? HAS_ID : 0)
+                | (event.getName() != null ? HAS_NAME : 0)
+                | (event.getLimit() != null ? HAS_LIMIT : 0)
+                | (event.getStartDate() != null ? HAS_START_DATE : 0);
+        out.writeByte(flags);
+        if (event.getId() != null) {
+            out.writeInt(event.getId());
+        }
+        if (event.getName() != null) {
+            out.writeUTF(event.getName());
+        }
+        if (event.getLimit() != null) {
+            out.writeInt(event.getLimit());
+        }
+        if (event.getStartDate() != null) {
+            out.writeLong(event.getStartDate().toEpochDay());
+        }
+    }
+
+    private static Event readEvent(DataInputStream in) throws IOException {
+        Event event = new Event();
+        int flags = in.readByte();
+        if ((flags & HAS_ID) != 0) {
+            event.setId(in.readInt());
+        }
+        if ((flags & HAS_NAME) != 0) {
+            event.setName(in.readUTF());
+        }
+        if ((flags & HAS_LIMIT) != 0) {
+            event.setLimit(in.readInt());
+        }
+        if ((flags & HAS_START_DATE) != 0) {
+            event.setStartDate(LocalDate.ofEpochDay(in.readLong()));
+        }
+        return event;
+    }
+}
@@ -0,0 +1,23 @@
+package com.jonghak.springbootweb.session;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * - 세션 데이터 저장소 (세션 id -> byte)
+ *  ● 값은 SessionAttributeCodec으로 만든 byte라서 저장소는 내용을 알 필요가 없다.
+ *  ● save 할 때마다 ttl을 새로 적용하고, ttl이 지난 세션은 load 되지 않는다.
+ *  ● 저장할 수 없으면 (데이터가 너무 크거나 자리가 없음) save는 false를 리턴한다. 다른 세션을 지워서 자리를 만들지 않는다.
+ *
+ * - 구현
+ *  ● MappedSessionStore : 메모리 맵 파일 (heap 밖, 재시작해도 유지)
+ *  ● InMemorySessionStore : 원격 저장소(Redis 등)를 대신하는 구현 (byte 복사본만 주고받음)
+ */
+public interface SessionStore {
+
+    Optional<byte[]> load(String id);
+
+    boolean save(String id, byte[] data, Duration ttl);
+
+    void delete(String id);
+}
@@ -0,0 +1,167 @@
+package com.jonghak.springbootweb.session;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.bind.support.SessionAttributeStore;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * - @SessionAttributes 모델을 HttpSession 대신 SessionStore에 보관한다.
+ *  ● 스프링 MVC의 SessionAttributeStore 확장 포인트 (기본은 DefaultSessionAttributeStore -> HttpSession)
+ *  ● 세션 id는 쿠키(SESSION_COOKIE)로 주고받고, 속성은 SessionAttributeCodec으로 byte로 만들어 저장한다.
+ *      ○ 처음 저장할 때 id를 만들고 쿠키를 보낸다. 읽기만 하는 요청에는 id를 만들지 않는다.
+ *  ● 한 요청 안에서는 처음 읽은 속성을 request attribute에 두고 다시 읽지 않는다.
+ *  ● 저장할 때마다 ttl을 새로 적용한다. (마지막 저장 후 ttl이 지나면 만료)
+ *  ● 저장소에 넣을 수 없으면 (slot보다 크거나 자리가 없거나 byte로 만들 수 없음) 그 요청의 속성은 HttpSession에 보관한다.
+ *      ○ byte로 만들 수 없는 경우 : 64KB가 넘는 문자열(writeUTF), Serializable이 아닌 값 등
+ *      ○ 다음 요청에서는 HttpSession에 있으면 그것을 먼저 읽고, 저장소에 다시 저장되면 HttpSession에서 지운다.
+ */
+public class StoreSessionAttributeStore implements SessionAttributeStore {
+
+    public static final String SESSION_COOKIE = "MVC_SESSION";
+
+    private static final String ATTRIBUTES = StoreSessionAttributeStore.class.getName() + ".ATTRIBUTES";
+
+    private static final String SESSION_ID = StoreSessionAttributeStore.class.getName() + ".SESSION_ID";
+
+    private static final String FALLBACK = StoreSessionAttributeStore.class.getName() + ".FALLBACK";
+
+    /**
+     * 16 byte 임의의 값 (base64url)
+     */
+    private static final Pattern SESSION_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{22}");
+
+    private final SessionStore sessionStore;
+
+    private final Duration ttl;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public StoreSessionAttributeStore(SessionStore sessionStore, Duration ttl) {
+        this.sessionStore = sessionStore;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public void storeAttribute(WebRequest request, String attributeName, Object attributeValue) {
+        Map<String, Object> attributes = attributes(request);
+        attributes.put(attributeName, attributeValue);
+        save(request, attributes);
+    }
+
+    @Override
+    public Object retrieveAttribute(WebRequest request, String attributeName) {
+        return attributes(request).get(attributeName);
+    }
+
+    @Override
+    public void cleanupAttribute(WebRequest request, String attributeName) {
+        Map<String, Object> attributes = attributes(request);
+        if (!attributes.containsKey(attributeName)) {
+            return;
+        }
+        attributes.remove(attributeName);
+        if (attributes.isEmpty()) {
+            String sessionId = sessionId(request, false);
+            if (sessionId != null) {
+                sessionStore.delete(sessionId);
+            }
+            removeFallback(request);
+        } else {
+            save(request, attributes);
+        }
+    }
+
+    private void save(WebRequest request, Map<String, Object> attributes) {
+        String sessionId = sessionId(request, true);
+        if (encode(attributes).map(data -> sessionStore.save(sessionId, data, ttl)).orElse(false)) {
+            removeFallback(request);
+        } else {
+            // 이전에 저장한 값이 남아있지 않도록 지우고 HttpSession에 보관
+            sessionStore.delete(sessionId);
+            request.setAttribute(FALLBACK, attributes, RequestAttributes.SCOPE_SESSION);
+        }
+    }
+
+    private Optional<byte[]> encode(Map<String, Object> attributes) {
+        try {
+            return Optional.of(SessionAttributeCodec.encode(attributes));
+        } catch (UncheckedIOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private void removeFallback(WebRequest request) {
+        if (request.getAttribute(FALLBACK, RequestAttributes.SCOPE_SESSION) != null) {
+            request.removeAttribute(FALLBACK, RequestAttributes.SCOPE_SESSION);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> attributes(WebRequest request) {
+        Map<String, Object> attributes = (Map<String, Object>) request.getAttribute(ATTRIBUTES, RequestAttributes.SCOPE_REQUEST);
+        if (attributes == null) {
+            attributes = (Map<String, Object>) request.getAttribute(FALLBACK, RequestAttributes.SCOPE_SESSION);
+            if (attributes != null) {
+                request.setAttribute(ATTRIBUTES, attributes, RequestAttributes.SCOPE_REQUEST);
+                return attributes;
+            }
+            attributes = new LinkedHashMap<>();
+            String sessionId = cookieSessionId(request);
+            Optional<byte[]> data = sessionId == null ? Optional.empty() : sessionStore.load(sessionId);
+            if (data.isPresent()) {
+                attributes = SessionAttributeCodec.decode(data.get());
+                request.setAttribute(SESSION_ID, sessionId, RequestAttributes.SCOPE_REQUEST);
+            }
+            request.setAttribute(ATTRIBUTES, attributes, RequestAttributes.SCOPE_REQUEST);
+        }
+        return attributes;
+    }
+
+    /**
+     * 저장소에 있는 세션의 id, 없으면 create일 때 새로 만든다.
+     * 저장소에 없는 id를 쿠키로 보낸 경우 그 id를 쓰지 않고 새로 만든다.
+     */
+    private String sessionId(WebRequest request, boolean create) {
+        attributes(request);
+        String sessionId = (String) request.getAttribute(SESSION_ID, RequestAttributes.SCOPE_REQUEST);
+        if (sessionId == null && create) {
+            sessionId = newSessionId();
+            HttpServletResponse response = ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class);
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(SESSION_COOKIE, sessionId)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+            request.setAttribute(SESSION_ID, sessionId, RequestAttributes.SCOPE_REQUEST);
+        }
+        return sessionId;
+    }
+
+    private String cookieSessionId(WebRequest request) {
+        Cookie cookie = WebUtils.getCookie(((NativeWebRequest) request).getNativeRequest(HttpServletRequest.class), SESSION_COOKIE);
+        return cookie != null && SESSION_ID_PATTERN.matcher(cookie.getValue()).matches() ? cookie.getValue() : null;
+    }
+
+    private String newSessionId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
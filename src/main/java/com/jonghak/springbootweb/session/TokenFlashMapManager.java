@@ -0,0 +1,168 @@
+package com.jonghak.springbootweb.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.FlashMapManager;
+import org.springframework.web.util.UriUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * - Flash Attributes를 세션 대신 token으로 찾는 FlashMapManager
+ *  ● 기본 SessionFlashMapManager는 요청마다 세션 mutex를 잡고 세션의 FlashMap 목록 전체를 훑어서 만료된 것을 지운다.
+ *  ● 리다이렉트할 때 FlashMap을 token 키로 저장하고, token은 리다이렉트 응답의 쿠키(FLASH_{token})로 보낸다.
+ *      ○ 다음 요청에서는 쿠키의 token으로 바로 꺼낸다. (O(1), 세션을 사용하지 않음)
+ *      ○ FLASH_ 쿠키가 없는 요청은 아무것도 하지 않는다.
+ *      ○ 쿠키의 Path는 리다이렉트 대상 경로라서 다른 경로로 가는 요청에는 보내지 않는다.
+ *      ○ 쿠키는 탭을 구분하지 않는다. 여러 탭에서 동시에 같은 경로로 리다이렉트하면 먼저 도착한 요청이 다른 탭의 FlashMap을 꺼낼 수 있다.
+ *  ● 만료는 Caffeine의 timer wheel이 처리한다. (FlashMap.timeout, 기본 180초)
+ *  ● 대상 경로/매개변수가 맞지 않는 요청에서는 꺼내지 않고 남겨둔다. (AbstractFlashMapManager와 같은 규칙)
+ */
+public class TokenFlashMapManager implements FlashMapManager {
+
+    public static final String COOKIE_PREFIX = "FLASH_";
+
+    private static final int DEFAULT_TIMEOUT_SECONDS = 180;
+
+    private static final Pattern COOKIE_PATH = Pattern.compile("[\\x21-\\x3a\\x3c-\\x7e]+");
+
+    private final Cache<String, FlashMap> flashMaps;
+
+    private final UrlPathHelper urlPathHelper = UrlPathHelper.defaultInstance;
+
+    private final SecureRandom random = new SecureRandom();
+
+    public TokenFlashMapManager(long maxFlashMaps) {
+        this.flashMaps = Caffeine.newBuilder()
+                .maximumSize(maxFlashMaps)
+                .expireAfter(new Expiry<String, FlashMap>() {
+                    @Override
+                    public long expireAfterCreate(String token, FlashMap flashMap, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(flashMap.getExpirationTime() - System.currentTimeMillis(), 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, FlashMap flashMap, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, FlashMap flashMap, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public FlashMap retrieveAndUpdate(HttpServletRequest request, HttpServletResponse response) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (!cookie.getName().startsWith(COOKIE_PREFIX)) {
+                continue;
+            }
+            String token = cookie.getName().substring(COOKIE_PREFIX.length());
+            FlashMap flashMap = flashMaps.getIfPresent(token);
+            if (flashMap == null || flashMap.isExpired()) {
+                // 이미 사용했거나 만료됨 (쿠키도 Max-Age가 같아서 곧 만료된다.)
+                continue;
+            }
+            // 동시에 같은 token으로 들어온 요청 중 하나만 꺼낸다.
+            if (isFlashMapForRequest(flashMap, request) && flashMaps.asMap().remove(token, flashMap)) {
+                // 대상 경로와 같은 요청이므로 요청 URI가 쿠키의 Path
+                response.addHeader(HttpHeaders.SET_COOKIE, tokenCookie(token, cookiePath(request.getRequestURI()), Duration.ZERO));
+                return flashMap;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void saveOutputFlashMap(FlashMap flashMap, HttpServletRequest request, HttpServletResponse response) {
+        if (flashMap.isEmpty()) {
+            return;
+        }
+        String cookiePath = cookiePath(flashMap.getTargetRequestPath());
+        String path = flashMap.getTargetRequestPath();
+        if (path != null) {
+            path = UriUtils.decode(path, StandardCharsets.UTF_8);
+            if (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            flashMap.setTargetRequestPath(path);
+        }
+        flashMap.startExpirationPeriod(DEFAULT_TIMEOUT_SECONDS);
+
+        String token = newToken();
+        flashMaps.put(token, flashMap);
+        response.addHeader(HttpHeaders.SET_COOKIE, tokenCookie(token, cookiePath, Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS)));
+    }
+
+    private boolean isFlashMapForRequest(FlashMap flashMap, HttpServletRequest request) {
+        String expectedPath = flashMap.getTargetRequestPath();
+        if (expectedPath != null) {
+            String requestUri = urlPathHelper.getOriginatingRequestUri(request);
+            if (!requestUri.equals(expectedPath) && !requestUri.equals(expectedPath + "/")) {
+                return false;
+            }
+        }
+        MultiValueMap<String, String> expectedParams = flashMap.getTargetRequestParams();
+        for (Map.Entry<String, List<String>> expected : expectedParams.entrySet()) {
+            String[] actualValues = request.getParameterValues(expected.getKey());
+            if (ObjectUtils.isEmpty(actualValues) || !Arrays.asList(actualValues).containsAll(expected.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 인코딩된 대상 경로 (끝의 / 제외), 쿠키 Path로 쓸 수 없는 문자가 있으면 "/"
+     */
+    private String cookiePath(String path) {
+        if (path == null || !path.startsWith("/") || !COOKIE_PATH.matcher(path).matches()) {
+            return "/";
+        }
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private String tokenCookie(String token, String path, Duration maxAge) {
+        return ResponseCookie.from(COOKIE_PREFIX + token, maxAge.isZero() ? "" : "1")
+                .path(path)
+                .maxAge(maxAge)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build()
+                .toString();
+    }
+
+    /**
+     * 8 byte 임의의 값 (base64url 11자)
+     */
+    private String newToken() {
+        byte[] bytes = new byte[8];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,216 @@
+package com.jonghak.springbootweb.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jonghak.springbootweb.Event;
+import com.jonghak.springbootweb.book.Author;
+import com.jonghak.springbootweb.book.Book;
+import com.jonghak.springbootweb.book.BookJsonView;
+import com.jonghak.springbootweb.json.JsonViewWriters;
+import com.jonghak.springbootweb.mapping.CompiledRequestMappingHandlerMapping;
+import org.apache.tika.Tika;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.spring5.ISpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * - 시작할 때 처음 요청이 겪는 초기화를 미리 해두는 warm-up (app.startup.warm-up.enabled)
+ *  ● ApplicationRunner로 실행하므로 끝나기 전에는 readiness 상태가 ACCEPTING_TRAFFIC이 되지 않는다.
+ *  ● 하는 일
+ *      ○ Thymeleaf : templates/ 아래의 템플릿을 파싱해서 템플릿 캐시에 넣는다.
+ *      ○ Jackson : Event, Book, Author의 serializer/deserializer를 만들고 @JsonView별 ObjectWriter를 준비한다.
+ *      ○ Tika : mime 저장소와 detector를 읽어 둔다.
+ *      ○ 핸들러 매핑 : CompiledRequestMappingHandlerMapping이면 trie 인덱스를 만든다.
+ *      ○ 엔드포인트 : 웹 서버가 떠 있으면 app.startup.warm-up.paths에 적은 경로만 localhost로 한 번씩 GET 요청한다.
+ *          - GET이라도 상태를 바꾸거나 세션을 만드는 핸들러가 있어서 매핑을 모두 호출하지 않고 안전한 경로만 직접 적는다. (비어 있으면 호출하지 않음)
+ *          - 응답 코드는 보지 않는다. (dispatcher, argument resolver, message converter 등의 첫 호출 비용을 없애는 것이 목적)
+ *  ● 한 단계가 실패해도 나머지 단계는 계속한다. (warm-up 실패로 시작을 막지 않음)
+ */
+@Component
+public class StartupWarmUp implements ApplicationRunner {
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("jsonViewWriters")
+    JsonViewWriters jsonViewWriters;
+
+    @Autowired
+    @Qualifier("compactBookWriters")
+    JsonViewWriters compactBookWriters;
+
+    @Autowired
+    Tika tika;
+
+    @Autowired
+    RequestMappingHandlerMapping requestMappingHandlerMapping;
+
+    @Autowired(required = false)
+    ISpringTemplateEngine templateEngine;
+
+    @Value("${app.startup.warm-up.enabled:false}")
+    boolean enabled;
+
+    @Value("${app.startup.warm-up.request-timeout:5s}")
+    Duration requestTimeout;
+
+    @Value("${app.startup.warm-up.paths:}")
+    List<String> paths;
+
+    private volatile Duration lastDuration;
+
+    private volatile int exercisedEndpoints;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        warmUpStep(this::compileTemplates);
+        warmUpStep(this::primeJackson);
+        warmUpStep(this::loadTika);
+        warmUpStep(this::prepareHandlerMapping);
+        warmUpStep(this::exerciseEndpoints);
+        lastDuration = Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * 마지막 warm-up에 걸린 시간 (warm-up을 하지 않았으면 null)
+     */
+    public Duration getLastDuration() {
+        return lastDuration;
+    }
+
+    public int getExercisedEndpoints() {
+        return exercisedEndpoints;
+    }
+
+    private void warmUpStep(WarmUpStep step) {
+        try {
+            step.run();
+        } catch (Exception ignored) {
+            // 다음 단계는 계속 진행한다.
+        }
+    }
+
+    /**
+     * 빈 Context로 렌더링한다. 렌더링은 모델이 없어서 실패할 수 있지만 파싱한 템플릿은 그 전에 캐시에 들어간다.
+     * (TemplateEngine.process는 실패를 ERROR로 로그에 남기므로 TemplateManager를 직접 호출함)
+     */
+    private void compileTemplates() throws IOException {
+        if (templateEngine == null) {
+            return;
+        }
+        TemplateManager templateManager = templateEngine.getConfiguration().getTemplateManager();
+        for (Resource resource : applicationContext.getResources("classpath:/templates/**/*.html")) {
+            String path = resource.getURL().getPath();
+            String template = path.substring(path.lastIndexOf("/templates/") + "/templates/".length(), path.length() - ".html".length());
+            try {
+                templateManager.parseAndProcess(new TemplateSpec(template, null, (TemplateMode) null, null), new Context(), Writer.nullWriter());
+            } catch (RuntimeException ignored) {
+                // 모델이 없어서 생기는 렌더링 에러
+            }
+        }
+    }
+
+    private void primeJackson() throws IOException {
+        Author author = new Author();
+        author.setId(1L);
+        author.setFirstName("jonghak");
+        author.setLastName("warm-up");
+        author.setJoinedAt(LocalDateTime.now());
+
+        Book book = new Book();
+        book.setId(1L);
+        book.setIsbn("warm-up");
+        book.setTitle("warm-up");
+        book.setPublished(LocalDateTime.now());
+        book.setAuthors(Set.of(author));
+
+        Event event = new Event();
+        event.setId(1);
+        event.setName("warm-up");
+        event.setLimit(1);
+        event.setStartDate(LocalDate.now());
+
+        for (Object value : List.of(event, book, author)) {
+            byte[] json = objectMapper.writerFor(value.getClass()).writeValueAsBytes(value);
+            objectMapper.readerFor(value.getClass()).readValue(json);
+        }
+        // /books 가 쓰는 (타입, 뷰) 별 ObjectWriter
+        for (JsonViewWriters writers : List.of(jsonViewWriters, compactBookWriters)) {
+            writers.prepare(Book.class, BookJsonView.SimpleView.class, BookJsonView.ComplexView.class);
+            writers.prepare(Author.class, BookJsonView.SimpleView.class, BookJsonView.ComplexView.class);
+        }
+    }
+
+    private void loadTika() {
+        tika.detect("<html><body>warm-up</body></html>".getBytes(StandardCharsets.UTF_8), "warm-up.html");
+    }
+
+    private void prepareHandlerMapping() {
+        if (requestMappingHandlerMapping instanceof CompiledRequestMappingHandlerMapping) {
+            ((CompiledRequestMappingHandlerMapping) requestMappingHandlerMapping).prepareIndex();
+        }
+    }
+
+    private void exerciseEndpoints() throws InterruptedException {
+        if (!(applicationContext instanceof WebServerApplicationContext)
+                || ((WebServerApplicationContext) applicationContext).getWebServer() == null) {
+            return;
+        }
+        int port = ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+        if (port <= 0) {
+            return;
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(requestTimeout).build();
+        int exercised = 0;
+        for (String path : paths) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(requestTimeout)
+                    .GET()
+                    .build();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                exercised++;
+            } catch (IOException ignored) {
+                // 응답을 받지 못한 엔드포인트는 건너뛴다.
+            }
+        }
+        exercisedEndpoints = exercised;
+    }
+
+    @FunctionalInterface
+    private interface WarmUpStep {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,126 @@
+package com.jonghak.springbootweb.validation;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.groups.Default;
+import java.util.Arrays;
+
+/**
+ * - (빈 클래스, 검증 그룹)별로 미리 만들어 둔 ValidationPlan으로 먼저 검사하는 SmartValidator
+ *  ● 처음 검증할 때 Bean Validation 메타데이터로 ValidationPlan을 만들고 클래스별로 캐시한다. (ClassValue)
+ *      ○ 같은 그룹(hints)이면 배열을 새로 만들지 않고 Arrays.equals로 찾는다.
+ *  ● plan이 "통과"라고 하면 Hibernate Validator를 호출하지 않는다. (ConstraintViolation, path 등을 만들지 않음)
+ *  ● 위반이 있거나 plan이 판단할 수 없으면 SpringValidatorAdapter로 다시 검증한다.
+ *      ○ 그래서 BindingResult에 들어가는 에러(코드, 아규먼트, 메시지, rejectedValue)는 SpringValidatorAdapter와 같다.
+ *  ● validation hint 중 Class가 아닌 값은 SpringValidatorAdapter와 같이 무시한다.
+ */
+public class CompiledValidator implements SmartValidator {
+
+    private static final Class<?>[] DEFAULT_GROUPS = {Default.class};
+
+    private final javax.validation.Validator validator;
+
+    private final SpringValidatorAdapter delegate;
+
+    private final ClassValue<Plans> plans = new ClassValue<>() {
+        @Override
+        protected Plans computeValue(Class<?> type) {
+            return new Plans(type);
+        }
+    };
+
+    public CompiledValidator(javax.validation.Validator validator) {
+        this.validator = validator;
+        this.delegate = new SpringValidatorAdapter(validator);
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        if (getPlan(target.getClass(), (Object[]) null).isValid(target)) {
+            return;
+        }
+        delegate.validate(target, errors);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        if (getPlan(target.getClass(), validationHints).isValid(target)) {
+            return;
+        }
+        delegate.validate(target, errors, validationHints);
+    }
+
+    @Override
+    public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors, Object... validationHints) {
+        delegate.validateValue(targetType, fieldName, value, errors, validationHints);
+    }
+
+    public ValidationPlan getPlan(Class<?> type, Object... validationHints) {
+        return plans.get(type).get(validationHints);
+    }
+
+    private static Class<?>[] groups(Object[] validationHints) {
+        if (validationHints == null) {
+            return DEFAULT_GROUPS;
+        }
+        Class<?>[] groups = Arrays.stream(validationHints)
+                .filter(Class.class::isInstance)
+                .toArray(Class<?>[]::new);
+        return groups.length == 0 ? DEFAULT_GROUPS : groups;
+    }
+
+    /**
+     * 클래스 하나의 (hints, plan) 목록 (copy-on-write, 그룹 조합은 몇 개 되지 않음)
+     */
+    private final class Plans {
+
+        private final Class<?> type;
+
+        private volatile Entry[] entries = new Entry[0];
+
+        private Plans(Class<?> type) {
+            this.type = type;
+        }
+
+        private ValidationPlan get(Object[] validationHints) {
+            for (Entry entry : entries) {
+                if (Arrays.equals(entry.hints, validationHints)) {
+                    return entry.plan;
+                }
+            }
+            return compile(validationHints);
+        }
+
+        private synchronized ValidationPlan compile(Object[] validationHints) {
+            for (Entry entry : entries) {
+                if (Arrays.equals(entry.hints, validationHints)) {
+                    return entry.plan;
+                }
+            }
+            ValidationPlan plan = ValidationPlan.compile(validator, type, groups(validationHints));
+            Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = new Entry(validationHints == null ? null : validationHints.clone(), plan);
+            entries = newEntries;
+            return plan;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object[] hints;
+
+        private final ValidationPlan plan;
+
+        private Entry(Object[] hints, ValidationPlan plan) {
+            this.hints = hints;
+            this.plan = plan;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.jonghak.springbootweb.validation;
+
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - 이름 금지 규칙 파일(NameRules)을 읽고, 파일이 바뀌면 다시 읽는 저장소
+ *  ● 검증하는 스레드는 volatile 필드에 있는 NameRules를 읽기만 한다. (다시 읽는 동안에도 기다리지 않음)
+ *  ● 파일인 리소스만 reload-interval 마다 수정 시간을 확인해서 다시 읽는다. (jar 안의 classpath 리소스는 시작할 때 한 번)
+ *      ○ 백그라운드 daemon 스레드 하나에서 읽으므로 요청 스레드(이벤트 루프 포함)에서 파일 I/O를 하지 않는다.
+ *      ○ 다시 읽다가 실패하면 이전 규칙을 계속 사용한다.
+ */
+public class NameRuleRegistry implements AutoCloseable {
+
+    private final Resource resource;
+
+    private final ScheduledExecutorService reloader;
+
+    private volatile NameRules rules;
+
+    private volatile long lastModified;
+
+    public NameRuleRegistry(Resource resource, Duration reloadInterval) throws IOException {
+        this.resource = resource;
+        reload();
+        if (resource.isFile() && !reloadInterval.isZero()) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "name-rules-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = reloadInterval.toMillis();
+            reloader.scheduleWithFixedDelay(this::reloadIfModified, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            reloader = null;
+        }
+    }
+
+    public NameRules getRules() {
+        return rules;
+    }
+
+    public boolean matches(CharSequence name) {
+        return rules.matches(name);
+    }
+
+    /**
+     * 수정 시간과 상관없이 규칙 파일을 다시 읽는다.
+     */
+    public synchronized void reload() throws IOException {
+        long modified = resource.isFile() ? resource.lastModified() : 0L;
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        rules = NameRules.compile(lines);
+        lastModified = modified;
+    }
+
+    private void reloadIfModified() {
+        try {
+            if (resource.lastModified() != lastModified) {
+                reload();
+            }
+        } catch (IOException | UncheckedIOException ignored) {
+            // 이전 규칙을 계속 사용하고 다음 주기에 다시 시도한다.
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.jonghak.springbootweb.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * - 이름 금지 규칙 (한 번 만들면 바꾸지 않음, 여러 스레드에서 같이 사용)
+ *  ● 규칙 한 줄
+ *      ○ aaa : 이름이 aaa인 경우 (대소문자 무시, equalsIgnoreCase와 같음)
+ *      ○ *spam* : 이름에 spam이 들어간 경우 (대소문자 무시)
+ *      ○ 빈 줄, #으로 시작하는 줄은 무시
+ *  ● 모든 규칙을 대소문자를 접은(case-folded) 문자로 Aho-Corasick 오토마톤 하나에 넣는다.
+ *      ○ matches()는 이름을 한 번만 읽는다. (규칙 수와 상관없이 O(이름 길이), 객체를 만들지 않음)
+ *      ○ 일치(exact) 규칙은 이름 전체를 읽은 상태가 규칙의 끝이고 깊이가 이름 길이와 같은지로 검사한다.
+ *  ● 상태 전이는 (상태, 문자)를 long 키로 하는 open addressing 테이블 하나에 담는다.
+ */
+public final class NameRules {
+
+    public static final NameRules EMPTY = compile(List.of());
+
+    private final long[] keys;
+
+    private final int[] targets;
+
+    private final int mask;
+
+    private final int[] fail;
+
+    private final int[] depth;
+
+    private final boolean[] exact;
+
+    private final boolean[] contains;
+
+    private final int size;
+
+    private NameRules(long[] keys, int[] targets, int[] fail, int[] depth, boolean[] exact, boolean[] contains, int size) {
+        this.keys = keys;
+        this.targets = targets;
+        this.mask = keys.length - 1;
+        this.fail = fail;
+        this.depth = depth;
+        this.exact = exact;
+        this.contains = contains;
+        this.size = size;
+    }
+
+    public static NameRules compile(Iterable<String> rules) {
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Boolean> exacts = new ArrayList<>();
+        List<Boolean> containses = new ArrayList<>();
+        children.add(new HashMap<>());
+        depths.add(0);
+        exacts.add(false);
+        containses.add(false);
+
+        int size = 0;
+        int edges = 0;
+        for (String rule : rules) {
+            String line = rule.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            boolean contain = line.length() > 2 && line.startsWith("*") && line.endsWith("*");
+            String term = contain ? line.substring(1, line.length() - 1) : line;
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char c = fold(term.charAt(i));
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(c, next);
+                    children.add(new HashMap<>());
+                    depths.add(i + 1);
+                    exacts.add(false);
+                    containses.add(false);
+                    edges++;
+                }
+                node = next;
+            }
+            if (contain) {
+                containses.set(node, true);
+            } else {
+                exacts.set(node, true);
+            }
+            size++;
+        }
+
+        int nodes = children.size();
+        int capacity = Integer.highestOneBit(Math.max(2, edges * 2 - 1)) << 1;
+        long[] keys = new long[capacity];
+        int[] targets = new int[capacity];
+        Arrays.fill(keys, -1L);
+        int[] fail = new int[nodes];
+        int[] depth = new int[nodes];
+        boolean[] exact = new boolean[nodes];
+        boolean[] contains = new boolean[nodes];
+        for (int node = 0; node < nodes; node++) {
+            depth[node] = depths.get(node);
+            exact[node] = exacts.get(node);
+            contains[node] = containses.get(node);
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                long key = key(node, edge.getKey());
+                int slot = slot(key, capacity - 1);
+                while (keys[slot] != -1L) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                keys[slot] = key;
+                targets[slot] = edge.getValue();
+            }
+        }
+        NameRules rulesSet = new NameRules(keys, targets, fail, depth, exact, contains, size);
+
+        // failure 링크 (BFS), contains는 failure 링크를 따라 물려받는다.
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                int child = edge.getValue();
+                int state = fail[node];
+                int next;
+                while ((next = rulesSet.next(state, edge.getKey())) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                fail[child] = next < 0 ? 0 : next;
+                contains[child] |= contains[fail[child]];
+                queue.add(child);
+            }
+        }
+        return rulesSet;
+    }
+
+    public boolean matches(CharSequence name) {
+        int state = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = fold(name.charAt(i));
+            int next;
+            while ((next = next(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+            if (contains[state]) {
+                return true;
+            }
+        }
+        return exact[state] && depth[state] == name.length();
+    }
+
+    /**
+     * 규칙 수 (주석, 빈 줄 제외)
+     */
+    public int size() {
+        return size;
+    }
+
+    private int next(int state, char c) {
+        long key = key(state, c);
+        for (int slot = slot(key, mask); keys[slot] != -1L; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return targets[slot];
+            }
+        }
+        return -1;
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    /**
+     * String.equalsIgnoreCase와 같은 문자 단위 비교
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,233 @@
+package com.jonghak.springbootweb.validation;
+
+import org.springframework.util.ReflectionUtils;
+
+import javax.validation.GroupSequence;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+import javax.validation.constraints.Future;
+import javax.validation.constraints.FutureOrPresent;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Null;
+import javax.validation.constraints.Past;
+import javax.validation.constraints.PastOrPresent;
+import javax.validation.constraints.Size;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * - (빈 클래스, 검증 그룹) 하나에 대해 미리 만들어 둔 제약 조건 검사 목록
+ *  ● Hibernate Validator 메타데이터에서 그룹에 해당하는 제약 조건을 한 번만 찾아서 (프로퍼티 읽기, 검사) 배열로 만든다.
+ *  ● isValid()는 "확실히 통과"인 경우에만 true, 위반이거나 판단할 수 없으면 false
+ *      ○ false이면 CompiledValidator가 Hibernate Validator로 다시 검증해서 에러를 만든다. (에러 내용은 항상 기존과 같음)
+ *      ○ 날짜(@Future 등)는 오늘 전후 하루는 판단하지 않는다. (시간대, ClockProvider 차이)
+ *
+ * - 미리 만들 수 없는 경우 (항상 Hibernate Validator로 검증)
+ *  ● @GroupSequence, 클래스 레벨 제약, @Valid(cascade), 컨테이너 요소 제약, 조합(composed) 제약
+ *  ● 아래 목록에 없는 제약, 지원하지 않는 프로퍼티 타입 (@Min의 BigDecimal, double 등)
+ *      ○ @NotNull, @Null, @NotEmpty, @NotBlank, @Size, @Min, @Max (정수 타입), @Future, @FutureOrPresent, @Past, @PastOrPresent (LocalDate)
+ */
+public final class ValidationPlan {
+
+    static final ValidationPlan ALWAYS_VALID = new ValidationPlan(new Check[0], false);
+
+    static final ValidationPlan FALLBACK = new ValidationPlan(new Check[0], true);
+
+    private final Check[] checks;
+
+    private final boolean fallback;
+
+    private ValidationPlan(Check[] checks, boolean fallback) {
+        this.checks = checks;
+        this.fallback = fallback;
+    }
+
+    public boolean isValid(Object target) {
+        if (fallback) {
+            return false;
+        }
+        for (Check check : checks) {
+            if (!check.test(target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hibernate Validator 없이 검사할 수 있는 plan인지 (false이면 매번 Hibernate Validator로 검증)
+     */
+    public boolean isCompiled() {
+        return !fallback;
+    }
+
+    public int size() {
+        return checks.length;
+    }
+
+    static ValidationPlan compile(javax.validation.Validator validator, Class<?> type, Class<?>[] groups) {
+        if (type.isAnnotationPresent(GroupSequence.class)) {
+            return FALLBACK;
+        }
+        for (Class<?> group : groups) {
+            if (group.isAnnotationPresent(GroupSequence.class)) {
+                return FALLBACK;
+            }
+        }
+        BeanDescriptor bean = validator.getConstraintsForClass(type);
+        if (!bean.isBeanConstrained()) {
+            return ALWAYS_VALID;
+        }
+        if (bean.findConstraints().unorderedAndMatchingGroups(groups).hasConstraints()) {
+            return FALLBACK;
+        }
+
+        List<Check> checks = new ArrayList<>();
+        for (PropertyDescriptor property : bean.getConstrainedProperties()) {
+            if (property.isCascaded() || !property.getConstrainedContainerElementTypes().isEmpty()) {
+                return FALLBACK;
+            }
+            for (ConstraintDescriptor<?> constraint : property.findConstraints().unorderedAndMatchingGroups(groups).getConstraintDescriptors()) {
+                Check check = compile(type, property.getPropertyName(), property.getElementClass(), constraint);
+                if (check == null) {
+                    return FALLBACK;
+                }
+                checks.add(check);
+            }
+        }
+        return checks.isEmpty() ? ALWAYS_VALID : new ValidationPlan(checks.toArray(new Check[0]), false);
+    }
+
+    private static Check compile(Class<?> type, String propertyName, Class<?> propertyType, ConstraintDescriptor<?> constraint) {
+        if (!constraint.getComposingConstraints().isEmpty()) {
+            return null;
+        }
+        Annotation annotation = constraint.getAnnotation();
+        Predicate<Object> predicate = predicate(annotation, propertyType);
+        if (predicate == null) {
+            return null;
+        }
+        // 제약 조건이 붙어 있는 곳(필드 또는 getter)에서 읽는다.
+        Field field = ReflectionUtils.findField(type, propertyName);
+        if (field != null && field.isAnnotationPresent(annotation.annotationType())) {
+            ReflectionUtils.makeAccessible(field);
+            return new Check(field, null, predicate);
+        }
+        String suffix = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        Method getter = ReflectionUtils.findMethod(type, "get" + suffix);
+        if (getter == null) {
+            getter = ReflectionUtils.findMethod(type, "is" + suffix);
+        }
+        if (getter != null && getter.isAnnotationPresent(annotation.annotationType())) {
+            ReflectionUtils.makeAccessible(getter);
+            return new Check(null, getter, predicate);
+        }
+        return null;
+    }
+
+    private static Predicate<Object> predicate(Annotation annotation, Class<?> type) {
+        if (annotation instanceof NotNull) {
+            return value -> value != null;
+        }
+        if (annotation instanceof Null) {
+            return value -> value == null;
+        }
+        if (annotation instanceof NotEmpty) {
+            return hasSize(type) ? value -> value != null && size(value) > 0 : null;
+        }
+        if (annotation instanceof NotBlank) {
+            return CharSequence.class.isAssignableFrom(type) ? value -> value != null && !isBlank((CharSequence) value) : null;
+        }
+        if (annotation instanceof Size) {
+            int min = ((Size) annotation).min();
+            int max = ((Size) annotation).max();
+            return hasSize(type) ? value -> value == null || size(value) >= min && size(value) <= max : null;
+        }
+        if (annotation instanceof Min) {
+            long min = ((Min) annotation).value();
+            return isIntegral(type) ? value -> value == null || ((Number) value).longValue() >= min : null;
+        }
+        if (annotation instanceof Max) {
+            long max = ((Max) annotation).value();
+            return isIntegral(type) ? value -> value == null || ((Number) value).longValue() <= max : null;
+        }
+        if (type != LocalDate.class) {
+            return null;
+        }
+        if (annotation instanceof Future || annotation instanceof FutureOrPresent) {
+            return value -> value == null || ((LocalDate) value).isAfter(LocalDate.now().plusDays(1));
+        }
+        if (annotation instanceof Past || annotation instanceof PastOrPresent) {
+            return value -> value == null || ((LocalDate) value).isBefore(LocalDate.now().minusDays(1));
+        }
+        return null;
+    }
+
+    private static boolean hasSize(Class<?> type) {
+        return CharSequence.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type) || type.isArray();
+    }
+
+    private static int size(Object value) {
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size();
+        }
+        return Array.getLength(value);
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return type == Integer.class || type == int.class || type == Long.class || type == long.class
+                || type == Short.class || type == short.class || type == Byte.class || type == byte.class;
+    }
+
+    /**
+     * Hibernate Validator의 NotBlankValidator와 같음 (String.trim()한 길이가 0)
+     */
+    private static boolean isBlank(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Check {
+
+        private final Field field;
+
+        private final Method getter;
+
+        private final Predicate<Object> predicate;
+
+        private Check(Field field, Method getter, Predicate<Object> predicate) {
+            this.field = field;
+            this.getter = getter;
+            this.predicate = predicate;
+        }
+
+        private boolean test(Object target) {
+            Object value = field != null ? ReflectionUtils.getField(field, target) : ReflectionUtils.invokeMethod(getter, target);
+            return predicate.test(value);
+        }
+    }
+}
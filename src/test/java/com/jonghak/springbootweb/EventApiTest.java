@@ -1,6 +1,7 @@
 package com.jonghak.springbootweb;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -9,8 +10,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -73,4 +76,152 @@ class EventApiTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void createEventResponseEntityDeniedName() throws Exception {
+        Event event = new Event();
+        event.setName("AAA");
+        event.setLimit(10);
+
+        String jsonParam = objectMapper.writeValueAsString(event);
+
+        // @UsesAdvice(binder = "event") : BaseController의 EventValidatorImpl이 적용된다.
+        this.mockMvc.perform(post("/api/events/responseEntity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonParam))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createEventResponseEntitySaved() throws Exception {
+        Event event = new Event();
+        event.setName("saved");
+        event.setLimit(10);
+
+        String jsonParam = objectMapper.writeValueAsString(event);
+
+        // 저장소에서 ID를 부여받는다.
+        this.mockMvc.perform(post("/api/events/responseEntity")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonParam))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").isNumber())
+                .andExpect(jsonPath("name").value("saved"));
+    }
+
+    @Test
+    void createEventsBatch() throws Exception {
+        String events = "["
+                + "{\"name\":\"jonghak\",\"limit\":20},"
+                + "{\"name\":\"\",\"limit\":-1},"
+                + "{\"name\":\"typo\",\"limit\":\"twenty\",\"startDate\":{\"nested\":[1,2]}},"
+                + "{\"name\":\"aaa\",\"limit\":1},"
+                + "null,"
+                + "{\"name\":\"last\",\"limit\":0}"
+                + "]";
+
+        this.mockMvc.perform(post("/api/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(events))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].accepted").value(true))
+                .andExpect(jsonPath("$[1].accepted").value(false))
+                .andExpect(jsonPath("$[1].errors.length()").value(2))
+                .andExpect(jsonPath("$[2].errors[0].code").value("typeMismatch"))
+                .andExpect(jsonPath("$[3].errors[0].code").value("wrongValue"))
+                .andExpect(jsonPath("$[4].errors[0].code").value("nullItem"))
+                .andExpect(jsonPath("$[5].index").value(5))
+                .andExpect(jsonPath("$[5].accepted").value(true));
+    }
+
+    @Test
+    void createEventsBatchSaveFailed() throws Exception {
+        // 로그 레코드로 만들 수 없는 이름 (64KB 초과), 그 항목만 저장에 실패한다.
+        String tooLong = "x".repeat(70_000);
+        String events = "["
+                + "{\"name\":\"before\",\"limit\":1},"
+                + "{\"name\":\"" + tooLong + "\",\"limit\":1},"
+                + "{\"name\":\"after\",\"limit\":1}"
+                + "]";
+
+        this.mockMvc.perform(post("/api/events/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(events))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].accepted").value(true))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].accepted").value(false))
+                .andExpect(jsonPath("$[1].errors[0].code").value("saveFailed"))
+                .andExpect(jsonPath("$[2].accepted").value(true));
+    }
+
+    @Test
+    void createEventsBatchNdjson() throws Exception {
+        String events = "{\"name\":\"first\",\"limit\":1}\n"
+                + "{\"name\":\"second\",\"limit\":-5}\n"
+                + "{\"name\":\"broken\",";
+
+        String[] results = this.mockMvc.perform(post("/api/events/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(events))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        // 한 줄에 결과 하나, 문법이 깨진 마지막 항목에서 멈춘다.
+        assertEquals(3, results.length);
+        assertEquals("{\"index\":0,\"accepted\":true}", results[0]);
+        assertTrue(results[1].startsWith("{\"index\":1,\"accepted\":false,\"errors\":[{\"field\":\"limit\",\"code\":\"Min\""));
+        assertTrue(results[2].startsWith("{\"index\":2,\"accepted\":false,\"errors\":[{\"code\":\"invalidJson\""));
+    }
+
+    @Test
+    void getEvents() throws Exception {
+        // 이전 실행에서 저장된 Event와 겹치지 않는 이름
+        String prefix = "list-" + System.nanoTime() + "-";
+        for (int i = 0; i < 3; i++) {
+            Event event = new Event();
+            event.setName(prefix + i);
+            event.setLimit(i);
+            this.mockMvc.perform(post("/api/events/responseEntity")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(event)))
+                    .andExpect(status().isOk());
+        }
+
+        String page = this.mockMvc.perform(get("/api/events")
+                        .param("name", prefix)
+                        .param("size", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(2))
+                .andExpect(jsonPath("$.events[0].name").value(prefix + 0))
+                .andExpect(jsonPath("$.next").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        this.mockMvc.perform(get("/api/events")
+                        .param("name", prefix)
+                        .param("size", "2")
+                        .param("cursor", JsonPath.<String>read(page, "$.next")))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(1))
+                .andExpect(jsonPath("$.events[0].name").value(prefix + 2))
+                .andExpect(jsonPath("$.next").isEmpty());
+
+        this.mockMvc.perform(get("/api/events").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        // 범위를 벗어난 startDate cursor
+        this.mockMvc.perform(get("/api/events")
+                        .param("startDateFrom", "2030-01-01")
+                        .param("cursor", "An__________AAAAAA"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,162 @@
+package com.jonghak.springbootweb;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRepositoryTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void eventsAreReloaded() throws Exception {
+        Path logFile = root.resolve("events.log");
+        EventRepository repository = new EventRepository(logFile, EventRepository.Durability.WRITE, 16, Duration.ofMillis(5), 128);
+        Event saved = repository.save(event("spring", 10, LocalDate.of(2030, 1, 1)));
+        repository.save(event(null, null, null));
+        repository.close();
+
+        EventRepository reloaded = new EventRepository(logFile, EventRepository.Durability.WRITE, 16, Duration.ofMillis(5), 128);
+        assertEquals(2, reloaded.count());
+        Event found = reloaded.findById(saved.getId()).orElseThrow();
+        assertEquals("spring", found.getName());
+        assertEquals(10, found.getLimit());
+        assertEquals(LocalDate.of(2030, 1, 1), found.getStartDate());
+        assertNull(reloaded.findById(saved.getId() + 1).orElseThrow().getName());
+
+        // ID는 이어서 부여된다.
+        assertEquals(saved.getId() + 2, reloaded.save(event("next", 1, null)).getId());
+        reloaded.close();
+    }
+
+    @Test
+    void concurrentSavesAreGroupCommitted() throws Exception {
+        Path logFile = root.resolve("events.log");
+        EventRepository repository = new EventRepository(logFile, EventRepository.Durability.FSYNC, 64, Duration.ofMillis(20), 4096);
+
+        List<CompletableFuture<Event>> saves = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            saves.add(repository.saveAsync(event("event" + i, i, null)));
+        }
+        CompletableFuture.allOf(saves.toArray(new CompletableFuture[0])).join();
+        repository.close();
+
+        assertEquals(1000, new EventRepository(logFile, EventRepository.Durability.NONE, 64, Duration.ofMillis(20), 16).count());
+    }
+
+    @Test
+    void truncatedRecordIsDropped() throws Exception {
+        Path logFile = root.resolve("events.log");
+        EventRepository repository = new EventRepository(logFile, EventRepository.Durability.WRITE, 16, Duration.ofMillis(5), 128);
+        repository.save(event("first", 1, null));
+        repository.save(event("second", 2, null));
+        repository.close();
+
+        // 마지막 레코드를 쓰는 도중 종료된 경우
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(logFile) - 3);
+        }
+
+        EventRepository reloaded = new EventRepository(logFile, EventRepository.Durability.WRITE, 16, Duration.ofMillis(5), 128);
+        assertEquals(1, reloaded.count());
+        assertEquals("first", reloaded.findById(1).orElseThrow().getName());
+        reloaded.close();
+    }
+
+    @Test
+    void failedEventIsNotIndexed() throws Exception {
+        Path logFile = root.resolve("events.log");
+        EventRepository repository = new EventRepository(logFile, EventRepository.Durability.WRITE, 16, Duration.ofMillis(20), 128);
+        CompletableFuture<Event> first = repository.saveAsync(event("first", 1, null));
+        // writeUTF로 기록할 수 없는 이름
+        Event tooLongName = event("x".repeat(70000), 2, null);
+        CompletableFuture<Event> tooLong = repository.saveAsync(tooLongName);
+        CompletableFuture<Event> last = repository.saveAsync(event("last", 3, null));
+
+        assertEquals("first", first.join().getName());
+        assertThrows(CompletionException.class, tooLong::join);
+        assertEquals("last", last.join().getName());
+        assertEquals(2, repository.count());
+        assertTrue(repository.findById(tooLongName.getId()).isEmpty());
+        repository.close();
+
+        EventRepository reloaded = new EventRepository(logFile, EventRepository.Durability.WRITE, 16, Duration.ofMillis(5), 128);
+        assertEquals(2, reloaded.count());
+        reloaded.close();
+    }
+
+    @Test
+    void findUsesIndexAndCursor() throws Exception {
+        EventRepository repository = new EventRepository(root.resolve("events.log"), EventRepository.Durability.WRITE, 16, Duration.ofMillis(5), 128);
+        for (int i = 0; i < 10; i++) {
+            repository.save(event((i % 2 == 0 ? "spring" : "summer") + i, i, LocalDate.of(2030, 1, 10 - i)));
+        }
+
+        // name 접두어 + limit 범위
+        EventQuery query = new EventQuery();
+        query.setName("spring");
+        query.setLimitFrom(3);
+        assertEquals(List.of("spring4", "spring6", "spring8"), names(repository.find(query, null), 10));
+
+        // startDate 인덱스 순서로 두 개씩 읽기
+        query = new EventQuery();
+        query.setStartDateFrom(LocalDate.of(2030, 1, 2));
+        query.setStartDateTo(LocalDate.of(2030, 1, 6));
+        Iterator<Event> page = repository.find(query, null);
+        Event last = null;
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            last = page.next();
+            names.add(last.getName());
+        }
+        assertEquals(List.of("spring8", "summer7"), names);
+        assertEquals(List.of("spring6", "summer5"), names(repository.find(query, repository.cursorOf(query, last)), 2));
+
+        // 다른 조건으로 만든 cursor
+        String cursor = repository.cursorOf(query, last);
+        assertThrows(IllegalArgumentException.class, () -> repository.find(new EventQuery(), cursor));
+
+        // 범위를 벗어난 날짜, 뒤에 남는 byte
+        byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        byte[] outOfRange = bytes.clone();
+        outOfRange[1] = Byte.MAX_VALUE;
+        EventQuery startDateQuery = query;
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.find(startDateQuery, Base64.getUrlEncoder().encodeToString(outOfRange)));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.find(startDateQuery, Base64.getUrlEncoder().encodeToString(Arrays.copyOf(bytes, bytes.length + 1))));
+        repository.close();
+    }
+
+    private List<String> names(Iterator<Event> events, int size) {
+        List<String> names = new ArrayList<>();
+        while (names.size() < size && events.hasNext()) {
+            names.add(events.next().getName());
+        }
+        return names;
+    }
+
+    private Event event(String name, Integer limit, LocalDate startDate) {
+        Event event = new Event();
+        event.setName(name);
+        event.setLimit(limit);
+        event.setStartDate(startDate);
+        return event;
+    }
+}
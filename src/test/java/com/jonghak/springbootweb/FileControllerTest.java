@@ -1,21 +1,36 @@
 package com.jonghak.springbootweb;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
-@SpringBootTest
+@SpringBootTest(properties = "app.file.upload.min-chunk-size=1B")
 @AutoConfigureMockMvc
 class FileControllerTest {
 
@@ -32,6 +47,270 @@ class FileControllerTest {
         this.mockMvc.perform(multipart("/file")
                 .file(file))
                 .andDo(print())
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("message", "test.txt is uploaded"));
+    }
+
+    /**
+     * MockMultipartFile을 쓰지 않고 multipart 본문을 그대로 보내서 스트리밍 업로드 경로를 확인
+     */
+    @Test
+    void fileUploadStreaming() throws Exception {
+        String body = "--boundary\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"stream.txt\"\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "\r\n"
+                + "hello stream\r\n"
+                + "--boundary--\r\n";
+
+        this.mockMvc.perform(post("/file")
+                        .contentType("multipart/form-data; boundary=boundary")
+                        .content(body.getBytes(StandardCharsets.UTF_8)))
+                .andDo(print())
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("message", "stream.txt is uploaded"));
+
+        // 실행 중에 업로드한 파일도 다운로드 가능
+        this.mockMvc.perform(get("/file/stream.txt"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello stream"));
+    }
+
+    @Test
+    void fileDownloadNotFound() throws Exception {
+        this.mockMvc.perform(get("/file/not-exists.txt"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void chunkedUpload() throws Exception {
+        String init = this.mockMvc.perform(post("/file/uploads")
+                        .param("filename", "chunked.txt")
+                        .param("size", "10")
+                        .param("chunkSize", "4"))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("chunkCount").value(3))
+                .andReturn().getResponse().getContentAsString();
+        String uploadId = JsonPath.read(init, "$.uploadId");
+
+        // 순서와 상관없이 전송
+        this.mockMvc.perform(put("/file/uploads/{uploadId}/chunks/{index}", uploadId, 2).content("89"))
+                .andExpect(status().isNoContent());
+        this.mockMvc.perform(put("/file/uploads/{uploadId}/chunks/{index}", uploadId, 0).content("0123"))
+                .andExpect(status().isNoContent());
+
+        // 끊긴 경우 남은 청크 확인
+        this.mockMvc.perform(get("/file/uploads/{uploadId}", uploadId))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("receivedChunks").value(2))
+                .andExpect(jsonPath("missingChunks[0]").value(1));
+        this.mockMvc.perform(post("/file/uploads/{uploadId}/commit", uploadId))
+                .andExpect(status().isConflict());
+
+        this.mockMvc.perform(put("/file/uploads/{uploadId}/chunks/{index}", uploadId, 1).content("4567"))
+                .andExpect(status().isNoContent());
+        this.mockMvc.perform(post("/file/uploads/{uploadId}/commit", uploadId))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("filename").value("chunked.txt"))
+                .andExpect(jsonPath("size").value(10));
+
+        this.mockMvc.perform(get("/file/chunked.txt"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void chunkedUploadWrongChunkSize() throws Exception {
+        String init = this.mockMvc.perform(post("/file/uploads")
+                        .param("filename", "chunked.txt")
+                        .param("size", "10")
+                        .param("chunkSize", "4"))
+                .andReturn().getResponse().getContentAsString();
+        String uploadId = JsonPath.read(init, "$.uploadId");
+
+        this.mockMvc.perform(put("/file/uploads/{uploadId}/chunks/{index}", uploadId, 0).content("01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void chunkedUploadTooManyChunks() throws Exception {
+        this.mockMvc.perform(post("/file/uploads")
+                        .param("filename", "chunked.txt")
+                        .param("size", "10000000000")
+                        .param("chunkSize", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void chunkedUploadInvalidFilename() throws Exception {
+        // 청크를 받기 전에 저장소에서 거절될 파일명(제어 문자, 255자 초과)을 거절한다.
+        for (String filename : new String[]{"bad\u0001name.txt", "x".repeat(256)}) {
+            this.mockMvc.perform(post("/file/uploads")
+                            .param("filename", filename)
+                            .param("size", "10"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void fileUploadInvalidFilename() throws Exception {
+        this.mockMvc.perform(multipart("/file")
+                        .file(new MockMultipartFile("file", "bad\u0001name.txt", "text/plain", "hello".getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void fileDownload() throws Exception {
+        this.mockMvc.perform(get("/file/test.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void fileDownloadNotModified() throws Exception {
+        String etag = this.mockMvc.perform(get("/file/test.jpg"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void fileDownloadRange() throws Exception {
+        byte[] content = this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.RANGE, "bytes=0-1"))
+                .andDo(print())
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, startsWith("bytes 0-1/")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // JPEG SOI marker
+        assertArrayEquals(new byte[]{(byte) 0xFF, (byte) 0xD8}, content);
+    }
+
+    @Test
+    void fileDownloadMultipleRanges() throws Exception {
+        this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.RANGE, "bytes=0-9,20-29"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges")));
+    }
+
+    @Test
+    void fileDownloadIfRangeMismatch() throws Exception {
+        this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.RANGE, "bytes=0-1")
+                        .header(HttpHeaders.IF_RANGE, "\"changed\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void fileDownloadRangeNotSatisfiable() throws Exception {
+        this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.RANGE, "bytes=999999999-"))
+                .andDo(print())
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void fileDownloadGzip() throws Exception {
+        String text = "compressible text line\n".repeat(200);
+        this.mockMvc.perform(multipart("/file")
+                        .file(new MockMultipartFile("file", "gzip.txt", "text/plain", text.getBytes(StandardCharsets.UTF_8))))
+                .andExpect(status().is3xxRedirection());
+
+        // 처음 요청에서 압축한 variant를 두 번째 요청에서는 캐시에서 보낸다.
+        for (int i = 0; i < 2; i++) {
+            byte[] compressed = this.mockMvc.perform(get("/file/gzip.txt")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.ETAG, endsWith("-gzip\"")))
+                    .andReturn().getResponse().getContentAsByteArray();
+            assertTrue(compressed.length < text.length());
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        // gzip을 받지 않는 클라이언트는 원본
+        this.mockMvc.perform(get("/file/gzip.txt")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().string(text));
+    }
+
+    @Test
+    void fileDownloadGzipWithoutSendfile() throws Exception {
+        // 압축해도 48KB(sendfile 기준)가 넘는 텍스트
+        StringBuilder builder = new StringBuilder();
+        Random random = new Random(1);
+        while (builder.length() < 256 * 1024) {
+            builder.append(Long.toHexString(random.nextLong())).append('\n');
+        }
+        String text = builder.toString();
+        this.mockMvc.perform(multipart("/file")
+                        .file(new MockMultipartFile("file", "sendfile.txt", "text/plain", text.getBytes(StandardCharsets.UTF_8))))
                 .andExpect(status().is3xxRedirection());
+
+        // variant는 unpin 이후에 커넥터가 열지 않도록 sendfile 속성 없이 본문으로 보낸다.
+        MvcResult result = this.mockMvc.perform(get("/file/sendfile.txt")
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        assertNull(result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"));
+        byte[] compressed = result.getResponse().getContentAsByteArray();
+        assertTrue(compressed.length >= 48 * 1024, "compressed " + compressed.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // 원본은 sendfile
+        result = this.mockMvc.perform(get("/file/sendfile.txt")
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        assertNotNull(result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    @Test
+    void fileDownloadPrecompressed() throws Exception {
+        byte[] brotli = {11, 2, -128, 104, 101, 108, 108, 111, 3};
+        this.mockMvc.perform(multipart("/file")
+                        .file(new MockMultipartFile("file", "pre.json", "application/json", "{\"hello\":1}".getBytes(StandardCharsets.UTF_8)))
+                        .file(new MockMultipartFile("file", "pre.json.br", "application/octet-stream", brotli)))
+                .andExpect(status().is3xxRedirection());
+
+        this.mockMvc.perform(get("/file/pre.json")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"))
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(content().bytes(brotli));
+    }
+
+    @Test
+    void fileDownloadCompressedTypeSkipped() throws Exception {
+        // image/jpeg 는 이미 압축된 형식
+        this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().doesNotExist(HttpHeaders.VARY));
     }
-}
\ No newline at end of file
+}
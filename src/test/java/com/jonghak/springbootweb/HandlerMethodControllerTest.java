@@ -4,15 +4,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import com.jonghak.springbootweb.session.StoreSessionAttributeStore;
+import com.jonghak.springbootweb.session.TokenFlashMapManager;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.HttpSessionRequiredException;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.servlet.http.Cookie;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -76,12 +85,60 @@ class HandlerMethodControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(view().name("events/formSubmit"))
                 .andExpect(model().attributeExists("event"))
-                .andExpect(request().sessionAttribute("event", notNullValue()))
+                // @SessionAttributes("event")는 HttpSession이 아니라 세션 저장소에 들어간다.
+                .andExpect(cookie().exists(StoreSessionAttributeStore.SESSION_COOKIE))
                 .andReturn().getRequest();
 
-        Object event = request.getSession().getAttribute("event");
-        System.out.println(event);
+        assertNull(request.getSession(false));
+    }
+
+    @Test
+    public void eventsFormWizard() throws Exception {
+        Cookie sessionCookie = this.mockMvc.perform(get("/events/form/name"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(StoreSessionAttributeStore.SESSION_COOKIE);
+        assertNotNull(sessionCookie);
+
+        this.mockMvc.perform(post("/events/form/name")
+                        .cookie(sessionCookie)
+                        .param("name", "wizard")
+                        .param("limit", "20"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(cookie().doesNotExist(StoreSessionAttributeStore.SESSION_COOKIE));
+
+        // 다음 화면에서 세션 저장소의 event를 읽는다.
+        this.mockMvc.perform(get("/events/form/limit").cookie(sessionCookie))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("event", hasProperty("name", is("wizard"))));
+
+        // 완료(sessionStatus.setComplete)하면 세션 저장소에서 지운다.
+        MockHttpServletResponse redirect = this.mockMvc.perform(post("/events/form/limit")
+                        .cookie(sessionCookie)
+                        .param("limit", "30"))
+                .andExpect(status().is3xxRedirection())
+                .andReturn().getResponse();
+
+        // flashEvent는 리다이렉트 응답의 FLASH_{token} 쿠키로 찾는다. (세션 사용 안 함)
+        Cookie flashCookie = Arrays.stream(redirect.getCookies())
+                .filter(cookie -> cookie.getName().startsWith(TokenFlashMapManager.COOKIE_PREFIX))
+                .findFirst().orElseThrow();
+        // 다른 경로로 가는 요청에는 보내지 않는다.
+        assertEquals("/events/list", flashCookie.getPath());
+        this.mockMvc.perform(get("/events/list")
+                        .cookie(flashCookie)
+                        .param("name", "wizard")
+                        .param("limit", "30"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("flashEvent", hasProperty("name", is("wizard"))))
+                .andExpect(cookie().maxAge(flashCookie.getName(), 0));
 
+        // 한 번 꺼낸 FlashMap은 다시 쓸 수 없다.
+        this.mockMvc.perform(get("/events/list").cookie(flashCookie))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("flashEvent", hasProperty("name", nullValue())));
+        assertThrows(HttpSessionRequiredException.class, () -> this.mockMvc.perform(post("/events/form/limit")
+                .cookie(sessionCookie)
+                .param("limit", "30")));
     }
 
     /**
@@ -0,0 +1,80 @@
+package com.jonghak.springbootweb;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * - 부하 테스트(main으로 실행하는 *LoadTest)에서 같이 쓰는 요청 생성기
+ *  ● 같은 요청을 concurrency 개 동시에 보내고 응답마다 걸린 시간을 기록한다.
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static Result run(HttpClient client, HttpRequest request, int concurrency) {
+        long[] latencies = new long[concurrency];
+        List<CompletableFuture<Boolean>> responses = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            int index = i;
+            long sent = System.nanoTime();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, e) -> {
+                        latencies[index] = (System.nanoTime() - sent) / 1_000_000;
+                        return e == null && response.statusCode() / 100 == 2;
+                    }));
+        }
+        int ok = 0;
+        for (CompletableFuture<Boolean> response : responses) {
+            if (response.join()) {
+                ok++;
+            }
+        }
+        return new Result(ok, (System.nanoTime() - start) / 1_000_000, latencies);
+    }
+
+    public static final class Result {
+
+        private final int ok;
+
+        private final long elapsedMillis;
+
+        private final long[] sortedLatencies;
+
+        private Result(int ok, long elapsedMillis, long[] latencies) {
+            this.ok = ok;
+            this.elapsedMillis = Math.max(1, elapsedMillis);
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+        }
+
+        public int getOk() {
+            return ok;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getThroughput() {
+            return ok * 1000.0 / elapsedMillis;
+        }
+
+        public long percentile(int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ok=%d elapsed=%dms throughput=%.0f/s p50=%dms p99=%dms max=%dms",
+                    ok, elapsedMillis, getThroughput(), percentile(50), percentile(99), percentile(100));
+        }
+    }
+}
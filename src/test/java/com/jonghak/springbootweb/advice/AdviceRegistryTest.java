@@ -0,0 +1,166 @@
+package com.jonghak.springbootweb.advice;
+
+import com.jonghak.springbootweb.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.propertyeditors.StringTrimmerEditor;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdviceRegistryTest {
+
+    private static final AtomicInteger CATEGORIES_CALLS = new AtomicInteger();
+
+    private static final AtomicInteger BINDER_CALLS = new AtomicInteger();
+
+    private AdviceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        CATEGORIES_CALLS.set(0);
+        BINDER_CALLS.set(0);
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(TestAdvice.class);
+        context.registerBean(EditorAdvice.class);
+        context.registerBean(TestController.class);
+        context.refresh();
+        registry = new AdviceRegistry();
+        registry.setApplicationContext(context);
+    }
+
+    @Test
+    void populatesSharedModelOnlyForDeclaringHandlers() throws Exception {
+        ModelAndViewContainer view = new ModelAndViewContainer();
+        registry.getPlan(handler("view")).populateModel(view);
+        assertEquals(List.of("study", "seminar"), view.getModel().get("categories"));
+
+        ModelAndViewContainer api = new ModelAndViewContainer();
+        registry.getPlan(handler("api")).populateModel(api);
+        assertTrue(api.getModel().isEmpty());
+        assertTrue(registry.getPlan(handler("none")).isEmpty());
+
+        // 이미 모델에 있는 값(세션, flash attribute)은 바꾸지 않는다.
+        ModelAndViewContainer flash = new ModelAndViewContainer();
+        flash.addAttribute("categories", List.of("flash"));
+        registry.getPlan(handler("view")).populateModel(flash);
+        assertEquals(List.of("flash"), flash.getModel().get("categories"));
+
+        for (int i = 0; i < 10; i++) {
+            registry.getPlan(handler("view")).populateModel(new ModelAndViewContainer());
+        }
+        assertEquals(1, CATEGORIES_CALLS.get());
+    }
+
+    @Test
+    void replaysRecordedBinderSettings() throws Exception {
+        for (String handler : List.of("view", "api")) {
+            WebDataBinder event = new WebDataBinder(new Event(), "event");
+            registry.getPlan(handler(handler)).initBinder(event);
+            assertArrayEquals(new String[]{"name", "limit"}, event.getAllowedFields());
+            assertArrayEquals(new String[]{"id"}, event.getDisallowedFields());
+            assertEquals(1, event.getValidators().size());
+
+            WebDataBinder other = new WebDataBinder(new Event(), "other");
+            registry.getPlan(handler(handler)).initBinder(other);
+            assertNull(other.getAllowedFields());
+            assertTrue(other.getValidators().isEmpty());
+        }
+
+        WebDataBinder none = new WebDataBinder(new Event(), "event");
+        registry.getPlan(handler("none")).initBinder(none);
+        assertNull(none.getAllowedFields());
+
+        // binder 이름별로 한 번만 호출해서 기록한다.
+        assertEquals(1, BINDER_CALLS.get());
+    }
+
+    @Test
+    void rejectsUnknownDeclarationAndUnsharableSettings() {
+        assertThrows(IllegalStateException.class, () -> registry.getPlan(handler("unknown")));
+        assertThrows(IllegalStateException.class, () -> registry.getPlan(
+                new HandlerMethod(new EditorController(), EditorController.class.getMethod("editor"))));
+    }
+
+    private HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new TestController(), TestController.class.getMethod(name));
+    }
+
+    @ControllerAdvice(assignableTypes = TestController.class)
+    static class TestAdvice {
+
+        @SharedModelAttribute("categories")
+        public List<String> categories() {
+            CATEGORIES_CALLS.incrementAndGet();
+            return List.of("study", "seminar");
+        }
+
+        @SharedInitBinder("event")
+        public void initEventBinder(WebDataBinder webDataBinder) {
+            BINDER_CALLS.incrementAndGet();
+            webDataBinder.setDisallowedFields("id");
+            webDataBinder.setAllowedFields("name", "limit");
+            webDataBinder.addValidators(new NoOpValidator());
+        }
+    }
+
+    @ControllerAdvice(assignableTypes = EditorController.class)
+    static class EditorAdvice {
+
+        @SharedInitBinder
+        public void initEditorBinder(WebDataBinder webDataBinder) {
+            webDataBinder.registerCustomEditor(String.class, new StringTrimmerEditor(true));
+        }
+    }
+
+    static class TestController {
+
+        public String view() {
+            return "events/list";
+        }
+
+        @UsesAdvice(binder = "event")
+        public String api() {
+            return "api";
+        }
+
+        @UsesAdvice
+        public String none() {
+            return "none";
+        }
+
+        @UsesAdvice(model = "unknown")
+        public String unknown() {
+            return "unknown";
+        }
+    }
+
+    static class EditorController {
+
+        @UsesAdvice(binder = "event")
+        public String editor() {
+            return "editor";
+        }
+    }
+
+    static class NoOpValidator implements Validator {
+
+        @Override
+        public boolean supports(Class<?> clazz) {
+            return true;
+        }
+
+        @Override
+        public void validate(Object target, Errors errors) {
+        }
+    }
+}
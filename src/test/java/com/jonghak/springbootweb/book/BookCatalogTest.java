@@ -0,0 +1,50 @@
+package com.jonghak.springbootweb.book;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCatalogTest {
+
+    @Test
+    void authorsAreInterned() {
+        BookCatalog bookCatalog = new BookCatalog();
+        Book first = bookCatalog.save(book("first", author(7L, "kim"), author(8L, "lee")));
+        Book second = bookCatalog.save(book("second", author(7L, "kim")));
+
+        Author shared = second.getAuthors().iterator().next();
+        assertTrue(first.getAuthors().stream().anyMatch(author -> author == shared));
+        assertEquals(2, bookCatalog.authorCount());
+    }
+
+    @Test
+    void pageFollowsIdOrder() {
+        BookCatalog bookCatalog = new BookCatalog();
+        for (int i = 0; i < 5; i++) {
+            bookCatalog.save(book("book" + i));
+        }
+
+        assertEquals(List.of(1L, 2L), List.copyOf(bookCatalog.page(null, 2).keySet()));
+        assertEquals(List.of(3L, 4L), List.copyOf(bookCatalog.page(2L, 2).keySet()));
+        assertEquals(List.of(5L), List.copyOf(bookCatalog.page(4L, 2).keySet()));
+        assertTrue(bookCatalog.page(5L, 2).isEmpty());
+        assertFalse(bookCatalog.hasNext(5L));
+    }
+
+    private Book book(String title, Author... authors) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthors(Set.of(authors));
+        return book;
+    }
+
+    private Author author(Long id, String lastName) {
+        Author author = new Author();
+        author.setId(id);
+        author.setLastName(lastName);
+        return author;
+    }
+}
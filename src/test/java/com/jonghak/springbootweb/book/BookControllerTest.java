@@ -1,15 +1,28 @@
 package com.jonghak.springbootweb.book;
 
+import com.jonghak.springbootweb.cache.ResponseCache;
+import com.jonghak.springbootweb.json.JsonViewWriters;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.net.URI;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -19,11 +32,141 @@ class BookControllerTest {
     @Autowired
     MockMvc mockMvc;
 
+    @Autowired
+    JsonViewWriters jsonViewWriters;
+
+    @Autowired
+    BookCatalog bookCatalog;
+
+    @Autowired
+    ResponseCache responseCache;
+
     @Test
     public void getBook() throws Exception {
         this.mockMvc.perform(get("/books"))
                 .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("spring boot"))
+                .andExpect(jsonPath("$[0].authors[0].firstName").value("jonghak"))
+                .andExpect(jsonPath("$[0].authors[0].email").doesNotExist())
+                // 방문 시각 인터셉터가 세션을 만들지 않음
+                .andExpect(result -> assertNull(result.getRequest().getSession(false)));
+
+        // (List<Book>, ComplexView) ObjectWriter가 캐시되어 있음
+        assertTrue(jsonViewWriters.size() > 0);
+    }
+
+    @Test
+    public void getBooksPage() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Book book = new Book();
+            book.setTitle("page " + i);
+            bookCatalog.save(book);
+        }
+
+        String next = this.mockMvc.perform(get("/books").param("pageSize", "2").param("view", "simple"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].authors").doesNotExist())
+                .andExpect(header().string(HttpHeaders.LINK, containsString("after=")))
+                .andReturn().getResponse().getHeader(HttpHeaders.LINK);
+
+        String nextUri = next.substring(next.indexOf('<') + 1, next.indexOf('>'));
+        this.mockMvc.perform(get(URI.create(nextUri)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(bookCatalog.page(null, 3).lastKey()));
+
+        this.mockMvc.perform(get("/books").param("view", "unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getBooksCompact() throws Exception {
+        Author author = new Author();
+        author.setId(200L);
+        author.setFirstName("shared");
+        author.setEmail("shared@email.com");
+        for (int i = 0; i < 2; i++) {
+            Author copy = new Author();
+            copy.setId(author.getId());
+            copy.setFirstName(author.getFirstName());
+            Book book = new Book();
+            book.setTitle("compact " + i);
+            book.setAuthors(Set.of(i == 0 ? author : copy));
+            bookCatalog.save(book);
+        }
+        Long after = bookCatalog.page(null, bookCatalog.size()).lastKey() - 2;
+
+        // Author는 authors 배열에 한 번만, 책에는 id만
+        this.mockMvc.perform(get("/books").param("after", after.toString()).param("compact", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(2))
+                .andExpect(jsonPath("$.books[0].authors[0]").value(200))
+                .andExpect(jsonPath("$.books[1].authors[0]").value(200))
+                .andExpect(jsonPath("$.authors.length()").value(1))
+                .andExpect(jsonPath("$.authors[0].firstName").value("shared"))
+                .andExpect(jsonPath("$.authors[0].email").doesNotExist());
+
+        this.mockMvc.perform(get("/books").param("after", after.toString()).param("compact", "true").param("view", "simple"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].authors").doesNotExist())
+                .andExpect(jsonPath("$.authors").doesNotExist());
+    }
+
+    @Test
+    public void getBooksConditional() throws Exception {
+        String etag = this.mockMvc.perform(get("/books").param("pageSize", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("no-cache")))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // 변경이 없으면 본문 없이 304
+        this.mockMvc.perform(get("/books").param("pageSize", "2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // HEAD도 조건부 요청으로 처리
+        this.mockMvc.perform(head("/books").param("pageSize", "2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // 다른 미디어 타입을 요청하면 다른 ETag
+        this.mockMvc.perform(get("/books").param("pageSize", "2").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, etag))
                 .andExpect(status().isOk());
+
+        // 다른 페이지는 다른 ETag
+        this.mockMvc.perform(get("/books").param("pageSize", "3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        // 책이 추가되면 새로 받는다.
+        Book book = new Book();
+        book.setTitle("conditional");
+        bookCatalog.save(book);
+        this.mockMvc.perform(get("/books").param("pageSize", "2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getBooksCached() throws Exception {
+        String body = this.mockMvc.perform(get("/books").param("pageSize", "1").param("view", "simple"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long hits = responseCache.stats().getHits();
+
+        // 두 번째 요청은 핸들러를 호출하지 않고 캐시된 byte를 쓴다.
+        this.mockMvc.perform(get("/books").param("pageSize", "1").param("view", "simple"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString("application/json")))
+                .andExpect(content().string(body));
+        assertEquals(hits + 1, responseCache.stats().getHits());
+    }
+}
@@ -0,0 +1,106 @@
+package com.jonghak.springbootweb.book;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jonghak.springbootweb.json.JsonViewWriters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - @JsonView 직렬화 비용 비교 (JMH)
+ *  ● writerWithView : objectMapper.writerWithView(view) (직렬화할 때마다 프로퍼티의 뷰를 검사)
+ *  ● cachedWriter : JsonViewWriters의 (타입, 뷰) 별 ObjectWriter
+ *
+ * - 실행
+ *  ● ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *      -Dexec.args="-cp %classpath com.jonghak.springbootweb.book.BookJsonViewBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookJsonViewBenchmark {
+
+    @Param({"SimpleView", "ComplexView"})
+    String viewName;
+
+    Class<?> view;
+
+    List<Book> books;
+
+    ObjectWriter writerWithView;
+
+    ObjectWriter cachedWriter;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(MapperFeature.DEFAULT_VIEW_INCLUSION)
+                .build();
+        view = viewName.equals("SimpleView") ? BookJsonView.SimpleView.class : BookJsonView.ComplexView.class;
+
+        books = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            Set<Author> authors = new LinkedHashSet<>();
+            for (long j = 0; j < 3; j++) {
+                Author author = new Author();
+                author.setId(i * 10 + j);
+                author.setFirstName("first" + j);
+                author.setLastName("last" + j);
+                author.setEmail("author" + j + "@email.com");
+                author.setAddress("address " + j);
+                author.setJoinedAt(LocalDateTime.of(2022, 1, 1, 0, 0));
+                authors.add(author);
+            }
+            Book book = new Book();
+            book.setId(i);
+            book.setIsbn("isbn-" + i);
+            book.setTitle("spring boot " + i);
+            book.setPublished(LocalDateTime.of(2022, 11, 1, 0, 0));
+            book.setAuthors(authors);
+            books.add(book);
+        }
+
+        writerWithView = objectMapper.writerWithView(view).forType(objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class));
+        cachedWriter = new JsonViewWriters(objectMapper).writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class), view);
+    }
+
+    @Benchmark
+    public byte[] writerWithView() throws Exception {
+        return writerWithView.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] cachedWriter() throws Exception {
+        return cachedWriter.writeValueAsBytes(books);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BookJsonViewBenchmark.class.getSimpleName()).build()).run();
+    }
+}
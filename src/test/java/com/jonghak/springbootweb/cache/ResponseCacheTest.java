@@ -0,0 +1,160 @@
+package com.jonghak.springbootweb.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private final ResponseCache responseCache = new ResponseCache(new StaticListableBeanFactory(), 1024 * 1024);
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    void hitSkipsHandler() throws Exception {
+        HandlerMethod handlerMethod = handlerMethod("cached");
+
+        assertEquals("body 1", get(handlerMethod, "/cached", "application/json", null).getContentAsString());
+        MockHttpServletResponse hit = get(handlerMethod, "/cached", "application/json", null);
+        assertEquals("body 1", hit.getContentAsString());
+        assertEquals("<next>", hit.getHeader(HttpHeaders.LINK));
+        assertEquals("application/json", hit.getContentType());
+
+        // Accept, URI가 다르면 다른 키
+        assertEquals("body 2", get(handlerMethod, "/cached", "text/plain", null).getContentAsString());
+        assertEquals("body 3", get(handlerMethod, "/cached;name=spring", "application/json", null).getContentAsString());
+
+        ResponseCacheStats stats = responseCache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(3, stats.getMisses());
+        assertEquals(3, stats.getEntries());
+    }
+
+    @Test
+    void hostIsPartOfKey() throws Exception {
+        HandlerMethod handlerMethod = handlerMethod("cached");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cached");
+        request.setServerName("evil.example.com");
+        request.addHeader(HttpHeaders.ACCEPT, "application/json");
+        assertEquals("body 1", get(handlerMethod, request, null, 200).getContentAsString());
+
+        // 다른 host로 온 요청은 그 host로 만든 응답(Link)을 받지 않는다.
+        assertEquals("body 2", get(handlerMethod, "/cached", "application/json", null).getContentAsString());
+        request = new MockHttpServletRequest("GET", "/cached");
+        request.setScheme("https");
+        request.setServerPort(443);
+        request.addHeader(HttpHeaders.ACCEPT, "application/json");
+        assertEquals("body 3", get(handlerMethod, request, null, 200).getContentAsString());
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    void concurrentMissesInvokeHandlerOnce() throws Exception {
+        HandlerMethod handlerMethod = handlerMethod("cached");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> get(handlerMethod, "/slow", "application/json", release)));
+            }
+            // 첫 요청이 핸들러 안에서 기다리는 동안 나머지 요청이 들어오게 한다.
+            while (invocations.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertEquals("body 1", response.get(5, TimeUnit.SECONDS).getContentAsString());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, invocations.get());
+        ResponseCacheStats stats = responseCache.stats();
+        assertEquals(1, stats.getMisses());
+        assertEquals(7, stats.getHits() + stats.getCoalesced());
+    }
+
+    @Test
+    void errorResponseIsNotCached() throws Exception {
+        HandlerMethod handlerMethod = handlerMethod("cached");
+        MockHttpServletResponse first = get(handlerMethod, "/missing", "application/json", null, 404);
+        assertEquals(404, first.getStatus());
+        get(handlerMethod, "/missing", "application/json", null, 404);
+
+        assertEquals(2, invocations.get());
+        assertEquals(0, responseCache.stats().getEntries());
+    }
+
+    @Test
+    void handlerWithoutAnnotationIsNotCached() throws Exception {
+        HandlerMethod handlerMethod = handlerMethod("notCached");
+        get(handlerMethod, "/plain", "application/json", null);
+        get(handlerMethod, "/plain", "application/json", null);
+
+        assertEquals(2, invocations.get());
+        assertEquals(0, responseCache.stats().getMisses());
+    }
+
+    private MockHttpServletResponse get(HandlerMethod handlerMethod, String uri, String accept, CountDownLatch release) throws Exception {
+        return get(handlerMethod, uri, accept, release, 200);
+    }
+
+    private MockHttpServletResponse get(HandlerMethod handlerMethod, String uri, String accept, CountDownLatch release,
+                                        int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader(HttpHeaders.ACCEPT, accept);
+        return get(handlerMethod, request, release, status);
+    }
+
+    private MockHttpServletResponse get(HandlerMethod handlerMethod, MockHttpServletRequest request, CountDownLatch release,
+                                        int status) throws Exception {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        responseCache.handle(request, response, handlerMethod, target -> {
+            int invocation = invocations.incrementAndGet();
+            if (release != null) {
+                release.await();
+            }
+            target.setStatus(status);
+            target.setContentType(accept);
+            target.setHeader(HttpHeaders.LINK, "<next>");
+            target.getOutputStream().write(("body " + invocation).getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+        return response;
+    }
+
+    private HandlerMethod handlerMethod(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    static class Handlers {
+
+        @CachedResponse(ttl = 60)
+        public String cached() {
+            return "cached";
+        }
+
+        public String notCached() {
+            return "notCached";
+        }
+    }
+}
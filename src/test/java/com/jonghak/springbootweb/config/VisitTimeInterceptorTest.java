@@ -0,0 +1,68 @@
+package com.jonghak.springbootweb.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisitTimeInterceptorTest {
+
+    private final VisitTimeInterceptor interceptor = new VisitTimeInterceptor("secret".getBytes(StandardCharsets.UTF_8), false);
+
+    @Test
+    void firstVisitIssuesSignedCookieWithoutSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, null));
+
+        assertNull(request.getSession(false));
+        assertNotNull(request.getAttribute(VisitTimeInterceptor.VISIT_TIME));
+        String setCookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertTrue(setCookie.startsWith(VisitTimeInterceptor.VISIT_TIME + "="));
+        assertTrue(setCookie.contains("HttpOnly"));
+    }
+
+    @Test
+    void signedCookieKeepsFirstVisitTime() throws Exception {
+        long firstVisit = System.currentTimeMillis() - 60_000;
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        request.setCookies(new Cookie(VisitTimeInterceptor.VISIT_TIME, interceptor.sign(firstVisit)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+        LocalDateTime visitTime = (LocalDateTime) request.getAttribute(VisitTimeInterceptor.VISIT_TIME);
+        assertTrue(visitTime.isBefore(LocalDateTime.now().minusSeconds(30)));
+    }
+
+    @Test
+    void tamperedCookieIsReplaced() throws Exception {
+        String signed = interceptor.sign(1000L);
+        assertEquals(1000L, interceptor.verify(signed));
+        assertNull(interceptor.verify("999" + signed.substring(signed.indexOf('.'))));
+        assertNull(interceptor.verify("1000"));
+        assertNull(new VisitTimeInterceptor("other".getBytes(StandardCharsets.UTF_8), false).verify(signed));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        request.setCookies(new Cookie(VisitTimeInterceptor.VISIT_TIME, "1000.forged"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        assertNotNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void storeInSession() throws Exception {
+        VisitTimeInterceptor sessionInterceptor = new VisitTimeInterceptor("secret".getBytes(StandardCharsets.UTF_8), true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/events/list");
+        sessionInterceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertEquals(request.getAttribute(VisitTimeInterceptor.VISIT_TIME),
+                request.getSession(false).getAttribute(VisitTimeInterceptor.VISIT_TIME));
+    }
+}
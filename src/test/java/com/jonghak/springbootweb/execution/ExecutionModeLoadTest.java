@@ -0,0 +1,74 @@
+package com.jonghak.springbootweb.execution;
+
+import com.jonghak.springbootweb.LoadGenerator;
+import com.jonghak.springbootweb.SpringbootWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * - 핸들러 실행 방식별 부하 테스트 (app.mvc.execution.mode=platform / async)
+ *  ● 디스크 읽기처럼 스레드를 잡고 기다리는 핸들러(/load/slow, Thread.sleep)에 동시에 요청을 보내고
+ *    처리량과 응답 시간(p50, p99, max)을 비교한다.
+ *  ● Tomcat 워커 스레드 수(server.tomcat.threads.max)는 두 방식 모두 기본값(200)
+ *
+ * - 실행 (인자 : 동시 요청 수, 핸들러 대기 시간(ms), 반복 횟수)
+ *  ● ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *      -Dexec.args="-cp %classpath com.jonghak.springbootweb.execution.ExecutionModeLoadTest 2000 100 3"
+ */
+public class ExecutionModeLoadTest {
+
+    /**
+     * 컴포넌트 스캔 대상이 아니도록 @Controller 없이 @RequestMapping만 붙이고 SpringApplicationBuilder로 등록한다.
+     */
+    @RequestMapping("/load")
+    @ResponseBody
+    public static class SlowController {
+
+        @GetMapping("/slow")
+        public String slow(@RequestParam long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return "ok";
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        for (String mode : List.of("platform", "async")) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootWebApplication.class, SlowController.class)
+                    .run("--server.port=0",
+                            "--spring.main.banner-mode=off",
+                            "--logging.level.root=WARN",
+                            "--app.startup.warm-up.enabled=false",
+                            "--app.mvc.execution.mode=" + mode);
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/load/slow?millis=" + millis))
+                        .timeout(Duration.ofSeconds(60)).GET().build();
+                HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+
+                // 첫 라운드는 연결과 JIT warm-up
+                LoadGenerator.run(client, request, concurrency);
+                for (int round = 1; round <= rounds; round++) {
+                    System.out.printf("mode=%-8s round=%d concurrency=%d %s%n",
+                            mode, round, concurrency, LoadGenerator.run(client, request, concurrency));
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+}
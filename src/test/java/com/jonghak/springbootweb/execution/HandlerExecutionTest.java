@@ -0,0 +1,109 @@
+package com.jonghak.springbootweb.execution;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.mvc.execution.mode=async")
+@AutoConfigureMockMvc
+class HandlerExecutionTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    HandlerExecution handlerExecution;
+
+    @Test
+    void executorFollowsJdk() {
+        assertEquals(HandlerExecution.Mode.ASYNC, handlerExecution.getMode());
+        assertEquals(Runtime.version().feature() >= 21, handlerExecution.isVirtualThreads());
+    }
+
+    @Test
+    void responseBodyIsWrittenAfterAsyncDispatch() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get("/hello"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello"));
+    }
+
+    @Test
+    void requestBodyIsBoundBeforeOffloading() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(post("/api/events/requestBody")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"jonghak\",\"limit\":20}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("name").value("jonghak"));
+    }
+
+    /**
+     * void + HttpServletResponse 핸들러는 async dispatch에서 뷰를 찾지 않아야 함
+     */
+    @Test
+    void responseWrittenByVoidHandlerIsKept() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get("/file/test.jpg"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"));
+    }
+
+    @Test
+    void rangeRequestIsKept() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.RANGE, "bytes=0-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] content = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, startsWith("bytes 0-1/")))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(2, content.length);
+    }
+
+    @Test
+    void notModifiedIsKept() throws Exception {
+        String etag = this.mockMvc.perform(asyncDispatch(this.mockMvc.perform(get("/file/test.jpg")).andReturn()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult mvcResult = this.mockMvc.perform(get("/file/test.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void cachedResponseRunsOnRequestThread() throws Exception {
+        this.mockMvc.perform(get("/hello/jonghak"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(content().string("hello jonghak"));
+    }
+}
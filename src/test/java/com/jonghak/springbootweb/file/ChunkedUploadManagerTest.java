@@ -0,0 +1,60 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.tika.Tika;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedUploadManagerTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void chunkCountIsBounded() throws Exception {
+        ChunkedUploadManager manager = manager(Duration.ZERO);
+
+        ResponseStatusException tooSmall = assertThrows(ResponseStatusException.class,
+                () -> manager.init("a.txt", 1000, 4));
+        assertEquals(HttpStatus.BAD_REQUEST, tooSmall.getStatus());
+
+        // int로 계산하면 넘치는 크기
+        ResponseStatusException tooMany = assertThrows(ResponseStatusException.class,
+                () -> manager.init("a.txt", 10_000_000_000L, 8));
+        assertEquals(HttpStatus.BAD_REQUEST, tooMany.getStatus());
+
+        // 청크가 하나뿐이면 최소 크기보다 작아도 된다.
+        assertEquals(1, manager.init("a.txt", 3, 4).getChunkCount());
+        assertEquals(100, manager.init("a.txt", 800, 8).getChunkCount());
+    }
+
+    @Test
+    void abandonedUploadIsExpired() throws Exception {
+        ChunkedUploadManager manager = manager(Duration.ofHours(1));
+        String abandoned = manager.init("a.txt", 16, 8).getUploadId();
+        String active = manager.init("b.txt", 16, 8).getUploadId();
+        manager.writeChunk(active, 0, 8, new ByteArrayInputStream(new byte[8]));
+        Files.setLastModifiedTime(root.resolve(abandoned + ".chunks"), FileTime.fromMillis(System.currentTimeMillis() - Duration.ofHours(2).toMillis()));
+
+        manager.expireAbandoned();
+
+        assertFalse(Files.exists(root.resolve(abandoned + ".part")));
+        assertEquals(HttpStatus.NOT_FOUND, assertThrows(ResponseStatusException.class, () -> manager.status(abandoned)).getStatus());
+        assertEquals(1, manager.status(active).getReceivedChunks());
+        manager.close();
+    }
+
+    private ChunkedUploadManager manager(Duration expireAfter) throws Exception {
+        return new ChunkedUploadManager(root, new ContentAddressedFileStore(root.resolve("store")), new BufferPool(16, 1), new Tika(),
+                Long.MAX_VALUE, 8, 64, 100, expireAfter);
+    }
+}
@@ -0,0 +1,52 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.tika.Tika;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedVariantsTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void variantIsNotEvictedWhileServed() throws Exception {
+        ContentAddressedFileStore store = new ContentAddressedFileStore(root.resolve("store"));
+        StoredFile a = upload(store, "a.txt", "aaaa ".repeat(1000));
+        StoredFile b = upload(store, "b.txt", "bbbb ".repeat(1000));
+        StoredFile c = upload(store, "c.txt", "cccc ".repeat(1000));
+        // variant 하나만 들어가는 캐시
+        CompressedVariants variants = new CompressedVariants(store, root.resolve("variants"), 40, 1);
+
+        CompressedVariants.CompressedVariant served = variants.resolve(a, "text/plain", "gzip").orElseThrow();
+        variants.resolve(b, "text/plain", "gzip").orElseThrow().close();
+        assertTrue(Files.exists(served.getPath()));
+
+        // 다 보낸 뒤에는 LRU로 지워진다.
+        served.close();
+        variants.resolve(c, "text/plain", "gzip").orElseThrow().close();
+        assertFalse(Files.exists(served.getPath()));
+    }
+
+    @Test
+    void incompressibleFileIsServedAsIs() throws Exception {
+        ContentAddressedFileStore store = new ContentAddressedFileStore(root.resolve("store"));
+        StoredFile file = upload(store, "short.txt", "x");
+        CompressedVariants variants = new CompressedVariants(store, root.resolve("variants"), 1024, 1);
+
+        assertTrue(variants.resolve(file, "text/plain", "gzip").isEmpty());
+        assertTrue(variants.resolve(file, "text/plain", "gzip").isEmpty());
+    }
+
+    private StoredFile upload(FileStore store, String filename, String content) throws Exception {
+        FileUploadPipeline pipeline = new FileUploadPipeline(store, new BufferPool(16, 1), 1 << 20, new Tika());
+        return pipeline.store(filename, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
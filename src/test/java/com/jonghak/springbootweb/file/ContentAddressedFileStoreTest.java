@@ -0,0 +1,61 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.tika.Tika;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentAddressedFileStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameContentIsStoredOnce() throws Exception {
+        ContentAddressedFileStore store = new ContentAddressedFileStore(root);
+        StoredFile a = upload(store, "a.txt", "same content");
+        StoredFile b = upload(store, "b.txt", "same content");
+
+        assertEquals(a.getSha256(), b.getSha256());
+        assertEquals(a.getPath(), b.getPath());
+        assertTrue(a.getPath().startsWith(root.resolve("objects").resolve(a.getSha256().substring(0, 2))));
+    }
+
+    @Test
+    void indexIsReloaded() throws Exception {
+        ContentAddressedFileStore store = new ContentAddressedFileStore(root);
+        upload(store, "a.txt", "hello");
+        upload(store, "b.txt", "world");
+        store.delete("b.txt");
+
+        ContentAddressedFileStore reloaded = new ContentAddressedFileStore(root);
+
+        assertEquals(1, reloaded.size());
+        assertEquals("hello", Files.readString(reloaded.find("a.txt").orElseThrow().getPath()));
+        assertTrue(reloaded.find("b.txt").isEmpty());
+    }
+
+    @Test
+    void contentIsDeletedWithLastReference() throws Exception {
+        ContentAddressedFileStore store = new ContentAddressedFileStore(root);
+        StoredFile a = upload(store, "a.txt", "shared");
+        upload(store, "b.txt", "shared");
+
+        store.delete("a.txt");
+        assertTrue(Files.exists(a.getPath()));
+
+        upload(store, "b.txt", "replaced");
+        assertFalse(Files.exists(a.getPath()));
+    }
+
+    private StoredFile upload(FileStore store, String filename, String content) throws Exception {
+        FileUploadPipeline pipeline = new FileUploadPipeline(store, new BufferPool(16, 1), 1024, new Tika());
+        return pipeline.store(filename, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
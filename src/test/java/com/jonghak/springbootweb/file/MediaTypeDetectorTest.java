@@ -0,0 +1,55 @@
+package com.jonghak.springbootweb.file;
+
+import org.apache.tika.Tika;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaTypeDetectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void detectIsCached() throws Exception {
+        MediaTypeDetector detector = new MediaTypeDetector(new Tika(), 10, 1024);
+        Path file = Files.writeString(tempDir.resolve("hello.txt"), "hello file");
+
+        assertEquals("text/plain", detector.detect(file));
+        assertEquals("text/plain", detector.detect(file));
+
+        assertEquals(1, detector.getMissCount());
+        assertEquals(1, detector.getHitCount());
+    }
+
+    @Test
+    void changedFileIsDetectedAgain() throws Exception {
+        MediaTypeDetector detector = new MediaTypeDetector(new Tika(), 10, 1024);
+        Path file = tempDir.resolve("data.bin");
+        Files.write(file, "{\"name\":\"jonghak\"}".getBytes(StandardCharsets.UTF_8));
+        detector.detect(file);
+
+        Files.write(file, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+
+        assertEquals("image/png", detector.detect(file));
+        assertEquals(1, detector.getInvalidationCount());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() throws Exception {
+        MediaTypeDetector detector = new MediaTypeDetector(new Tika(), 2, 1024);
+        for (int i = 0; i < 3; i++) {
+            detector.detect(Files.writeString(tempDir.resolve(i + ".txt"), "file " + i));
+        }
+
+        assertEquals(2, detector.size());
+        assertEquals(1, detector.getEvictionCount());
+    }
+}
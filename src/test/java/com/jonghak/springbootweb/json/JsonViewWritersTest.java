@@ -0,0 +1,74 @@
+package com.jonghak.springbootweb.json;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonViewWritersTest {
+
+    interface Summary {}
+
+    interface Detail extends Summary {}
+
+    @Data
+    static class Item {
+
+        @JsonView(Summary.class)
+        private String name;
+
+        @JsonView(Detail.class)
+        private Owner owner;
+
+        private String secret;
+    }
+
+    @Data
+    static class Owner {
+
+        @JsonView(Detail.class)
+        private String name;
+
+        private String email;
+    }
+
+    @Test
+    void sameOutputAsWriterWithView() throws Exception {
+        for (boolean defaultViewInclusion : new boolean[]{false, true}) {
+            ObjectMapper objectMapper = JsonMapper.builder().configure(MapperFeature.DEFAULT_VIEW_INCLUSION, defaultViewInclusion).build();
+            JsonViewWriters writers = new JsonViewWriters(objectMapper);
+            List<Item> items = List.of(item("first"), item("second"));
+
+            for (Class<?> view : new Class<?>[]{Summary.class, Detail.class}) {
+                assertEquals(objectMapper.writerWithView(view).writeValueAsString(items),
+                        writers.writerFor(List.class, view).writeValueAsString(items));
+            }
+        }
+    }
+
+    @Test
+    void writerIsCachedPerTypeAndView() {
+        JsonViewWriters writers = new JsonViewWriters(new ObjectMapper());
+
+        assertSame(writers.writerFor(Item.class, Summary.class), writers.writerFor(Item.class, Summary.class));
+        assertNotSame(writers.writerFor(Item.class, Summary.class), writers.writerFor(Item.class, Detail.class));
+        assertEquals(2, writers.size());
+    }
+
+    private Item item(String name) {
+        Owner owner = new Owner();
+        owner.setName("owner of " + name);
+        owner.setEmail(name + "@email.com");
+        Item item = new Item();
+        item.setName(name);
+        item.setOwner(owner);
+        item.setSecret("secret");
+        return item;
+    }
+}
@@ -0,0 +1,111 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledRequestMappingHandlerMappingTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void matchesLikeDefaultMapping(boolean pathPatternParser) throws Exception {
+        RequestMappingHandlerMapping expected = RequestMappings.register(new RequestMappingHandlerMapping(), 50, pathPatternParser);
+        RequestMappingHandlerMapping compiled = RequestMappings.register(new CompiledRequestMappingHandlerMapping(), 50, pathPatternParser);
+
+        for (MockHttpServletRequest request : requests()) {
+            assertEquals(lookup(expected, request), lookup(compiled, copyOf(request)),
+                    () -> request.getMethod() + " " + request.getRequestURI());
+        }
+
+        assertTrue(lookup(compiled, new MockHttpServletRequest("GET", "/hello/jonghak")).startsWith("/hello/{name:[a-z]+} {name=jonghak}"));
+        assertTrue(lookup(compiled, new MockHttpServletRequest("GET", "/hi/jonghak")).startsWith("/hi/jonghak"));
+        assertTrue(lookup(compiled, new MockHttpServletRequest("GET", "/hello/ab%63")).startsWith("/hello/{name:[a-z]+} {name=abc}"));
+        assertEquals("HttpRequestMethodNotSupportedException", lookup(compiled, new MockHttpServletRequest("DELETE", "/api/r3/items/1")));
+        assertEquals("HttpMediaTypeNotSupportedException", lookup(compiled, new MockHttpServletRequest("POST", "/api/r3/items")));
+    }
+
+    private List<MockHttpServletRequest> requests() {
+        List<MockHttpServletRequest> requests = new ArrayList<>();
+        requests.add(new MockHttpServletRequest("GET", "/api/r7/items"));
+        requests.add(new MockHttpServletRequest("GET", "/api/r7/items/"));
+        requests.add(new MockHttpServletRequest("GET", "/api/r7/items/10"));
+        requests.add(new MockHttpServletRequest("GET", "/api/r49/names/spring"));
+        requests.add(new MockHttpServletRequest("GET", "/api/r49/names/Spring1"));
+        requests.add(new MockHttpServletRequest("HEAD", "/api/r3/items/1"));
+        requests.add(new MockHttpServletRequest("DELETE", "/api/r3/items/1"));
+        requests.add(new MockHttpServletRequest("POST", "/api/r3/items"));
+        MockHttpServletRequest json = new MockHttpServletRequest("POST", "/api/r3/items");
+        json.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        requests.add(json);
+        requests.add(new MockHttpServletRequest("GET", "/api/r50/items"));
+        requests.add(new MockHttpServletRequest("GET", "/hello/jonghak"));
+        requests.add(new MockHttpServletRequest("GET", "/hello/JONGHAK"));
+        requests.add(new MockHttpServletRequest("GET", "/hi/jonghak"));
+        requests.add(new MockHttpServletRequest("GET", "/hi/spring/boot"));
+        requests.add(new MockHttpServletRequest("GET", "/hi"));
+        requests.add(new MockHttpServletRequest("GET", "/headers"));
+        MockHttpServletRequest header = new MockHttpServletRequest("GET", "/headers");
+        header.addHeader(HttpHeaders.AUTHORIZATION, "111");
+        requests.add(header);
+        MockHttpServletRequest param = new MockHttpServletRequest("GET", "/params");
+        param.setParameter("name", "jonghak");
+        requests.add(param);
+        MockHttpServletRequest mediaTypeNot = new MockHttpServletRequest("POST", "/mediaTypeNot");
+        mediaTypeNot.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        requests.add(mediaTypeNot);
+        requests.add(new MockHttpServletRequest("POST", "/mediaTypeNot"));
+        requests.add(new MockHttpServletRequest("GET", "/files/books.json"));
+        requests.add(new MockHttpServletRequest("OPTIONS", "/api/r1/items"));
+        requests.add(new MockHttpServletRequest("GET", "/unknown/path"));
+        // % 인코딩된 경로
+        requests.add(new MockHttpServletRequest("GET", "/api/r7/it%65ms"));
+        requests.add(new MockHttpServletRequest("GET", "/api/r7/items/1%30"));
+        requests.add(new MockHttpServletRequest("GET", "/hello/ab%63"));
+        requests.add(new MockHttpServletRequest("GET", "/hello/ab%2563"));
+        requests.add(new MockHttpServletRequest("GET", "/h%69/jonghak"));
+        requests.add(new MockHttpServletRequest("GET", "/hi/spring%2Fboot"));
+        requests.add(new MockHttpServletRequest("GET", "/hi/%zz"));
+        return requests;
+    }
+
+    /**
+     * 선택된 패턴과 URI 변수, 매칭 실패시 예외 타입
+     */
+    private String lookup(RequestMappingHandlerMapping mapping, MockHttpServletRequest request) {
+        try {
+            // DispatcherServlet이 하는 것처럼 (PathPatternParser 사용시 필요)
+            ServletRequestPathUtils.parseAndCache(request);
+            HandlerExecutionChain chain = mapping.getHandler(request);
+            if (chain == null) {
+                return "404";
+            }
+            return request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) + " "
+                    + request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) + " "
+                    + Objects.toString(chain.getHandler());
+        } catch (Exception ex) {
+            return ex.getClass().getSimpleName();
+        }
+    }
+
+    private MockHttpServletRequest copyOf(MockHttpServletRequest request) {
+        MockHttpServletRequest copy = new MockHttpServletRequest(request.getMethod(), request.getRequestURI());
+        copy.setContentType(request.getContentType());
+        copy.setParameters(request.getParameterMap());
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            copy.addHeader(HttpHeaders.AUTHORIZATION, request.getHeader(HttpHeaders.AUTHORIZATION));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,44 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixVariablesTest {
+
+    @Test
+    void sameAsPathContainer() {
+        for (String path : List.of(
+                "/events/1;name=jonghak",
+                "/events;type=a/1;name=spring;limit=10,20",
+                "/owners/42;q=11;r=22/pets/21;q=31;r=41",
+                "/a;flag/b;empty=;list=x,,y,",
+                "/encoded/1;na%20me=%EC%8A%A4%ED%94%84%EB%A7%81",
+                "//double;a=1//slash;b=2/",
+                "/plain/path")) {
+            MatrixVariables matrixVariables = MatrixVariables.parse(path);
+            List<PathContainer.Element> elements = PathContainer.parsePath(path).elements();
+            for (int i = 0, segment = 0; i < elements.size(); i++) {
+                if (elements.get(i) instanceof PathContainer.Separator) {
+                    segment++;
+                    continue;
+                }
+                MultiValueMap<String, String> expected = ((PathContainer.PathSegment) elements.get(i)).parameters();
+                MultiValueMap<String, String> actual = matrixVariables.segment(segment);
+                assertEquals(expected, actual == null ? new LinkedMultiValueMap<>() : actual, path + " segment " + segment);
+            }
+        }
+    }
+
+    @Test
+    void pathWithoutSemicolonIsNotParsed() {
+        assertSame(MatrixVariables.EMPTY, MatrixVariables.parse("/events/1"));
+        assertEquals("jonghak", MatrixVariables.parse("/events/1;name=jonghak").segment(2).getFirst("name"));
+        assertNull(MatrixVariables.parse("/events/1;name=jonghak").segment(1));
+    }
+}
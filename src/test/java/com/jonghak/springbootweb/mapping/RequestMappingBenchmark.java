@@ -0,0 +1,89 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - 매핑 찾기 비용 비교 (JMH)
+ *  ● defaultMapping : 스프링 기본 RequestMappingHandlerMapping
+ *  ● compiledMapping : CompiledRequestMappingHandlerMapping (trie 인덱스)
+ *  ● endpoints : REST 리소스 수 (리소스마다 매핑 4개, PathPatternParser 사용)
+ *  ● path : literal(기본 구현도 direct path로 바로 찾음), 변수, 정규식 변수 경로
+ *
+ * - 실행
+ *  ● ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *      -Dexec.args="-cp %classpath com.jonghak.springbootweb.mapping.RequestMappingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestMappingBenchmark {
+
+    @Param({"100", "1000"})
+    int endpoints;
+
+    @Param({"literal", "variable", "regex"})
+    String path;
+
+    RequestMappingHandlerMapping defaultMapping;
+
+    RequestMappingHandlerMapping compiledMapping;
+
+    MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        defaultMapping = RequestMappings.register(new RequestMappingHandlerMapping(), endpoints, true);
+        compiledMapping = RequestMappings.register(new CompiledRequestMappingHandlerMapping(), endpoints, true);
+
+        String resource = "/api/r" + (endpoints / 2);
+        switch (path) {
+            case "literal":
+                request = new MockHttpServletRequest("GET", resource + "/items");
+                break;
+            case "variable":
+                request = new MockHttpServletRequest("GET", resource + "/items/42");
+                break;
+            default:
+                request = new MockHttpServletRequest("GET", "/hello/jonghak");
+        }
+        ServletRequestPathUtils.parseAndCache(request);
+    }
+
+    @Benchmark
+    public HandlerExecutionChain defaultMapping() throws Exception {
+        return defaultMapping.getHandler(request);
+    }
+
+    @Benchmark
+    public HandlerExecutionChain compiledMapping() throws Exception {
+        return compiledMapping.getHandler(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RequestMappingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,63 @@
+package com.jonghak.springbootweb.mapping;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.lang.reflect.Method;
+
+/**
+ * - 테스트, 벤치마크에서 같이 쓰는 매핑 (SampleController와 같은 종류의 조건 + endpoints 개의 REST 매핑)
+ */
+final class RequestMappings {
+
+    private RequestMappings() {
+    }
+
+    static <T extends RequestMappingHandlerMapping> T register(T mapping, int endpoints, boolean pathPatternParser) throws Exception {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.refresh();
+        if (pathPatternParser) {
+            mapping.setPatternParser(new PathPatternParser());
+        }
+        mapping.setApplicationContext(context);
+        mapping.afterPropertiesSet();
+
+        RequestMappingInfo.BuilderConfiguration config = mapping.getBuilderConfiguration();
+        Object handler = new Endpoints();
+        Method method = Endpoints.class.getMethod("handle");
+
+        for (int i = 0; i < endpoints; i++) {
+            String base = "/api/r" + i;
+            mapping.registerMapping(RequestMappingInfo.paths(base + "/items").methods(RequestMethod.GET).options(config).build(), handler, method);
+            mapping.registerMapping(RequestMappingInfo.paths(base + "/items").methods(RequestMethod.POST)
+                    .consumes(MediaType.APPLICATION_JSON_VALUE).options(config).build(), handler, method);
+            mapping.registerMapping(RequestMappingInfo.paths(base + "/items/{id}").methods(RequestMethod.GET).options(config).build(), handler, method);
+            mapping.registerMapping(RequestMappingInfo.paths(base + "/names/{name:[a-z]+}").methods(RequestMethod.GET).options(config).build(), handler, method);
+        }
+
+        mapping.registerMapping(RequestMappingInfo.paths("/hello/{name:[a-z]+}").options(config).build(), handler, method);
+        mapping.registerMapping(RequestMappingInfo.paths("/hi/**").options(config).build(), handler, method);
+        mapping.registerMapping(RequestMappingInfo.paths("/hi/jonghak").options(config).build(), handler, method);
+        mapping.registerMapping(RequestMappingInfo.paths("/headers").methods(RequestMethod.GET)
+                .headers(HttpHeaders.AUTHORIZATION + "=111").options(config).build(), handler, method);
+        mapping.registerMapping(RequestMappingInfo.paths("/params").methods(RequestMethod.GET)
+                .params("name=jonghak").options(config).build(), handler, method);
+        mapping.registerMapping(RequestMappingInfo.paths("/mediaTypeNot")
+                .consumes("!" + MediaType.APPLICATION_JSON_VALUE).options(config).build(), handler, method);
+        mapping.registerMapping(RequestMappingInfo.paths("/files/*.json").methods(RequestMethod.GET).options(config).build(), handler, method);
+        return mapping;
+    }
+
+    static class Endpoints {
+
+        public void handle() {
+        }
+    }
+}
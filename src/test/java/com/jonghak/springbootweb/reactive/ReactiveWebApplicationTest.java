@@ -0,0 +1,207 @@
+package com.jonghak.springbootweb.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReactiveWebApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive",
+                "app.event.store.log-file=${java.io.tmpdir}/springboot-web/reactive-test/events.log"})
+class ReactiveWebApplicationTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    ReactiveWebServerApplicationContext applicationContext;
+
+    @Test
+    void runsOnNetty() {
+        assertTrue(applicationContext.getWebServer() instanceof NettyWebServer);
+    }
+
+    @Test
+    void createEventRequestBody() {
+        this.webTestClient.post().uri("/api/events/requestBody")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"jonghak\",\"limit\":-20}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("jonghak")
+                .jsonPath("$.limit").isEqualTo(-20);
+    }
+
+    @Test
+    void createEventResponseEntity() {
+        // EventValidatorImpl
+        this.webTestClient.post().uri("/api/events/responseEntity")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"aaa\",\"limit\":10}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        this.webTestClient.post().uri("/api/events/responseEntity")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"reactive\",\"limit\":10}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isNumber()
+                .jsonPath("$.name").isEqualTo("reactive");
+
+        this.webTestClient.post().uri("/api/events/responseEntity")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("can't create event as .... ");
+    }
+
+    @Test
+    void createEventsBatchNdjson() {
+        String events = "{\"name\":\"batch1\",\"limit\":1}\n"
+                + "{\"name\":\"batch2\",\"limit\":\"x\"}\n"
+                + "{\"name\":\"batch3\",\"limit\":-1}\n"
+                + "{\"name\":\"batch4\",\"limit\":4}\n";
+
+        String[] results = this.webTestClient.post().uri("/api/events/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(events)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody().trim().split("\n");
+
+        assertEquals(4, results.length);
+        assertTrue(results[0].contains("\"accepted\":true"));
+        assertTrue(results[1].contains("\"code\":\"typeMismatch\""));
+        assertTrue(results[2].contains("\"field\":\"limit\""));
+        assertTrue(results[3].contains("\"index\":3,\"accepted\":true"));
+    }
+
+    @Test
+    void createEventsBatchJsonArray() {
+        // 로그 레코드로 만들 수 없는 이름 (64KB 초과)
+        String tooLong = "x".repeat(70_000);
+        this.webTestClient.post().uri("/api/events/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"name\":\"array1\",\"limit\":1},{\"name\":\"aaa\",\"limit\":1},null,"
+                        + "{\"name\":\"" + tooLong + "\",\"limit\":1},{\"name\":\"array2\",\"limit\":1}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(5)
+                .jsonPath("$[0].accepted").isEqualTo(true)
+                .jsonPath("$[1].errors[0].code").isEqualTo("wrongValue")
+                .jsonPath("$[2].errors[0].code").isEqualTo("nullItem")
+                .jsonPath("$[3].errors[0].code").isEqualTo("saveFailed")
+                .jsonPath("$[4].accepted").isEqualTo(true);
+    }
+
+    @Test
+    void getEvents() {
+        this.webTestClient.get().uri("/api/events?size=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        for (String name : new String[]{"page1", "page2"}) {
+            this.webTestClient.post().uri("/api/events/responseEntity")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"name\":\"" + name + "\",\"limit\":1}")
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        this.webTestClient.get().uri("/api/events?name=page&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.events.length()").isEqualTo(1)
+                .jsonPath("$.events[0].name").isEqualTo("page1")
+                .jsonPath("$.next").isNotEmpty();
+    }
+
+    @Test
+    void fileUploadAndDownload() {
+        byte[] content = new byte[200_000];
+        Arrays.fill(content, (byte) 'r');
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("note", "before file");
+        body.part("file", new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "reactive.bin";
+            }
+        });
+
+        String page = this.webTestClient.post().uri("/file")
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertTrue(page.contains("reactive.bin is uploaded"));
+
+        byte[] downloaded = this.webTestClient.get().uri("/file/reactive.bin")
+                .header(HttpHeaders.ACCEPT_ENCODING, "identity")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(content.length)
+                .expectBody().returnResult().getResponseBody();
+        assertArrayEquals(content, downloaded);
+
+        this.webTestClient.get().uri("/file/reactive.bin")
+                .header(HttpHeaders.ACCEPT_ENCODING, "identity")
+                .header(HttpHeaders.RANGE, "bytes=10-19")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 10-19/" + content.length)
+                .expectBody(String.class).isEqualTo("rrrrrrrrrr");
+    }
+
+    @Test
+    void fileDownloadNotModified() {
+        String etag = this.webTestClient.get().uri("/file/test.jpg")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(byte[].class).getResponseHeaders().getETag();
+
+        this.webTestClient.get().uri("/file/test.jpg")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void fileUploadErrors() {
+        this.webTestClient.get().uri("/file/not-exists.txt")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("file", new ByteArrayResource("hidden".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return ".hidden";
+            }
+        });
+        this.webTestClient.post().uri("/file")
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
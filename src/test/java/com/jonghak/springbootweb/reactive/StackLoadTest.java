@@ -0,0 +1,82 @@
+package com.jonghak.springbootweb.reactive;
+
+import com.jonghak.springbootweb.LoadGenerator;
+import com.jonghak.springbootweb.SpringbootWebApplication;
+import com.jonghak.springbootweb.execution.ExecutionModeLoadTest;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * - 서블릿(Tomcat) / WebFlux(Netty) 부하 테스트
+ *  ● 같은 요청을 동시에 보내고 처리량과 응답 시간(p50, p99, max)을 비교한다.
+ *      ○ /load/slow?millis= : 원격 호출처럼 기다리기만 하는 요청 (서블릿 Thread.sleep, WebFlux Mono.delay)
+ *      ○ /file/test.jpg : 저장소 파일 다운로드 (서블릿 sendfile, WebFlux ZeroCopyHttpOutputMessage)
+ *      ○ /api/events?size=100 : Event 목록 JSON
+ *  ● 서블릿은 기본 설정 그대로 (Tomcat 워커 스레드 200, app.mvc.execution.mode=platform)
+ *
+ * - 실행 (인자 : 동시 요청 수, /load/slow 대기 시간(ms), 반복 횟수)
+ *  ● ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *      -Dexec.args="-cp %classpath com.jonghak.springbootweb.reactive.StackLoadTest 2000 100 3"
+ */
+public class StackLoadTest {
+
+    /**
+     * ExecutionModeLoadTest.SlowController의 WebFlux 버전 (스레드를 잡지 않고 기다림)
+     */
+    @RequestMapping("/load")
+    @ResponseBody
+    public static class DelayController {
+
+        @GetMapping("/slow")
+        public Mono<String> slow(@RequestParam long millis) {
+            return Mono.delay(Duration.ofMillis(millis)).thenReturn("ok");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        List<String> paths = List.of("/load/slow?millis=" + millis, "/file/test.jpg", "/api/events?size=100");
+
+        for (String stack : List.of("servlet", "reactive")) {
+            SpringApplicationBuilder builder = stack.equals("servlet")
+                    ? new SpringApplicationBuilder(SpringbootWebApplication.class, ExecutionModeLoadTest.SlowController.class)
+                    : new SpringApplicationBuilder(ReactiveWebApplication.class, DelayController.class).web(WebApplicationType.REACTIVE);
+            ConfigurableApplicationContext context = builder.run("--server.port=0",
+                    "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN",
+                    "--app.startup.warm-up.enabled=false");
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+                for (String path : paths) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                            .timeout(Duration.ofSeconds(60)).GET().build();
+
+                    // 첫 라운드는 연결과 JIT warm-up
+                    LoadGenerator.run(client, request, concurrency);
+                    for (int round = 1; round <= rounds; round++) {
+                        System.out.printf("stack=%-8s path=%-22s round=%d concurrency=%d %s%n",
+                                stack, path, round, concurrency, LoadGenerator.run(client, request, concurrency));
+                    }
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+}
@@ -44,6 +44,22 @@ class sampleControllerTest {
                 .andExpect(content().string("hello jonghak"));
     }
 
+    @Test
+    void regExpNotModified() throws Exception {
+        String etag = this.mockMvc.perform(get("/hello/jonghak"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/hello/jonghak").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified());
+
+        this.mockMvc.perform(get("/hello/spring").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string("hello spring"));
+    }
+
     @Test
     void hi() throws Exception {
         this.mockMvc.perform(get("/hi/jonghak"))
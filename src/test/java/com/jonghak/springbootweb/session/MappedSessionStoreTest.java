@@ -0,0 +1,100 @@
+package com.jonghak.springbootweb.session;
+
+import com.jonghak.springbootweb.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSessionStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sessionsSurviveRestart() throws Exception {
+        Path file = root.resolve("sessions.dat");
+        Event event = new Event();
+        event.setName("wizard");
+        event.setLimit(20);
+        event.setStartDate(LocalDate.of(2030, 1, 1));
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("event", event);
+        attributes.put("step", 2);
+
+        MappedSessionStore store = new MappedSessionStore(file, 1024, 256);
+        String id = newId();
+        store.save(id, SessionAttributeCodec.encode(attributes), Duration.ofMinutes(5));
+        store.close();
+
+        MappedSessionStore reopened = new MappedSessionStore(file, 1024, 256);
+        assertEquals(attributes, SessionAttributeCodec.decode(reopened.load(id).orElseThrow()));
+        assertTrue(reopened.load(newId()).isEmpty());
+        assertTrue(reopened.load("not-a-session-id").isEmpty());
+
+        reopened.delete(id);
+        assertTrue(reopened.load(id).isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void expiredSessionIsNotLoaded() throws Exception {
+        MappedSessionStore store = new MappedSessionStore(root.resolve("sessions.dat"), 1024, 256);
+        String id = newId();
+        store.save(id, new byte[]{1, 2, 3}, Duration.ofMillis(-1));
+        assertTrue(store.load(id).isEmpty());
+
+        store.save(id, new byte[]{4}, Duration.ofMinutes(1));
+        assertArrayEquals(new byte[]{4}, store.load(id).orElseThrow());
+        store.close();
+    }
+
+    @Test
+    void fullBucketDoesNotEvictLiveSessions() throws Exception {
+        // bucket 하나 (32 slot)
+        MappedSessionStore store = new MappedSessionStore(root.resolve("sessions.dat"), 32, 64);
+        String first = newId();
+        assertTrue(store.save(first, new byte[]{1}, Duration.ofMinutes(1)));
+        for (int i = 0; i < 31; i++) {
+            assertTrue(store.save(newId(), new byte[]{2}, Duration.ofMinutes(10)));
+        }
+        assertFalse(store.save(newId(), new byte[]{3}, Duration.ofMinutes(10)));
+        assertArrayEquals(new byte[]{1}, store.load(first).orElseThrow());
+
+        // 이미 있는 세션은 가득 차도 다시 저장할 수 있고, slot보다 큰 데이터는 저장하지 않는다.
+        assertTrue(store.save(first, new byte[]{4}, Duration.ofMinutes(1)));
+        assertFalse(store.save(first, new byte[64], Duration.ofMinutes(1)));
+        store.close();
+    }
+
+    @Test
+    void fileIsLockedWhileOpen() throws Exception {
+        Path file = root.resolve("sessions.dat");
+        MappedSessionStore store = new MappedSessionStore(file, 1024, 256);
+        String id = newId();
+        store.save(id, new byte[]{1}, Duration.ofMinutes(1));
+
+        // 다른 설정으로 열어도 파일을 자르지 않는다.
+        assertThrows(IllegalStateException.class, () -> new MappedSessionStore(file, 32, 64));
+        assertArrayEquals(new byte[]{1}, store.load(id).orElseThrow());
+        store.close();
+
+        MappedSessionStore reopened = new MappedSessionStore(file, 1024, 256);
+        assertArrayEquals(new byte[]{1}, reopened.load(id).orElseThrow());
+        reopened.close();
+    }
+
+    private String newId() {
+        byte[] bytes = new byte[16];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
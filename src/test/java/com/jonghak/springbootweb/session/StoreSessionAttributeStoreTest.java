@@ -0,0 +1,60 @@
+package com.jonghak.springbootweb.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoreSessionAttributeStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void largeAttributesFallBackToHttpSession() throws Exception {
+        MappedSessionStore sessionStore = new MappedSessionStore(root.resolve("sessions.dat"), 32, 64);
+        StoreSessionAttributeStore store = new StoreSessionAttributeStore(sessionStore, Duration.ofMinutes(1));
+        MockHttpSession session = new MockHttpSession();
+
+        ServletWebRequest first = request(session);
+        store.storeAttribute(first, "event", "x".repeat(100));
+
+        // 다음 요청에서도 HttpSession에서 읽는다.
+        ServletWebRequest second = request(session);
+        assertEquals("x".repeat(100), store.retrieveAttribute(second, "event"));
+
+        // 작아지면 다시 저장소에 저장하고 HttpSession에서 지운다.
+        store.storeAttribute(second, "event", "small");
+        assertFalse(session.getAttributeNames().hasMoreElements());
+
+        store.cleanupAttribute(second, "event");
+        assertNull(store.retrieveAttribute(request(session), "event"));
+        sessionStore.close();
+    }
+
+    @Test
+    void unencodableAttributesFallBackToHttpSession() throws Exception {
+        MappedSessionStore sessionStore = new MappedSessionStore(root.resolve("sessions.dat"), 32, 128 * 1024);
+        StoreSessionAttributeStore store = new StoreSessionAttributeStore(sessionStore, Duration.ofMinutes(1));
+        MockHttpSession session = new MockHttpSession();
+
+        // writeUTF로 쓸 수 없는 64KB가 넘는 문자열
+        String large = "x".repeat(70_000);
+        store.storeAttribute(request(session), "event", large);
+        assertEquals(large, store.retrieveAttribute(request(session), "event"));
+        sessionStore.close();
+    }
+
+    private ServletWebRequest request(MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
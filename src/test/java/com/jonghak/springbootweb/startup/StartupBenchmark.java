@@ -0,0 +1,119 @@
+package com.jonghak.springbootweb.startup;
+
+import com.jonghak.springbootweb.SpringbootWebApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - 시작 warm-up 효과 측정 (JMH, fork마다 새 JVM에서 한 번씩 측정)
+ *  ● timeToFirstRequest : 애플리케이션 시작 + (warm-up) + 첫 요청들의 응답까지 걸린 시간
+ *  ● firstRequestLatency : 시작이 끝난 다음(readiness 이후) 첫 요청들의 응답 시간
+ *  ● warmUp : app.startup.warm-up.enabled
+ *  ● 첫 요청 : JSON(/books), @MatrixVariable(/events/1;name=jonghak), Thymeleaf(/events/form/name), 정규식 매핑(/hello/jonghak)
+ *
+ * - 실행
+ *  ● ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *      -Dexec.args="-cp %classpath com.jonghak.springbootweb.startup.StartupBenchmark"
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+    private static final List<String> FIRST_REQUESTS = List.of("/books", "/events/1;name=jonghak", "/events/form/name", "/hello/jonghak");
+
+    @State(Scope.Benchmark)
+    public static class Launch {
+
+        @Param({"false", "true"})
+        boolean warmUp;
+
+        ConfigurableApplicationContext context;
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Started {
+
+        @Param({"false", "true"})
+        boolean warmUp;
+
+        ConfigurableApplicationContext context;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            context = start(warmUp);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRequest(Launch launch) throws Exception {
+        launch.context = start(launch.warmUp);
+        return firstRequests(launch.context);
+    }
+
+    @Benchmark
+    public int firstRequestLatency(Started started) throws Exception {
+        return firstRequests(started.context);
+    }
+
+    private static ConfigurableApplicationContext start(boolean warmUp) {
+        return SpringApplication.run(SpringbootWebApplication.class,
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--app.startup.warm-up.enabled=" + warmUp);
+    }
+
+    private static int firstRequests(ConfigurableApplicationContext context) throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpClient client = HttpClient.newHttpClient();
+        int statusSum = 0;
+        for (String path : FIRST_REQUESTS) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+            statusSum += client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+        }
+        return statusSum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StartupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
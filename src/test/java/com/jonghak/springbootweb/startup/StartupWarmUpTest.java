@@ -0,0 +1,23 @@
+package com.jonghak.springbootweb.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.startup.warm-up.enabled=true",
+        "app.startup.warm-up.paths=/hello,/books,/api/events"})
+class StartupWarmUpTest {
+
+    @Autowired
+    StartupWarmUp startupWarmUp;
+
+    @Test
+    void warmUpRunsBeforeReady() {
+        assertNotNull(startupWarmUp.getLastDuration());
+        // app.startup.warm-up.paths에 적은 경로만 서버로 호출했다.
+        assertEquals(3, startupWarmUp.getExercisedEndpoints());
+    }
+}
@@ -0,0 +1,125 @@
+package com.jonghak.springbootweb.validation;
+
+import com.jonghak.springbootweb.Event;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledValidatorTest {
+
+    private static final Object[][] HINTS = {
+            null,
+            {},
+            {Event.ValidateLimit.class, Event.ValidateName.class},
+            {Event.ValidateName.class},
+            {Event.ValidateLimit.class, "not a group"},
+    };
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final SmartValidator expected = new SpringValidatorAdapter(validator);
+
+    private final CompiledValidator compiled = new CompiledValidator(validator);
+
+    @Test
+    void sameErrorsAsSpringValidatorAdapter() {
+        for (Object target : events()) {
+            for (Object[] hints : HINTS) {
+                assertSameErrors(target, hints);
+            }
+        }
+        for (Object target : samples()) {
+            assertSameErrors(target, null);
+        }
+    }
+
+    @Test
+    void compilesPlanPerGroups() {
+        ValidationPlan groups = compiled.getPlan(Event.class, Event.ValidateLimit.class, Event.ValidateName.class);
+        assertTrue(groups.isCompiled());
+        assertEquals(2, groups.size());
+        assertSame(groups, compiled.getPlan(Event.class, Event.ValidateLimit.class, Event.ValidateName.class));
+
+        // @Future(Default 그룹)
+        assertEquals(1, compiled.getPlan(Event.class).size());
+        assertTrue(compiled.getPlan(Event.class).isValid(event("jonghak", 10, null)));
+        assertFalse(groups.isValid(event("", 10, null)));
+        assertFalse(groups.isValid(event("jonghak", -1, null)));
+
+        // 어떤 값이든 Hibernate Validator로 검증해야 하는 제약 (@Pattern)
+        assertFalse(compiled.getPlan(Sample.class).isCompiled());
+        assertFalse(compiled.getPlan(Sample.class).isValid(new Sample()));
+    }
+
+    private void assertSameErrors(Object target, Object[] hints) {
+        BeanPropertyBindingResult expectedErrors = new BeanPropertyBindingResult(target, "target");
+        BeanPropertyBindingResult compiledErrors = new BeanPropertyBindingResult(target, "target");
+        if (hints == null) {
+            expected.validate(target, expectedErrors);
+            compiled.validate(target, compiledErrors);
+        } else {
+            expected.validate(target, expectedErrors, hints);
+            compiled.validate(target, compiledErrors, hints);
+        }
+        assertEquals(expectedErrors.getAllErrors().toString(), compiledErrors.getAllErrors().toString(),
+                () -> target + " " + Arrays.toString(hints));
+    }
+
+    private List<Object> events() {
+        List<Object> events = new ArrayList<>();
+        for (String name : new String[]{null, "", " ", "jonghak"}) {
+            for (Integer limit : new Integer[]{null, -1, 0, 10}) {
+                events.add(event(name, limit, null));
+            }
+        }
+        LocalDate today = LocalDate.now();
+        for (LocalDate startDate : new LocalDate[]{today.minusDays(10), today.minusDays(1), today, today.plusDays(1), today.plusDays(2), today.plusYears(1)}) {
+            events.add(event("jonghak", 10, startDate));
+        }
+        return events;
+    }
+
+    private List<Object> samples() {
+        List<Object> samples = new ArrayList<>();
+        for (String code : new String[]{null, "", "ab", "abcdef", "a1"}) {
+            Sample sample = new Sample();
+            sample.setCode(code);
+            sample.setTitle(code);
+            samples.add(sample);
+        }
+        return samples;
+    }
+
+    private Event event(String name, Integer limit, LocalDate startDate) {
+        Event event = new Event();
+        event.setName(name);
+        event.setLimit(limit);
+        event.setStartDate(startDate);
+        return event;
+    }
+
+    @Data
+    public static class Sample {
+
+        @Pattern(regexp = "[a-z]*")
+        @Size(min = 2, max = 5)
+        private String code;
+
+        @NotBlank
+        private String title;
+    }
+}
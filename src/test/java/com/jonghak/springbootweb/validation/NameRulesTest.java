@@ -0,0 +1,118 @@
+package com.jonghak.springbootweb.validation;
+
+import com.jonghak.springbootweb.Event;
+import com.jonghak.springbootweb.EventValidatorImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.validation.BeanPropertyBindingResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameRulesTest {
+
+    @Test
+    void matchesExactAndContainsIgnoringCase() {
+        NameRules rules = NameRules.compile(List.of("# comment", "", "aaa", " *spam* ", "*he*", "*she*", "*hers*", "ab", "*zz*"));
+
+        assertEquals(7, rules.size());
+        assertTrue(rules.matches("aaa"));
+        assertTrue(rules.matches("AaA"));
+        assertFalse(rules.matches("aaab"));
+        assertFalse(rules.matches("xaaa"));
+        assertTrue(rules.matches("my SPAM event"));
+        assertTrue(rules.matches("usHErs"));
+        assertTrue(rules.matches("ab"));
+        assertFalse(rules.matches("aab"));
+        assertTrue(rules.matches("aazz"));
+        assertFalse(rules.matches(""));
+        assertFalse(NameRules.EMPTY.matches("aaa"));
+    }
+
+    @Test
+    void matchesLikeLinearScan() {
+        Random random = new Random(42);
+        List<String> exact = new ArrayList<>();
+        List<String> contains = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            String term = randomName(random, 3 + random.nextInt(6));
+            if (i % 3 == 0) {
+                contains.add(term.toLowerCase(Locale.ROOT));
+                lines.add("*" + term + "*");
+            } else {
+                exact.add(term);
+                lines.add(term);
+            }
+        }
+        NameRules rules = NameRules.compile(lines);
+
+        List<String> names = new ArrayList<>(exact.subList(0, 100));
+        for (int i = 0; i < 2_000; i++) {
+            names.add(randomName(random, 1 + random.nextInt(12)));
+        }
+        for (String name : names) {
+            boolean expected = exact.stream().anyMatch(name::equalsIgnoreCase)
+                    || contains.stream().anyMatch(name.toLowerCase(Locale.ROOT)::contains);
+            assertEquals(expected, rules.matches(name), name);
+        }
+    }
+
+    @Test
+    void eventValidatorSkipsMissingNameAndInactiveGroup() throws Exception {
+        EventValidatorImpl validator = new EventValidatorImpl(
+                new NameRuleRegistry(new FileSystemResource(write(Files.createTempFile("rules", ".txt"), "aaa")), Duration.ZERO));
+
+        Event event = new Event();
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(event, "event");
+        validator.validate(event, errors);
+        assertFalse(errors.hasErrors());
+
+        event.setName("AAA");
+        validator.validate(event, errors, Event.ValidateLimit.class);
+        assertFalse(errors.hasErrors());
+
+        validator.validate(event, errors, Event.ValidateLimit.class, Event.ValidateName.class);
+        assertEquals("wrongValue", errors.getFieldError("name").getCode());
+    }
+
+    @Test
+    void reloadsModifiedFile(@TempDir Path dir) throws Exception {
+        Path file = write(dir.resolve("rules.txt"), "aaa");
+        try (NameRuleRegistry registry = new NameRuleRegistry(new FileSystemResource(file), Duration.ofMillis(20))) {
+            assertTrue(registry.matches("aaa"));
+            assertFalse(registry.matches("bbb"));
+
+            write(file, "*bb*");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (!registry.matches("bbb") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(registry.matches("bbb"));
+            assertFalse(registry.matches("aaa"));
+        }
+    }
+
+    private static Path write(Path file, String rules) throws Exception {
+        return Files.writeString(file, rules);
+    }
+
+    private static String randomName(Random random, int length) {
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(4));
+            name.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return name.toString();
+    }
+}
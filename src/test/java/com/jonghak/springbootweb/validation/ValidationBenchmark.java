@@ -0,0 +1,86 @@
+package com.jonghak.springbootweb.validation;
+
+import com.jonghak.springbootweb.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * - Event 검증 비용 비교 (JMH)
+ *  ● springValidatorAdapter : 스프링 기본 (요청마다 Hibernate Validator로 검증)
+ *  ● compiledValidator : CompiledValidator (그룹별 검사 plan, 위반일 때만 Hibernate Validator)
+ *  ● event : valid(에러 없음), invalid(name, limit 에러)
+ *  ● 검증 그룹은 EventApi와 같은 {ValidateLimit, ValidateName}
+ *
+ * - 실행
+ *  ● ./mvnw test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *      -Dexec.args="-cp %classpath com.jonghak.springbootweb.validation.ValidationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final Object[] GROUPS = {Event.ValidateLimit.class, Event.ValidateName.class};
+
+    @Param({"valid", "invalid"})
+    String event;
+
+    SmartValidator springValidatorAdapter;
+
+    SmartValidator compiledValidator;
+
+    Event target;
+
+    @Setup
+    public void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        springValidatorAdapter = new SpringValidatorAdapter(validator);
+        compiledValidator = new CompiledValidator(validator);
+
+        target = new Event();
+        target.setName("valid".equals(event) ? "jonghak" : "");
+        target.setLimit("valid".equals(event) ? 10 : -1);
+    }
+
+    @Benchmark
+    public BeanPropertyBindingResult springValidatorAdapter() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(target, "event");
+        springValidatorAdapter.validate(target, errors, GROUPS);
+        return errors;
+    }
+
+    @Benchmark
+    public BeanPropertyBindingResult compiledValidator() {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(target, "event");
+        compiledValidator.validate(target, errors, GROUPS);
+        return errors;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}